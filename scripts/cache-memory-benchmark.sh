@@ -0,0 +1,20 @@
+#!/usr/bin/env bash
+# Starts the server once per cache profile and prints the heap report logged after the JDA is ready.
+# Usage: DISCORD_TOKEN=... scripts/cache-memory-benchmark.sh [jar] [seconds per profile]
+set -euo pipefail
+
+JAR="${1:-target/discord-mcp-0.0.1.jar}"
+WAIT_SECONDS="${2:-60}"
+LOG_FILE="./target/logs/mcp-weather-stdio-server.log"
+
+if [ -z "${DISCORD_TOKEN:-}" ]; then
+  echo "DISCORD_TOKEN must be set" >&2
+  exit 1
+fi
+
+for profile in lean balanced full; do
+  rm -f "$LOG_FILE"
+  # Keep stdin open so the STDIO transport does not shut the server down before the report is written
+  sleep "$WAIT_SECONDS" | DISCORD_CACHE_PROFILE="$profile" DISCORD_MEMORY_REPORT=true timeout "$WAIT_SECONDS" java -jar "$JAR" > /dev/null || true
+  grep -h "Cache profile" "$LOG_FILE" || echo "Cache profile $profile: no report within ${WAIT_SECONDS}s"
+done
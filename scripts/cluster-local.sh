@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Starts a local shard cluster: one process per shard range plus optional standbys, sharing one lease directory.
+# Usage: DISCORD_TOKEN=... scripts/cluster-local.sh <shard count> <processes> [jar]
+# Stop it with Ctrl+C; kill a single process to watch a standby take over its shards.
+set -euo pipefail
+
+SHARDS="${1:?shard count}"
+PROCESSES="${2:?number of processes}"
+JAR="${3:-target/discord-mcp-0.0.1.jar}"
+CLUSTER_DIR="${DISCORD_CLUSTER_DIR:-./target/cluster}"
+
+if [ -z "${DISCORD_TOKEN:-}" ]; then
+  echo "DISCORD_TOKEN must be set" >&2
+  exit 1
+fi
+
+mkdir -p "$CLUSTER_DIR"
+trap 'kill $(jobs -p) 2>/dev/null' EXIT
+
+for i in $(seq 1 "$PROCESSES"); do
+  # Each process gets its own log file and an idle stdin so the STDIO transport stays open
+  sleep infinity | DISCORD_SHARD_COUNT="$SHARDS" DISCORD_CLUSTER_DIR="$CLUSTER_DIR" \
+    java -Dlogging.file.name="$CLUSTER_DIR/member-$i.log" -jar "$JAR" > /dev/null &
+  echo "Started member $i (pid $!), log: $CLUSTER_DIR/member-$i.log"
+done
+wait
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Measures the time from process launch to the first successful MCP tools/list response over STDIO,
+# and the resident set size at that moment, for each build variant, then prints a markdown table of the
+# medians that can be pasted into the README.
+# Usage: DISCORD_TOKEN=... scripts/startup-benchmark.sh [runs] [variant...]
+# Variants: jar (mvn package), appcds (mvn -Pappcds package), native (mvn -Pnative package). Default: all built ones.
+set -euo pipefail
+
+RUNS="${1:-5}"
+shift $(( $# > 0 ? 1 : 0 ))
+VARIANTS=("$@")
+[ ${#VARIANTS[@]} -eq 0 ] && VARIANTS=(jar appcds native)
+
+JAR="target/discord-mcp-0.0.1.jar"
+CDS_JAR="target/cds/discord-mcp-0.0.1.jar"
+CDS_ARCHIVE="target/cds/app.jsa"
+NATIVE="target/discord-mcp"
+
+INITIALIZE='{"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2024-11-05","capabilities":{},"clientInfo":{"name":"startup-benchmark","version":"1"}}}'
+INITIALIZED='{"jsonrpc":"2.0","method":"notifications/initialized"}'
+TOOLS_LIST='{"jsonrpc":"2.0","id":2,"method":"tools/list"}'
+
+if [ -z "${DISCORD_TOKEN:-}" ]; then
+  echo "DISCORD_TOKEN must be set" >&2
+  exit 1
+fi
+
+command_for() {
+  case "$1" in
+    jar) [ -f "$JAR" ] && echo "java -jar $JAR" ;;
+    appcds) [ -f "$CDS_ARCHIVE" ] && echo "java -XX:SharedArchiveFile=$CDS_ARCHIVE -jar $CDS_JAR" ;;
+    native) [ -x "$NATIVE" ] && echo "$NATIVE" ;;
+  esac
+}
+
+# Prints "<ms> <rss MB>" for one launch, or "timeout ?"
+measure() {
+  local started line result="timeout" rss="?"
+  started=$(date +%s%N)
+  # exec keeps the coprocess PID equal to the server PID so its RSS can be read from /proc
+  coproc SERVER { exec $1 2>/dev/null; }
+  printf '%s\n%s\n%s\n' "$INITIALIZE" "$INITIALIZED" "$TOOLS_LIST" >&"${SERVER[1]}"
+  while IFS= read -r -t 60 line <&"${SERVER[0]}"; do
+    if [[ "$line" == *'"id":2'* ]]; then
+      result="$(( ($(date +%s%N) - started) / 1000000 ))"
+      rss="$(awk '/VmRSS/ {print int($2 / 1024)}' "/proc/$SERVER_PID/status")"
+      break
+    fi
+  done
+  kill "$SERVER_PID" 2>/dev/null || true
+  wait "$SERVER_PID" 2>/dev/null || true
+  echo "$result $rss"
+}
+
+median() {
+  sort -n | awk 'NF { values[++n] = $1 } END { if (n == 0) print "?"; else print values[int((n + 1) / 2)] }'
+}
+
+SUMMARY="| Variant | First tools/list (median ms) | RSS (median MB) |
+|---|---|---|"
+
+for variant in "${VARIANTS[@]}"; do
+  cmd="$(command_for "$variant" || true)"
+  if [ -z "$cmd" ]; then
+    echo "$variant: not built, skipping"
+    continue
+  fi
+  times=()
+  rss_values=()
+  for run in $(seq 1 "$RUNS"); do
+    read -r ms rss <<< "$(measure "$cmd")"
+    echo "$variant run $run: first tools/list after $ms ms, RSS $rss MB"
+    if [ "$ms" != "timeout" ]; then
+      times+=("$ms")
+      rss_values+=("$rss")
+    fi
+  done
+  SUMMARY+="
+| $variant | $(printf '%s\n' "${times[@]}" | median) | $(printf '%s\n' "${rss_values[@]}" | median) |"
+done
+
+echo
+echo "$SUMMARY"
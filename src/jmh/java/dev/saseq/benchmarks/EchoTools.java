@@ -0,0 +1,23 @@
+package dev.saseq.benchmarks;
+
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+/**
+ * Tool object with the same shape as the services, used to compare reflective and generated callbacks.
+ */
+public class EchoTools {
+
+    @Tool(name = "echo", description = "Return the message, optionally repeated")
+    public String echo(@ToolParam(description = "Message") String message,
+                       @ToolParam(description = "Number of repetitions", required = false) String times) {
+        int repetitions = times == null || times.isEmpty() ? 1 : Integer.parseInt(times);
+        return message.repeat(repetitions);
+    }
+
+    @Tool(name = "channel_info", description = "Describe a channel")
+    public String channelInfo(@ToolParam(description = "Guild ID", required = false) String guildId,
+                              @ToolParam(description = "Channel ID") String channelId) {
+        return "Channel " + channelId + " in " + guildId;
+    }
+}
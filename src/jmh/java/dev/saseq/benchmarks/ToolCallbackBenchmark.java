@@ -0,0 +1,70 @@
+package dev.saseq.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective {@link MethodToolCallbackProvider} callbacks against the ones generated by
+ * {@code ToolCallbackProcessor}: building the callbacks (startup) and dispatching a call.
+ * Run with {@code mvn -Pjmh test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolCallbackBenchmark {
+
+    private static final String INPUT = "{\"message\":\"hello\",\"times\":\"3\"}";
+
+    private final EchoTools tools = new EchoTools();
+    private ToolCallback reflectiveEcho;
+    private ToolCallback generatedEcho;
+
+    @Setup
+    public void setUp() {
+        reflectiveEcho = find(reflectiveCallbacks(), "echo");
+        generatedEcho = find(generatedCallbacks(), "echo");
+    }
+
+    @Benchmark
+    public ToolCallback[] reflectiveCallbacks() {
+        return MethodToolCallbackProvider.builder().toolObjects(tools).build().getToolCallbacks();
+    }
+
+    @Benchmark
+    public ToolCallback[] generatedCallbacks() {
+        return EchoToolsToolCallbacks.create(tools);
+    }
+
+    @Benchmark
+    public String reflectiveCall() {
+        return reflectiveEcho.call(INPUT);
+    }
+
+    @Benchmark
+    public String generatedCall() {
+        return generatedEcho.call(INPUT);
+    }
+
+    private static ToolCallback find(ToolCallback[] callbacks, String name) {
+        return Arrays.stream(callbacks)
+                .filter(callback -> callback.getToolDefinition().name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
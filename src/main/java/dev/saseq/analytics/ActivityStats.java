@@ -0,0 +1,309 @@
+package dev.saseq.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Message activity per guild and channel, kept as {@link ChannelActivity} sketches updated from
+ * gateway events. Queries read only the sketches, so they need no REST calls and answer in
+ * microseconds. At most {@code DISCORD_ACTIVITY_MAX_CHANNELS} channels are tracked; beyond that the
+ * channel with the oldest activity is dropped. The sketches are written to
+ * {@code DISCORD_ACTIVITY_DIR} every {@code DISCORD_ACTIVITY_SNAPSHOT_MINUTES} and on shutdown,
+ * and loaded again on start. Cluster members write one snapshot per leased shard range instead, picked
+ * with {@link #useShardRange} once the range is claimed, so members sharing the directory never overwrite
+ * each other and the member taking over a range continues its statistics.
+ * <p>
+ * Author statistics are kept per UTC day, so they cover whole days: the current day since midnight UTC
+ * plus as many earlier days as the queried hours need.
+ */
+@Component
+public class ActivityStats implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityStats.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x41435431;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final long HOUR_MILLIS = 3_600_000;
+
+    /**
+     * Result of an activity query.
+     *
+     * @param hours          the queried window in hours
+     * @param days           the window of the author statistics in whole UTC days, rounded up from {@code hours}
+     * @param authorsSince   epoch millis of the start of the author window, midnight UTC
+     * @param messages       messages in the window
+     * @param uniqueAuthors  estimated distinct authors in the author window
+     * @param busiest        channels with the most messages in the window, busiest first
+     * @param topAuthors     authors with the most estimated messages in the author window, most active first
+     * @param hourly         messages per hour, oldest first
+     * @param recordingSince epoch millis since when activity has been recorded
+     */
+    public record Report(int hours, int days, long authorsSince, long messages, long uniqueAuthors, List<Count> busiest,
+                         List<Count> topAuthors, int[] hourly, long recordingSince) {
+    }
+
+    /**
+     * @param id    channel or author ID
+     * @param count messages; an upper-bound estimate for authors
+     */
+    public record Count(long id, long count) {
+    }
+
+    private static final String SNAPSHOT_FILE = "activity.bin.gz";
+
+    private final Path directory;
+    // Null while a cluster member waits for its shard range: nothing is loaded or written until then
+    private Path snapshotFile;
+    private final int maxChannels;
+    private final LongSupplier clock;
+    private final Map<Long, Map<Long, ChannelActivity>> guilds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService snapshots;
+    private int channels;
+    private long recordingSince;
+
+    @Autowired
+    public ActivityStats(@Value("${DISCORD_ACTIVITY_DIR:./activity}") String activityDir,
+                         @Value("${DISCORD_ACTIVITY_MAX_CHANNELS:2000}") int maxChannels,
+                         @Value("${DISCORD_ACTIVITY_SNAPSHOT_MINUTES:5}") long snapshotMinutes,
+                         @Value("${DISCORD_CLUSTER_DIR:}") String clusterDir) {
+        this(Paths.get(activityDir), clusterDir != null && !clusterDir.isEmpty(), maxChannels, System::currentTimeMillis);
+        if (snapshotMinutes > 0) {
+            snapshots.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMinutes, snapshotMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    ActivityStats(Path directory, boolean clustered, int maxChannels, LongSupplier clock) {
+        if (maxChannels <= 0) {
+            throw new IllegalArgumentException("DISCORD_ACTIVITY_MAX_CHANNELS must be positive");
+        }
+        this.directory = directory;
+        this.snapshotFile = clustered ? null : directory.resolve(SNAPSHOT_FILE);
+        this.maxChannels = maxChannels;
+        this.clock = clock;
+        this.recordingSince = clock.getAsLong();
+        this.snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "activity-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        load();
+    }
+
+    /**
+     * Continues the statistics of a cluster shard range from its own snapshot. Called once the range is leased,
+     * before its shards connect.
+     */
+    public synchronized void useShardRange(int range) {
+        snapshotFile = directory.resolve("activity-range-" + range + ".bin.gz");
+        load();
+    }
+
+    /**
+     * Counts a message; {@code authorId} 0 counts it without an author, e.g. for webhook messages.
+     */
+    public void record(long guildId, long channelId, long authorId, long epochMillis) {
+        Map<Long, ChannelActivity> guild = guilds.get(guildId);
+        ChannelActivity activity = guild != null ? guild.get(channelId) : null;
+        if (activity == null) {
+            activity = track(guildId, channelId);
+        }
+        activity.record(epochMillis / HOUR_MILLIS, authorId);
+    }
+
+    /**
+     * Summarizes the activity of a guild, or of one of its channels, over the last {@code hours} hours.
+     *
+     * @param channelId the channel, or null for the whole guild
+     * @param top       number of busiest channels and top authors to return
+     */
+    public Report report(long guildId, Long channelId, int hours, int top) {
+        if (hours <= 0 || hours > ChannelActivity.HOURS) {
+            throw new IllegalArgumentException("hours must be between 1 and " + ChannelActivity.HOURS);
+        }
+        long nowHour = clock.getAsLong() / HOUR_MILLIS;
+        long nowDay = nowHour / 24;
+        int days = Math.min(ChannelActivity.DAYS, (hours + 23) / 24);
+        Map<Long, ChannelActivity> guild = guilds.getOrDefault(guildId, Map.of());
+        Map<Long, ChannelActivity> selected = channelId == null ? guild
+                : guild.containsKey(channelId) ? Map.of(channelId, guild.get(channelId)) : Map.of();
+
+        int[] hourly = new int[hours];
+        List<Count> busiest = new ArrayList<>();
+        HyperLogLog authors = new HyperLogLog(ChannelActivity.HLL_PRECISION);
+        Set<Long> candidates = new HashSet<>();
+        for (Map.Entry<Long, ChannelActivity> entry : selected.entrySet()) {
+            ChannelActivity activity = entry.getValue();
+            int[] channelHourly = activity.hourly(nowHour, hours);
+            long messages = 0;
+            for (int i = 0; i < hours; i++) {
+                hourly[i] += channelHourly[i];
+                messages += channelHourly[i];
+            }
+            if (messages > 0) {
+                busiest.add(new Count(entry.getKey(), messages));
+            }
+            activity.mergeAuthors(nowDay, days, authors);
+            activity.collectTopAuthors(nowDay, days, candidates);
+        }
+        List<Count> topAuthors = new ArrayList<>(candidates.size());
+        for (long authorId : candidates) {
+            long estimate = 0;
+            for (ChannelActivity activity : selected.values()) {
+                estimate += activity.estimate(authorId, nowDay, days);
+            }
+            topAuthors.add(new Count(authorId, estimate));
+        }
+        Comparator<Count> byCount = Comparator.comparingLong(Count::count).reversed().thenComparingLong(Count::id);
+        busiest.sort(byCount);
+        topAuthors.sort(byCount);
+        long messages = busiest.stream().mapToLong(Count::count).sum();
+        return new Report(hours, days, (nowDay - days + 1) * 24 * HOUR_MILLIS, messages, authors.estimate(),
+                List.copyOf(busiest.subList(0, Math.min(top, busiest.size()))),
+                List.copyOf(topAuthors.subList(0, Math.min(top, topAuthors.size()))),
+                hourly, recordingSince);
+    }
+
+    public synchronized void removeChannel(long guildId, long channelId) {
+        Map<Long, ChannelActivity> guild = guilds.get(guildId);
+        if (guild != null && guild.remove(channelId) != null) {
+            channels--;
+        }
+    }
+
+    public synchronized void dropGuild(long guildId) {
+        Map<Long, ChannelActivity> guild = guilds.remove(guildId);
+        if (guild != null) {
+            channels -= guild.size();
+        }
+    }
+
+    /**
+     * Writes all sketches to the snapshot file, replacing it atomically.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (snapshotFile == null) {
+            return;
+        }
+        Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporary), 64 * 1024)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(recordingSince);
+            out.writeInt(channels);
+            // Channels are only added and removed while holding this lock, so the count stays exact
+            for (Map.Entry<Long, Map<Long, ChannelActivity>> guild : guilds.entrySet()) {
+                for (Map.Entry<Long, ChannelActivity> channel : guild.getValue().entrySet()) {
+                    out.writeLong(guild.getKey());
+                    out.writeLong(channel.getKey());
+                    channel.getValue().write(out);
+                }
+            }
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {
+        snapshots.shutdownNow();
+        snapshotQuietly();
+    }
+
+    private synchronized ChannelActivity track(long guildId, long channelId) {
+        Map<Long, ChannelActivity> guild = guilds.computeIfAbsent(guildId, id -> new ConcurrentHashMap<>());
+        ChannelActivity activity = guild.get(channelId);
+        if (activity != null) {
+            return activity;
+        }
+        if (channels >= maxChannels) {
+            evictOldest();
+        }
+        activity = new ChannelActivity();
+        guild.put(channelId, activity);
+        channels++;
+        return activity;
+    }
+
+    private void evictOldest() {
+        Map<Long, ChannelActivity> oldestGuild = null;
+        long oldestChannel = 0;
+        long oldestHour = Long.MAX_VALUE;
+        for (Map<Long, ChannelActivity> guild : guilds.values()) {
+            for (Map.Entry<Long, ChannelActivity> channel : guild.entrySet()) {
+                long lastHour = channel.getValue().lastHour();
+                if (lastHour < oldestHour) {
+                    oldestGuild = guild;
+                    oldestChannel = channel.getKey();
+                    oldestHour = lastHour;
+                }
+            }
+        }
+        if (oldestGuild != null && oldestGuild.remove(oldestChannel) != null) {
+            channels--;
+        }
+    }
+
+    private synchronized void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write activity snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private synchronized void load() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotFile), 64 * 1024)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            long since = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long guildId = in.readLong();
+                long channelId = in.readLong();
+                ChannelActivity activity = ChannelActivity.read(in);
+                if (channels < maxChannels) {
+                    guilds.computeIfAbsent(guildId, id -> new ConcurrentHashMap<>()).put(channelId, activity);
+                    channels++;
+                }
+            }
+            recordingSince = since;
+            logger.info("Loaded activity sketches of {} channels from {}", channels, snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable activity snapshot {}: {}", snapshotFile, e.getMessage());
+            guilds.clear();
+            channels = 0;
+        }
+    }
+}
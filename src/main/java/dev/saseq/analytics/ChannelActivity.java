@@ -0,0 +1,214 @@
+package dev.saseq.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Fixed-size activity sketches of one channel over a rolling week: message counts per hour, and per
+ * day a HyperLogLog of the authors, a Count-Min sketch of messages per author and the top authors.
+ * Slots are reused as time moves on, so memory does not grow with traffic (about 11 KB per channel).
+ * Hours and days are counted since the epoch in UTC. Methods are synchronized; updates come from
+ * gateway threads and queries from tool calls.
+ */
+final class ChannelActivity {
+
+    static final int HOURS = 168;
+    static final int DAYS = 7;
+    static final int TOP_AUTHORS = 10;
+    static final int HLL_PRECISION = 9;
+    private static final int CM_DEPTH = 4;
+    private static final int CM_WIDTH = 64;
+
+    private final int[] hourly = new int[HOURS];
+    private final HyperLogLog[] authors = new HyperLogLog[DAYS];
+    private final CountMinSketch[] authorCounts = new CountMinSketch[DAYS];
+    private final long[][] topAuthors = new long[DAYS][TOP_AUTHORS];
+    private final int[][] topCounts = new int[DAYS][TOP_AUTHORS];
+    private final int[] topSizes = new int[DAYS];
+    private long lastHour = -1;
+
+    ChannelActivity() {
+        for (int day = 0; day < DAYS; day++) {
+            authors[day] = new HyperLogLog(HLL_PRECISION);
+            authorCounts[day] = new CountMinSketch(CM_DEPTH, CM_WIDTH);
+        }
+    }
+
+    /**
+     * Counts a message; {@code authorId} 0 counts it without attributing it to an author, e.g. for webhooks.
+     */
+    synchronized void record(long hour, long authorId) {
+        advance(hour);
+        if (lastHour - hour >= HOURS) {
+            return;
+        }
+        hourly[hourSlot(hour)]++;
+        long day = hour / 24;
+        if (authorId == 0 || lastHour / 24 - day >= DAYS) {
+            return;
+        }
+        int slot = daySlot(day);
+        authors[slot].add(Hashing.mix(authorId));
+        updateTop(slot, authorId, authorCounts[slot].increment(authorId));
+    }
+
+    /**
+     * Messages per hour for the {@code hours} hours ending with {@code nowHour}, oldest first.
+     */
+    synchronized int[] hourly(long nowHour, int hours) {
+        int[] counts = new int[hours];
+        for (int i = 0; i < hours; i++) {
+            long hour = nowHour - hours + 1 + i;
+            if (hour <= lastHour && lastHour - hour < HOURS) {
+                counts[i] = hourly[hourSlot(hour)];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Merges the author sketches of the {@code days} days ending with {@code nowDay} into {@code target}.
+     */
+    synchronized void mergeAuthors(long nowDay, int days, HyperLogLog target) {
+        for (long day = nowDay - days + 1; day <= nowDay; day++) {
+            if (isKept(day)) {
+                target.merge(authors[daySlot(day)]);
+            }
+        }
+    }
+
+    /**
+     * Adds the top authors of the {@code days} days ending with {@code nowDay} to {@code candidates}.
+     */
+    synchronized void collectTopAuthors(long nowDay, int days, Set<Long> candidates) {
+        for (long day = nowDay - days + 1; day <= nowDay; day++) {
+            if (isKept(day)) {
+                int slot = daySlot(day);
+                for (int i = 0; i < topSizes[slot]; i++) {
+                    candidates.add(topAuthors[slot][i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimated messages of an author over the {@code days} days ending with {@code nowDay}; never an undercount.
+     */
+    synchronized long estimate(long authorId, long nowDay, int days) {
+        long estimate = 0;
+        for (long day = nowDay - days + 1; day <= nowDay; day++) {
+            if (isKept(day)) {
+                estimate += authorCounts[daySlot(day)].estimate(authorId);
+            }
+        }
+        return estimate;
+    }
+
+    synchronized long lastHour() {
+        return lastHour;
+    }
+
+    private boolean isKept(long day) {
+        long lastDay = lastHour / 24;
+        return lastHour >= 0 && day <= lastDay && lastDay - day < DAYS;
+    }
+
+    /**
+     * Moves the window to {@code hour}, clearing the hour and day slots that are reused.
+     */
+    private void advance(long hour) {
+        if (hour <= lastHour) {
+            return;
+        }
+        if (lastHour >= 0) {
+            for (long h = Math.max(lastHour + 1, hour - HOURS + 1); h <= hour; h++) {
+                hourly[hourSlot(h)] = 0;
+            }
+            long lastDay = lastHour / 24;
+            for (long day = Math.max(lastDay + 1, hour / 24 - DAYS + 1); day <= hour / 24; day++) {
+                int slot = daySlot(day);
+                authors[slot].clear();
+                authorCounts[slot].clear();
+                topSizes[slot] = 0;
+            }
+        }
+        lastHour = hour;
+    }
+
+    private void updateTop(int slot, long authorId, int count) {
+        long[] ids = topAuthors[slot];
+        int[] counts = topCounts[slot];
+        int size = topSizes[slot];
+        int min = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == authorId) {
+                counts[i] = count;
+                return;
+            }
+            if (counts[i] < counts[min]) {
+                min = i;
+            }
+        }
+        if (size < TOP_AUTHORS) {
+            ids[size] = authorId;
+            counts[size] = count;
+            topSizes[slot]++;
+        } else if (count > counts[min]) {
+            ids[min] = authorId;
+            counts[min] = count;
+        }
+    }
+
+    private static int hourSlot(long hour) {
+        return (int) Math.floorMod(hour, HOURS);
+    }
+
+    private static int daySlot(long day) {
+        return (int) Math.floorMod(day, DAYS);
+    }
+
+    synchronized void write(DataOutput out) throws IOException {
+        out.writeLong(lastHour);
+        for (int count : hourly) {
+            out.writeInt(count);
+        }
+        for (int day = 0; day < DAYS; day++) {
+            out.write(authors[day].registers());
+            for (int count : authorCounts[day].counts()) {
+                out.writeInt(count);
+            }
+            out.writeInt(topSizes[day]);
+            for (int i = 0; i < topSizes[day]; i++) {
+                out.writeLong(topAuthors[day][i]);
+                out.writeInt(topCounts[day][i]);
+            }
+        }
+    }
+
+    static ChannelActivity read(DataInput in) throws IOException {
+        ChannelActivity activity = new ChannelActivity();
+        activity.lastHour = in.readLong();
+        for (int i = 0; i < HOURS; i++) {
+            activity.hourly[i] = in.readInt();
+        }
+        for (int day = 0; day < DAYS; day++) {
+            in.readFully(activity.authors[day].registers());
+            int[] counts = activity.authorCounts[day].counts();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = in.readInt();
+            }
+            int size = in.readInt();
+            if (size < 0 || size > TOP_AUTHORS) {
+                throw new IOException("Corrupt activity snapshot");
+            }
+            activity.topSizes[day] = size;
+            for (int i = 0; i < size; i++) {
+                activity.topAuthors[day][i] = in.readLong();
+                activity.topCounts[day][i] = in.readInt();
+            }
+        }
+        return activity;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.saseq.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch of item frequencies. An estimate never undercounts and overcounts by at most
+ * {@code e / width} of the total count with probability {@code 1 - e^-depth}.
+ */
+final class CountMinSketch {
+
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+            0xD6E8FEB86659FD93L, 0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L};
+
+    private final int depth;
+    private final int width;
+    private final int[] counts;
+
+    CountMinSketch(int depth, int width) {
+        if (depth <= 0 || depth > SEEDS.length || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length + " and width a power of two");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new int[depth * width];
+    }
+
+    /**
+     * Adds one occurrence and returns the new estimate of the item.
+     */
+    int increment(long item) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(row, item);
+            counts[cell]++;
+            estimate = Math.min(estimate, counts[cell]);
+        }
+        return estimate;
+    }
+
+    int estimate(long item) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[cell(row, item)]);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    int[] counts() {
+        return counts;
+    }
+
+    private int cell(int row, long item) {
+        return row * width + (int) (Hashing.mix(item ^ SEEDS[row]) & (width - 1));
+    }
+}
@@ -0,0 +1,16 @@
+package dev.saseq.analytics;
+
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * SplitMix64 finalizer; spreads Discord snowflakes, whose low bits are mostly sequence numbers, over all 64 bits.
+     */
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
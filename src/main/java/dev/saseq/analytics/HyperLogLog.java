@@ -0,0 +1,67 @@
+package dev.saseq.analytics;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality sketch over 64-bit hashes. With {@code 2^precision} one-byte registers
+ * the standard error is about {@code 1.04 / sqrt(2^precision)}, e.g. 3.25% for precision 10 (1 KB).
+ */
+final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits; the guard bit caps it for an all-zero remainder
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Folds another sketch of the same precision into this one, estimating the union.
+     */
+    void merge(HyperLogLog other) {
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    byte[] registers() {
+        return registers;
+    }
+}
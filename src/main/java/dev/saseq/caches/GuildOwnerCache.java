@@ -0,0 +1,59 @@
+package dev.saseq.caches;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Owner names per guild, so server summaries do not retrieve the owner member on every call.
+ * Ownership transfers and username changes update the entries; the time to live covers name
+ * changes of owners that are not in the member cache, which the gateway does not report.
+ */
+@Component
+public class GuildOwnerCache {
+
+    private static final Duration TTL = Duration.ofHours(6);
+
+    private final LongSupplier nanoClock;
+    private final Map<Long, Owner> owners = new ConcurrentHashMap<>();
+
+    public GuildOwnerCache() {
+        this(System::nanoTime);
+    }
+
+    GuildOwnerCache(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the cached name of the guild owner, or null when it is missing, stale or belongs to another owner.
+     */
+    public String get(long guildId, long ownerId) {
+        Owner owner = owners.get(guildId);
+        if (owner == null || owner.id != ownerId || nanoClock.getAsLong() - owner.loadedAt > TTL.toNanos()) {
+            return null;
+        }
+        return owner.name;
+    }
+
+    public void put(long guildId, long ownerId, String name) {
+        owners.put(guildId, new Owner(ownerId, name, nanoClock.getAsLong()));
+    }
+
+    /**
+     * Updates the name of a user in every guild they own.
+     */
+    public void rename(long userId, String name) {
+        owners.replaceAll((guildId, owner) -> owner.id == userId ? new Owner(userId, name, owner.loadedAt) : owner);
+    }
+
+    public void invalidate(long guildId) {
+        owners.remove(guildId);
+    }
+
+    private record Owner(long id, String name, long loadedAt) {
+    }
+}
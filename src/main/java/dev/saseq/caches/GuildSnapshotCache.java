@@ -0,0 +1,101 @@
+package dev.saseq.caches;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Rendered guild structure snapshots, one section per category (plus section {@code 0} for
+ * channels outside any category). Structure events invalidate single sections, and the next
+ * snapshot re-renders only those. Until then, repeated snapshots return the cached sections as-is.
+ * <p>
+ * Every invalidation bumps a per-guild version, and a render started before it is not stored,
+ * so an event racing a render never leaves a stale section behind.
+ */
+@Component
+public class GuildSnapshotCache {
+
+    private final Map<Long, Snapshot> guilds = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the rendered sections of a guild in order.
+     *
+     * @param guildId       the guild
+     * @param sectionIds    supplies the section IDs in display order, called when the layout is not cached
+     * @param renderSection renders one section, called for sections that are not cached
+     */
+    public List<String> get(long guildId, Supplier<long[]> sectionIds, LongFunction<String> renderSection) {
+        Snapshot snapshot = guilds.computeIfAbsent(guildId, id -> new Snapshot());
+        long version;
+        Map<Long, String> cached;
+        synchronized (snapshot) {
+            if (snapshot.assembled != null) {
+                return snapshot.assembled;
+            }
+            version = snapshot.version;
+            cached = new HashMap<>(snapshot.sections);
+        }
+        long[] ids = sectionIds.get();
+        List<String> assembled = new ArrayList<>(ids.length);
+        Map<Long, String> rendered = new HashMap<>();
+        for (long id : ids) {
+            String section = cached.get(id);
+            if (section == null) {
+                section = renderSection.apply(id);
+                rendered.put(id, section);
+            }
+            assembled.add(section);
+        }
+        List<String> result = List.copyOf(assembled);
+        synchronized (snapshot) {
+            if (snapshot.version == version) {
+                snapshot.sections.putAll(rendered);
+                snapshot.assembled = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops one section, e.g. after a channel in the category changed.
+     */
+    public void invalidateSection(long guildId, long sectionId) {
+        Snapshot snapshot = guilds.get(guildId);
+        if (snapshot != null) {
+            synchronized (snapshot) {
+                snapshot.version++;
+                snapshot.sections.remove(sectionId);
+                snapshot.assembled = null;
+            }
+        }
+    }
+
+    /**
+     * Keeps the sections but recomputes their order, e.g. after a category was created.
+     */
+    public void invalidateLayout(long guildId) {
+        Snapshot snapshot = guilds.get(guildId);
+        if (snapshot != null) {
+            synchronized (snapshot) {
+                snapshot.version++;
+                snapshot.assembled = null;
+            }
+        }
+    }
+
+    public void drop(long guildId) {
+        guilds.remove(guildId);
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, String> sections = new HashMap<>();
+        private List<String> assembled;
+        private long version;
+    }
+}
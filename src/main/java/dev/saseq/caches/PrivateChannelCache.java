@@ -0,0 +1,50 @@
+package dev.saseq.caches;
+
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Maps user IDs to the IDs of their private (DM) channels so DM tools can skip
+ * {@code openPrivateChannel()} round-trips. Filled lazily by the DM tools and from
+ * incoming DM gateway events. Only IDs are kept: channel entities belong to the JDA
+ * session that created them and go stale after a reconnect, so every lookup resolves
+ * the ID against the current session.
+ */
+@Component
+public class PrivateChannelCache {
+
+    private static final int MAX_CHANNELS = 5_000;
+    private static final Duration TTL = Duration.ofHours(12);
+
+    private final TtlCache<String, String> channelIds = new TtlCache<>(MAX_CHANNELS);
+
+    /**
+     * Returns the private channel of a user as known to the current session.
+     *
+     * @param userId the user ID
+     * @param lookup resolves a channel ID in the current session, e.g. {@code DiscordGateway::getPrivateChannelById}
+     * @return the channel, or null when no channel ID is cached or the session no longer knows it
+     */
+    public PrivateChannel get(String userId, Function<String, PrivateChannel> lookup) {
+        String channelId = channelIds.get(userId);
+        if (channelId == null) {
+            return null;
+        }
+        PrivateChannel channel = lookup.apply(channelId);
+        if (channel == null) {
+            channelIds.invalidate(userId);
+        }
+        return channel;
+    }
+
+    public void put(String userId, PrivateChannel channel) {
+        channelIds.put(userId, channel.getId(), TTL);
+    }
+
+    public void invalidate(String userId) {
+        channelIds.invalidate(userId);
+    }
+}
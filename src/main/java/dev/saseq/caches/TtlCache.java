@@ -0,0 +1,71 @@
+package dev.saseq.caches;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Small bounded cache whose entries expire after a per-entry time to live.
+ * When full, the least recently used entry is evicted. All operations are synchronized,
+ * which is sufficient for the low call rates of tool invocations.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class TtlCache<K, V> {
+
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry<V>> entries;
+
+    public TtlCache(int maxSize) {
+        this(maxSize, System::nanoTime);
+    }
+
+    TtlCache(int maxSize, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, or null when the key is missing or its entry has expired.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.expiresAt > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value, Duration ttl) {
+        entries.put(key, new Entry<>(value, nanoClock.getAsLong() + ttl.toNanos()));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
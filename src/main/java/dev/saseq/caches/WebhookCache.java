@@ -0,0 +1,173 @@
+package dev.saseq.caches;
+
+import net.dv8tion.jda.api.entities.Webhook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Webhook inventory per guild and per channel, so listing and deleting webhooks does not cost a
+ * REST call every time. A guild-wide listing also answers channel lookups in that guild.
+ * Entries are dropped by {@code WEBHOOKS_UPDATE} gateway events; the time to live only covers
+ * events missed while the gateway was disconnected.
+ * <p>
+ * Every invalidation bumps a per-guild version, and a listing started before it is not stored,
+ * so an event racing a listing never leaves a stale inventory behind.
+ * <p>
+ * {@code DISCORD_WEBHOOK_CACHE=false} turns the cache off: every lookup lists webhooks through the API,
+ * and the raw gateway events that carry {@code WEBHOOKS_UPDATE} are not enabled.
+ */
+@Component
+public class WebhookCache {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private final boolean enabled;
+    private final LongSupplier nanoClock;
+    private final Map<Long, GuildWebhooks> guilds = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WebhookCache(@Value("${DISCORD_WEBHOOK_CACHE:true}") boolean enabled) {
+        this(enabled, System::nanoTime);
+    }
+
+    WebhookCache(boolean enabled, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether inventories are cached, and so whether {@code WEBHOOKS_UPDATE} events are needed to invalidate them.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the webhooks of a channel.
+     *
+     * @param loader lists the channel's webhooks, called when neither the channel nor its guild is cached
+     */
+    public List<Webhook> channel(long guildId, long channelId, Supplier<List<Webhook>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        GuildWebhooks cached = guilds.computeIfAbsent(guildId, id -> new GuildWebhooks());
+        long version;
+        synchronized (cached) {
+            if (isFresh(cached.guild)) {
+                return cached.guild.webhooks.stream()
+                        .filter(webhook -> webhook.getChannel().getIdLong() == channelId)
+                        .toList();
+            }
+            Entry channel = cached.channels.get(channelId);
+            if (isFresh(channel)) {
+                return channel.webhooks;
+            }
+            version = cached.version;
+        }
+        List<Webhook> webhooks = List.copyOf(loader.get());
+        synchronized (cached) {
+            if (cached.version == version) {
+                cached.channels.put(channelId, new Entry(webhooks, nanoClock.getAsLong()));
+            }
+        }
+        return webhooks;
+    }
+
+    /**
+     * Returns the webhooks of every channel in a guild.
+     *
+     * @param loader lists the guild's webhooks, called when the guild is not cached
+     */
+    public List<Webhook> guild(long guildId, Supplier<List<Webhook>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        GuildWebhooks cached = guilds.computeIfAbsent(guildId, id -> new GuildWebhooks());
+        long version;
+        synchronized (cached) {
+            if (isFresh(cached.guild)) {
+                return cached.guild.webhooks;
+            }
+            version = cached.version;
+        }
+        List<Webhook> webhooks = List.copyOf(loader.get());
+        synchronized (cached) {
+            if (cached.version == version) {
+                cached.guild = new Entry(webhooks, nanoClock.getAsLong());
+                // The guild listing answers channel lookups from now on
+                cached.channels.clear();
+            }
+        }
+        return webhooks;
+    }
+
+    /**
+     * Returns a cached webhook by ID, or null when no cached inventory contains it.
+     */
+    public Webhook find(long webhookId) {
+        for (GuildWebhooks cached : guilds.values()) {
+            synchronized (cached) {
+                Webhook webhook = isFresh(cached.guild) ? find(cached.guild.webhooks, webhookId) : null;
+                for (Entry channel : cached.channels.values()) {
+                    if (webhook == null && isFresh(channel)) {
+                        webhook = find(channel.webhooks, webhookId);
+                    }
+                }
+                if (webhook != null) {
+                    return webhook;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops the inventory of a channel and of its guild, e.g. after a webhook in the channel changed.
+     */
+    public void invalidate(long guildId, long channelId) {
+        GuildWebhooks cached = guilds.get(guildId);
+        if (cached != null) {
+            synchronized (cached) {
+                cached.version++;
+                cached.guild = null;
+                cached.channels.remove(channelId);
+            }
+        }
+    }
+
+    public void drop(long guildId) {
+        guilds.remove(guildId);
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry != null && nanoClock.getAsLong() - entry.loadedAt <= TTL.toNanos();
+    }
+
+    private static Webhook find(List<Webhook> webhooks, long webhookId) {
+        for (Webhook webhook : webhooks) {
+            if (webhook.getIdLong() == webhookId) {
+                return webhook;
+            }
+        }
+        return null;
+    }
+
+    private record Entry(List<Webhook> webhooks, long loadedAt) {
+    }
+
+    private static final class GuildWebhooks {
+        private final Map<Long, Entry> channels = new HashMap<>();
+        private Entry guild;
+        private long version;
+    }
+}
@@ -0,0 +1,32 @@
+package dev.saseq.changes;
+
+import java.util.List;
+
+/**
+ * One entry of the {@link ChangeJournal}.
+ *
+ * @param sequence  position in the journal, increasing by one per recorded change
+ * @param timestamp epoch milliseconds when the change was recorded
+ * @param guildId   the guild the change belongs to
+ * @param type      the kind of change, e.g. {@code message_create} or {@code member_join}
+ * @param channelId the channel involved, or null
+ * @param subjectId the message, member or channel the change is about
+ * @param summary   a short human-readable description
+ */
+public record Change(long sequence, long timestamp, long guildId, String type,
+                     String channelId, String subjectId, String summary) {
+
+    public static final String MESSAGE_CREATE = "message_create";
+    public static final String MESSAGE_UPDATE = "message_update";
+    public static final String MESSAGE_DELETE = "message_delete";
+    public static final String MEMBER_JOIN = "member_join";
+    public static final String MEMBER_LEAVE = "member_leave";
+    public static final String CHANNEL_CREATE = "channel_create";
+    public static final String CHANNEL_UPDATE = "channel_update";
+    public static final String CHANNEL_DELETE = "channel_delete";
+    public static final String REACTION_ADD = "reaction_add";
+    public static final String REACTION_REMOVE = "reaction_remove";
+
+    public static final List<String> TYPES = List.of(MESSAGE_CREATE, MESSAGE_UPDATE, MESSAGE_DELETE,
+            MEMBER_JOIN, MEMBER_LEAVE, CHANNEL_CREATE, CHANNEL_UPDATE, CHANNEL_DELETE, REACTION_ADD, REACTION_REMOVE);
+}
@@ -0,0 +1,126 @@
+package dev.saseq.changes;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded in-memory journal of guild changes, fed by gateway events.
+ * Changes are kept in a ring buffer indexed by sequence number, so reading the changes after a
+ * cursor costs time proportional to the number of changes since then, independent of guild size.
+ * Once more changes than the capacity were recorded after a cursor, the oldest ones are gone and
+ * the read reports an overflow.
+ * <p>
+ * Cursors carry a per-process epoch, so a cursor from before a restart reads as an overflow
+ * instead of silently skipping or repeating changes.
+ */
+@Component
+public class ChangeJournal {
+
+    private final Change[] ring;
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+    private long nextSequence = 1;
+
+    public ChangeJournal(@Value("${DISCORD_CHANGE_JOURNAL_SIZE:10000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("DISCORD_CHANGE_JOURNAL_SIZE must be positive");
+        }
+        this.ring = new Change[capacity];
+    }
+
+    /**
+     * A page of changes.
+     *
+     * @param changes  the changes after the cursor, oldest first
+     * @param cursor   the cursor to pass next time
+     * @param overflow whether changes between the given cursor and the first returned change were dropped
+     * @param more     whether more changes are available right away
+     */
+    public record Page(List<Change> changes, String cursor, boolean overflow, boolean more) {
+    }
+
+    public void record(long guildId, String type, String channelId, String subjectId, String summary) {
+        long timestamp = System.currentTimeMillis();
+        synchronized (ring) {
+            long sequence = nextSequence++;
+            ring[(int) (sequence % ring.length)] = new Change(sequence, timestamp, guildId, type, channelId, subjectId, summary);
+        }
+    }
+
+    /**
+     * Reads the changes recorded after the cursor.
+     *
+     * @param cursor  a cursor from a previous page, or null to start at the oldest retained change
+     * @param guildId only return changes of this guild, or null for all guilds
+     * @param types   only return changes of these types, or null for all types
+     * @param limit   the maximum number of changes to return
+     */
+    public Page since(String cursor, Long guildId, Set<String> types, int limit) {
+        long after = decode(cursor);
+        List<Change> changes = new ArrayList<>(Math.min(limit, 64));
+        synchronized (ring) {
+            long oldest = Math.max(1, nextSequence - ring.length);
+            boolean overflow = cursor != null && !cursor.isBlank() && (after < 0 || after + 1 < oldest);
+            long sequence = Math.max(after + 1, oldest);
+            while (sequence < nextSequence && changes.size() < limit) {
+                Change change = ring[(int) (sequence % ring.length)];
+                if ((guildId == null || change.guildId() == guildId) && (types == null || types.contains(change.type()))) {
+                    changes.add(change);
+                }
+                sequence++;
+            }
+            return new Page(changes, encode(sequence - 1), overflow, sequence < nextSequence);
+        }
+    }
+
+    /**
+     * A cursor positioned after the latest change, for callers that only want future changes.
+     */
+    public String latestCursor() {
+        synchronized (ring) {
+            return encode(nextSequence - 1);
+        }
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    private String encode(long sequence) {
+        String payload = epoch + ":" + sequence;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the last sequence the cursor has seen, 0 for no cursor, or -1 for a cursor of another epoch.
+     */
+    private long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int separator = payload.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!payload.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(payload.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package dev.saseq.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs this process as one member of a multi-process shard cluster on a single host.
+ * Enabled by {@code DISCORD_CLUSTER_DIR}: the process claims a shard range through {@link ShardLeaseManager},
+ * listens on a loopback port for tool calls forwarded by the other members, and forwards tool calls for
+ * guilds outside its own range to the owner of that range. Members also answer which guild a channel
+ * belongs to, so calls that only name a channel reach the owner of the channel's guild.
+ */
+@Component
+public class ClusterCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCoordinator.class);
+    private static final Duration LEASE_POLL_INTERVAL = Duration.ofSeconds(2);
+    private static final int FORWARD_TIMEOUT_MILLIS = 60_000;
+    private static final byte STATUS_OK = 0;
+    private static final byte STATUS_ERROR = 1;
+    // Not a valid tool name, so it cannot collide with a forwarded tool call
+    private static final String LOCATE_CHANNEL = "#locate-channel";
+
+    private final ShardLeaseManager leaseManager;
+    private final int shardsTotal;
+    private final int port;
+    private final Map<String, ToolCallback> localCallbacks = new ConcurrentHashMap<>();
+    // Channels never move between guilds, so located channels are kept for the life of the process
+    private final Map<Long, Long> channelGuilds = new ConcurrentHashMap<>();
+    private volatile ToLongFunction<String> localChannelGuild = channelId -> 0;
+    private volatile ShardLease lease;
+    private CompletableFuture<ShardLease> claim;
+    private ServerSocket serverSocket;
+
+    public ClusterCoordinator(@Value("${DISCORD_CLUSTER_DIR:}") String clusterDir,
+                              @Value("${DISCORD_SHARD_COUNT:0}") String shardCount,
+                              @Value("${DISCORD_CLUSTER_SHARDS_PER_PROCESS:1}") int shardsPerProcess,
+                              @Value("${DISCORD_CLUSTER_PORT:0}") int port) {
+        this.port = port;
+        if (clusterDir == null || clusterDir.isEmpty()) {
+            this.leaseManager = null;
+            this.shardsTotal = 0;
+            return;
+        }
+        try {
+            this.shardsTotal = Integer.parseInt(shardCount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("DISCORD_CLUSTER_DIR requires a fixed DISCORD_SHARD_COUNT shared by all processes");
+        }
+        this.leaseManager = new ShardLeaseManager(Paths.get(clusterDir), shardsTotal, shardsPerProcess);
+    }
+
+    public boolean isEnabled() {
+        return leaseManager != null;
+    }
+
+    public int getShardsTotal() {
+        return shardsTotal;
+    }
+
+    /**
+     * Opens the forwarding port and claims a shard range in the background, waiting as a standby while every
+     * range is taken. The returned future completes with the lease; until then this process owns no shard
+     * and forwards every guild call to the owning member.
+     */
+    public synchronized CompletableFuture<ShardLease> start() {
+        if (claim != null) {
+            return claim;
+        }
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open cluster forwarding port " + port, e);
+        }
+        logger.info("Cluster member listening on port {}, waiting for a free shard range", serverSocket.getLocalPort());
+        ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-forwarding");
+            thread.setDaemon(true);
+            return thread;
+        });
+        claim = CompletableFuture.supplyAsync(() -> {
+            try {
+                ShardLease claimed = leaseManager.awaitClaim(serverSocket.getLocalPort(), LEASE_POLL_INTERVAL);
+                logger.info("Claimed shard range {} (shards {}-{} of {})",
+                        claimed.range(), claimed.firstShard(), claimed.lastShard(), shardsTotal);
+                workers.execute(() -> acceptLoop(workers));
+                lease = claimed;
+                return claimed;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a shard range", e);
+            }
+        }, workers);
+        return claim;
+    }
+
+    /**
+     * Registers the tool callbacks that answer calls forwarded from other processes, and the lookup of the
+     * guild of a channel in this process's caches (0 if the channel is not cached here).
+     */
+    public void serve(ToolCallback[] callbacks, ToLongFunction<String> localChannelGuild) {
+        for (ToolCallback callback : callbacks) {
+            localCallbacks.put(callback.getToolDefinition().name(), callback);
+        }
+        this.localChannelGuild = localChannelGuild;
+    }
+
+    /**
+     * The shard that receives the events of a guild, following Discord's {@code (guildId >> 22) % shards} rule.
+     * Direct messages are always dispatched to shard 0.
+     */
+    public int shardOf(long guildId) {
+        return (int) ((guildId >>> 22) % shardsTotal);
+    }
+
+    /**
+     * Whether this process runs the shard. A standby member runs none.
+     */
+    public boolean isLocal(int shardId) {
+        ShardLease current = lease;
+        return current != null && current.contains(shardId);
+    }
+
+    /**
+     * Returns the guild a channel belongs to, asking the other members if the channel is not cached here,
+     * or 0 if no member knows the channel.
+     */
+    public long guildOfChannel(String channelId) {
+        long channel;
+        try {
+            channel = Long.parseLong(channelId);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        Long known = channelGuilds.get(channel);
+        if (known != null) {
+            return known;
+        }
+        ShardLease current = lease;
+        long guildId = current == null ? 0 : localChannelGuild.applyAsLong(channelId);
+        for (int range = 0; guildId == 0 && range < leaseManager.rangeCount(); range++) {
+            if (current != null && current.range() == range) {
+                continue;
+            }
+            try {
+                String answer = call(range, LOCATE_CHANNEL, channelId, FORWARD_TIMEOUT_MILLIS);
+                guildId = answer.isEmpty() ? 0 : Long.parseLong(answer);
+            } catch (IllegalStateException e) {
+                // An unclaimed or offline range cannot own the channel right now; ask the next one
+                logger.debug("Shard range {} could not locate channel {}: {}", range, channelId, e.getMessage());
+            }
+        }
+        if (guildId != 0) {
+            channelGuilds.put(channel, guildId);
+        }
+        return guildId;
+    }
+
+    /**
+     * Runs a tool call on the process that owns the shard.
+     *
+     * @param callTime how long the tool itself may take, added to the forwarding timeout
+     */
+    public String forward(int shardId, String toolName, String toolInput, Duration callTime) {
+        return call(leaseManager.rangeOf(shardId), toolName, toolInput,
+                (int) Math.min(Integer.MAX_VALUE, FORWARD_TIMEOUT_MILLIS + callTime.toMillis()));
+    }
+
+    private String call(int range, String toolName, String toolInput, int timeoutMillis) {
+        int ownerPort = leaseManager.ownerPort(range);
+        if (ownerPort < 0) {
+            throw new IllegalStateException("Shard range " + range + " has not been claimed by any process");
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), ownerPort)) {
+            socket.setSoTimeout(timeoutMillis);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            writeString(out, toolName);
+            writeString(out, toolInput);
+            out.flush();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte status = in.readByte();
+            String result = readString(in);
+            if (status == STATUS_ERROR) {
+                throw new IllegalStateException(result);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("Shard range " + range + " is offline: " + e.getMessage(), e);
+        }
+    }
+
+    private void acceptLoop(ExecutorService workers) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                workers.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("Failed to accept forwarded tool call", e);
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket) {
+            socket.setSoTimeout(FORWARD_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            String toolName = readString(in);
+            String toolInput = readString(in);
+            byte status = STATUS_OK;
+            String result;
+            ToolCallback callback = localCallbacks.get(toolName);
+            if (toolName.equals(LOCATE_CHANNEL)) {
+                long guildId = localChannelGuild.applyAsLong(toolInput);
+                result = guildId == 0 ? "" : Long.toString(guildId);
+            } else if (callback == null) {
+                status = STATUS_ERROR;
+                result = "Unknown tool " + toolName;
+            } else {
+                try {
+                    result = callback.call(toolInput);
+                } catch (RuntimeException e) {
+                    status = STATUS_ERROR;
+                    result = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                }
+            }
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeByte(status);
+            writeString(out, result);
+            out.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to answer forwarded tool call", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.saseq.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.time.Duration;
+
+/**
+ * Tool callback that runs a call on the cluster member owning the shard the call targets.
+ * The shard comes from the {@code guildId} argument, else from the guild of the {@code channelId} argument,
+ * else shard 0 for direct message tools taking a {@code userId}, else from the default guild.
+ * Calls that target none of these, or a shard of this process, go to the wrapped callback directly.
+ */
+public class ForwardingToolCallback implements ToolCallback {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int LOCAL = -1;
+    // Discord dispatches every direct message event to shard 0
+    private static final int DIRECT_MESSAGE_SHARD = 0;
+
+    private final ToolCallback delegate;
+    private final ClusterCoordinator coordinator;
+    private final String defaultGuildId;
+    private final boolean acceptsGuildId;
+    private final boolean acceptsChannelId;
+    private final boolean acceptsUserId;
+    private final boolean acceptsTimeout;
+
+    public ForwardingToolCallback(ToolCallback delegate, ClusterCoordinator coordinator, String defaultGuildId) {
+        this.delegate = delegate;
+        this.coordinator = coordinator;
+        this.defaultGuildId = defaultGuildId;
+        String inputSchema = delegate.getToolDefinition().inputSchema();
+        this.acceptsGuildId = inputSchema.contains("\"guildId\"");
+        this.acceptsChannelId = inputSchema.contains("\"channelId\"");
+        this.acceptsUserId = inputSchema.contains("\"userId\"");
+        this.acceptsTimeout = inputSchema.contains("\"timeout\"");
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        JsonNode input = parse(toolInput);
+        int shardId = shardOf(input);
+        if (shardId == LOCAL || coordinator.isLocal(shardId)) {
+            return delegate.call(toolInput);
+        }
+        return coordinator.forward(shardId, getToolDefinition().name(), toolInput, callTime(input));
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        JsonNode input = parse(toolInput);
+        int shardId = shardOf(input);
+        if (shardId == LOCAL || coordinator.isLocal(shardId)) {
+            return delegate.call(toolInput, toolContext);
+        }
+        return coordinator.forward(shardId, getToolDefinition().name(), toolInput, callTime(input));
+    }
+
+    /**
+     * Returns the shard a call targets, or {@link #LOCAL} if the call names no guild, channel or user
+     * the cluster knows.
+     */
+    private int shardOf(JsonNode input) {
+        String guildId = acceptsGuildId ? input.path("guildId").asText("") : "";
+        if (!guildId.isEmpty()) {
+            return shardOfGuild(guildId);
+        }
+        String channelId = acceptsChannelId ? input.path("channelId").asText("") : "";
+        if (!channelId.isEmpty()) {
+            long channelGuildId = coordinator.guildOfChannel(channelId);
+            return channelGuildId == 0 ? LOCAL : coordinator.shardOf(channelGuildId);
+        }
+        if (acceptsUserId && !input.path("userId").asText("").isEmpty()) {
+            return DIRECT_MESSAGE_SHARD;
+        }
+        if (acceptsGuildId && defaultGuildId != null && !defaultGuildId.isEmpty()) {
+            return shardOfGuild(defaultGuildId);
+        }
+        return LOCAL;
+    }
+
+    private int shardOfGuild(String guildId) {
+        try {
+            return coordinator.shardOf(Long.parseLong(guildId));
+        } catch (NumberFormatException e) {
+            return LOCAL;
+        }
+    }
+
+    /**
+     * How long the tool may run on its own, for tools that wait up to a {@code timeout} in seconds.
+     */
+    private Duration callTime(JsonNode input) {
+        if (!acceptsTimeout) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(input.path("timeout").asText("0"))));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static JsonNode parse(String toolInput) {
+        try {
+            JsonNode input = objectMapper.readTree(toolInput);
+            return input == null ? MissingNode.getInstance() : input;
+        } catch (JsonProcessingException e) {
+            return MissingNode.getInstance();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.saseq.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+/**
+ * A shard range held by this process. The range stays claimed for as long as the file lock is held;
+ * the operating system releases it when the process exits, which is what lets another process take over.
+ *
+ * @param range      index of the range
+ * @param firstShard first shard ID of the range
+ * @param lastShard  last shard ID of the range, inclusive
+ */
+public record ShardLease(int range, int firstShard, int lastShard, FileChannel channel, FileLock lock) {
+
+    public boolean contains(int shardId) {
+        return shardId >= firstShard && shardId <= lastShard;
+    }
+
+    public void release() {
+        try {
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to release lease of shard range " + range, e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package dev.saseq.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Splits the shards of a bot into ranges and hands them out to processes through lock files in a shared
+ * directory. Every range has a {@code shards-<range>.lease} file; the process holding its exclusive lock
+ * owns the range and writes its forwarding port into the file. No coordinator is involved: a process that
+ * finds every range taken waits as a standby and claims the first range whose owner exits.
+ */
+public class ShardLeaseManager {
+
+    private final Path directory;
+    private final int shardsTotal;
+    private final int shardsPerRange;
+
+    public ShardLeaseManager(Path directory, int shardsTotal, int shardsPerRange) {
+        if (shardsTotal <= 0 || shardsPerRange <= 0) {
+            throw new IllegalArgumentException("Shard count and shards per process must be positive");
+        }
+        this.directory = directory;
+        this.shardsTotal = shardsTotal;
+        this.shardsPerRange = shardsPerRange;
+    }
+
+    public int rangeCount() {
+        return (shardsTotal + shardsPerRange - 1) / shardsPerRange;
+    }
+
+    public int rangeOf(int shardId) {
+        return shardId / shardsPerRange;
+    }
+
+    /**
+     * Claims the first free range and records the port other processes should forward its tool calls to.
+     *
+     * @return the lease, or empty if every range is held by a live process
+     */
+    public Optional<ShardLease> tryClaim(int forwardPort) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create lease directory " + directory, e);
+        }
+        for (int range = 0; range < rangeCount(); range++) {
+            Optional<ShardLease> lease = tryClaim(range, forwardPort);
+            if (lease.isPresent()) {
+                return lease;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Claims a range, polling until one becomes free.
+     */
+    public ShardLease awaitClaim(int forwardPort, Duration pollInterval) throws InterruptedException {
+        while (true) {
+            Optional<ShardLease> lease = tryClaim(forwardPort);
+            if (lease.isPresent()) {
+                return lease.get();
+            }
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+
+    /**
+     * Returns the forwarding port recorded by the owner of a range, or -1 if the range was never claimed.
+     * The port may belong to a process that has exited; callers find out when the connection is refused.
+     */
+    public int ownerPort(int range) {
+        try {
+            String content = Files.readString(leaseFile(range), StandardCharsets.US_ASCII).trim();
+            return content.isEmpty() ? -1 : Integer.parseInt(content);
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read lease of shard range " + range, e);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Optional<ShardLease> tryClaim(int range, int forwardPort) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(leaseFile(range), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Another lease manager in this JVM already holds the range
+                lock = null;
+            }
+            if (lock == null) {
+                channel.close();
+                return Optional.empty();
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(Integer.toString(forwardPort).getBytes(StandardCharsets.US_ASCII)), 0);
+            channel.force(false);
+            int firstShard = range * shardsPerRange;
+            int lastShard = Math.min(shardsTotal, firstShard + shardsPerRange) - 1;
+            return Optional.of(new ShardLease(range, firstShard, lastShard, channel, lock));
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException("Failed to claim shard range " + range, e);
+        }
+    }
+
+    private Path leaseFile(int range) {
+        return directory.resolve("shards-" + range + ".lease");
+    }
+}
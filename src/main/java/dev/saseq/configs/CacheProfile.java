@@ -0,0 +1,126 @@
+package dev.saseq.configs;
+
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Named JDA cache configurations selected with {@code DISCORD_CACHE_PROFILE}.
+ * Each profile sets the member cache policy, chunking filter, cache flags and gateway intents together,
+ * so a cache flag never ends up enabled without the intent that feeds it.
+ * <ul>
+ *     <li>{@code lean} caches no members and no optional entities; member lookups go to the Discord API.</li>
+ *     <li>{@code balanced} (default) matches {@link JDABuilder#createDefault(String)}.</li>
+ *     <li>{@code full} chunks and caches every member with presences; requires the privileged presence intent.</li>
+ * </ul>
+ */
+public enum CacheProfile {
+
+    LEAN(MemberCachePolicy.NONE, ChunkingFilter.NONE,
+            EnumSet.noneOf(CacheFlag.class),
+            EnumSet.noneOf(GatewayIntent.class)),
+    BALANCED(MemberCachePolicy.DEFAULT, ChunkingFilter.NONE,
+            EnumSet.complementOf(EnumSet.of(CacheFlag.ACTIVITY, CacheFlag.CLIENT_STATUS, CacheFlag.ONLINE_STATUS,
+                    CacheFlag.SCHEDULED_EVENTS)),
+            GatewayIntent.getIntents(GatewayIntent.DEFAULT)),
+    FULL(MemberCachePolicy.ALL, ChunkingFilter.ALL,
+            EnumSet.allOf(CacheFlag.class),
+            GatewayIntent.getIntents(GatewayIntent.DEFAULT));
+
+    /**
+     * Intents every profile needs for the tools and listeners of this server.
+     * Reactions feed the change journal of {@code get_changes_since}, so even {@code lean} receives them.
+     */
+    private static final Set<GatewayIntent> REQUIRED_INTENTS = EnumSet.of(GatewayIntent.GUILD_MEMBERS,
+            GatewayIntent.GUILD_MESSAGES,
+            GatewayIntent.GUILD_MESSAGE_REACTIONS,
+            GatewayIntent.GUILD_WEBHOOKS,
+            GatewayIntent.MESSAGE_CONTENT,
+            GatewayIntent.DIRECT_MESSAGES);
+
+    private final MemberCachePolicy memberCachePolicy;
+    private final ChunkingFilter chunkingFilter;
+    private final EnumSet<CacheFlag> cacheFlags;
+    private final EnumSet<GatewayIntent> intents;
+
+    CacheProfile(MemberCachePolicy memberCachePolicy, ChunkingFilter chunkingFilter,
+                 EnumSet<CacheFlag> cacheFlags, EnumSet<GatewayIntent> baseIntents) {
+        this.memberCachePolicy = memberCachePolicy;
+        this.chunkingFilter = chunkingFilter;
+        this.cacheFlags = cacheFlags;
+        this.intents = baseIntents;
+        this.intents.addAll(REQUIRED_INTENTS);
+        for (CacheFlag flag : cacheFlags) {
+            if (flag.getRequiredIntent() != null) {
+                this.intents.add(flag.getRequiredIntent());
+            }
+        }
+    }
+
+    public static CacheProfile parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return BALANCED;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported DISCORD_CACHE_PROFILE " + value + ". Supported: lean, balanced, full");
+        }
+    }
+
+    public MemberCachePolicy memberCachePolicy() {
+        return memberCachePolicy;
+    }
+
+    public ChunkingFilter chunkingFilter() {
+        return chunkingFilter;
+    }
+
+    public Set<CacheFlag> cacheFlags() {
+        return EnumSet.copyOf(cacheFlags);
+    }
+
+    public Set<GatewayIntent> intents() {
+        return EnumSet.copyOf(intents);
+    }
+
+    /**
+     * Whether every guild member is held in the member cache, so cache lookups are authoritative.
+     * Without it, tools fall back to member requests against the Discord API.
+     */
+    public boolean cachesAllMembers() {
+        return this == FULL;
+    }
+
+    /**
+     * @param webhookEvents whether to receive {@code WEBHOOKS_UPDATE} events. JDA has no typed event for them,
+     *                      so this enables raw gateway events, which JDA then dispatches to every listener.
+     */
+    public JDABuilder newBuilder(String token, boolean webhookEvents) {
+        return JDABuilder.create(token, intents)
+                .setMemberCachePolicy(memberCachePolicy)
+                .setChunkingFilter(chunkingFilter)
+                .disableCache(EnumSet.complementOf(cacheFlags))
+                .enableCache(cacheFlags)
+                .setRawEventsEnabled(webhookEvents);
+    }
+
+    /**
+     * @param webhookEvents see {@link #newBuilder(String, boolean)}
+     */
+    public DefaultShardManagerBuilder newShardManagerBuilder(String token, boolean webhookEvents) {
+        return DefaultShardManagerBuilder.create(token, intents)
+                .setMemberCachePolicy(memberCachePolicy)
+                .setChunkingFilter(chunkingFilter)
+                .disableCache(EnumSet.complementOf(cacheFlags))
+                .enableCache(cacheFlags)
+                .setRawEventsEnabled(webhookEvents);
+    }
+}
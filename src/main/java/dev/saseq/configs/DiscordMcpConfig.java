@@ -1,54 +1,239 @@
 package dev.saseq.configs;
 
-import dev.saseq.listeners.DiscordMessageListener;
+import dev.saseq.analytics.ActivityStats;
+import dev.saseq.caches.WebhookCache;
+import dev.saseq.cluster.ClusterCoordinator;
+import dev.saseq.cluster.ForwardingToolCallback;
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.gateway.GatewayReadiness;
+import dev.saseq.gateway.ReadinessToolCallback;
+import dev.saseq.gateway.ShardedGateway;
+import dev.saseq.gateway.SingleGateway;
+import dev.saseq.services.ActivityService;
+import dev.saseq.services.ActivityServiceToolCallbacks;
+import dev.saseq.services.BroadcastService;
+import dev.saseq.services.BroadcastServiceToolCallbacks;
 import dev.saseq.services.DiscordService;
+import dev.saseq.services.DiscordServiceToolCallbacks;
+import dev.saseq.services.ExportService;
+import dev.saseq.services.ExportServiceToolCallbacks;
 import dev.saseq.services.MessageService;
+import dev.saseq.services.MessageServiceToolCallbacks;
+import dev.saseq.services.ProvisioningService;
+import dev.saseq.services.ProvisioningServiceToolCallbacks;
 import dev.saseq.services.UserService;
+import dev.saseq.services.UserServiceToolCallbacks;
 import dev.saseq.services.ChannelService;
+import dev.saseq.services.ChannelServiceToolCallbacks;
 import dev.saseq.services.CategoryService;
+import dev.saseq.services.CategoryServiceToolCallbacks;
+import dev.saseq.services.ChangeService;
+import dev.saseq.services.ChangeServiceToolCallbacks;
 import dev.saseq.services.WebhookService;
+import dev.saseq.services.WebhookServiceToolCallbacks;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
-import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
-import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Profile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Configuration
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class DiscordMcpConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscordMcpConfig.class);
+    private static final String CDS_TRAINING_PROFILE = "cds-training";
+
+    /**
+     * Registers the tools through the {@code *ToolCallbacks} classes generated by
+     * {@link dev.saseq.processor.ToolCallbackProcessor}, so no {@code @Tool} method is discovered or invoked reflectively.
+     */
     @Bean
     public ToolCallbackProvider discordTools(DiscordService discordService,
                                              MessageService messageService,
                                              UserService userService,
                                              ChannelService channelService,
                                              CategoryService categoryService,
-                                             WebhookService webhookService) {
-        return MethodToolCallbackProvider.builder().toolObjects(
-                discordService,
-                messageService,
-                userService,
-                channelService,
-                categoryService,
-                webhookService
-        ).build();
+                                             WebhookService webhookService,
+                                             BroadcastService broadcastService,
+                                             ExportService exportService,
+                                             ProvisioningService provisioningService,
+                                             ChangeService changeService,
+                                             ActivityService activityService,
+                                             ClusterCoordinator clusterCoordinator,
+                                             DiscordGateway gateway,
+                                             GatewayReadiness readiness,
+                                             @Value("${DISCORD_GUILD_ID:}") String defaultGuildId,
+                                             @Value("${DISCORD_READY_TIMEOUT_SECONDS:10}") long readyTimeoutSeconds) {
+        Stream<ToolCallback> tools = Stream.of(
+                DiscordServiceToolCallbacks.create(discordService),
+                MessageServiceToolCallbacks.create(messageService),
+                UserServiceToolCallbacks.create(userService),
+                ChannelServiceToolCallbacks.create(channelService),
+                CategoryServiceToolCallbacks.create(categoryService),
+                WebhookServiceToolCallbacks.create(webhookService),
+                BroadcastServiceToolCallbacks.create(broadcastService),
+                ExportServiceToolCallbacks.create(exportService),
+                ProvisioningServiceToolCallbacks.create(provisioningService),
+                ChangeServiceToolCallbacks.create(changeService),
+                ActivityServiceToolCallbacks.create(activityService)
+        ).flatMap(Arrays::stream);
+        Duration readyTimeout = Duration.ofSeconds(readyTimeoutSeconds);
+        ToolCallback[] localTools = tools
+                .map(tool -> new ReadinessToolCallback(tool, readiness, readyTimeout))
+                .toArray(ToolCallback[]::new);
+        if (!clusterCoordinator.isEnabled()) {
+            return () -> localTools;
+        }
+        clusterCoordinator.serve(localTools, channelId -> {
+            GuildChannel channel = gateway.getGuildChannelById(channelId);
+            return channel == null ? 0 : channel.getGuild().getIdLong();
+        });
+        ToolCallback[] forwardingTools = Arrays.stream(localTools)
+                .map(tool -> new ForwardingToolCallback(tool, clusterCoordinator, defaultGuildId))
+                .toArray(ToolCallback[]::new);
+        return () -> forwardingTools;
     }
 
     @Bean
-    public JDA jda(@Value("${DISCORD_TOKEN:}") String token,
-                   DiscordMessageListener messageListener) throws InterruptedException {
+    public CacheProfile cacheProfile(@Value("${DISCORD_CACHE_PROFILE:balanced}") String profile) {
+        return CacheProfile.parse(profile);
+    }
+
+    /**
+     * Connects to the Discord gateway in the background; the gateway is returned as soon as login succeeded and
+     * {@link GatewayReadiness} reports when every shard finished loading its guilds.
+     * {@code DISCORD_SHARD_COUNT} unset or 0 keeps a single connection;
+     * a positive number or {@code auto} (Discord's recommended count) runs a {@link ShardManager} instead.
+     * With {@code DISCORD_CLUSTER_DIR} the shard manager only runs the shard range leased by this process;
+     * the lease is claimed in the background so a standby member starts up and forwards calls while it waits,
+     * and the activity statistics of the range are loaded before its shards connect.
+     */
+    @Bean
+    @Profile("!" + CDS_TRAINING_PROFILE)
+    public DiscordGateway discordGateway(@Value("${DISCORD_TOKEN:}") String token,
+                                         @Value("${DISCORD_SHARD_COUNT:0}") String shardCount,
+                                         @Value("${DISCORD_MEMORY_REPORT:false}") boolean memoryReport,
+                                         CacheProfile cacheProfile,
+                                         ClusterCoordinator clusterCoordinator,
+                                         GatewayReadiness readiness,
+                                         WebhookCache webhookCache,
+                                         ActivityStats activityStats,
+                                         List<ListenerAdapter> listeners) {
         if (token == null || token.isEmpty()) {
             System.err.println("ERROR: The environment variable DISCORD_TOKEN is not set. Please set it to run the application properly.");
             System.exit(1);
         }
-        return JDABuilder.createDefault(token)
-                .enableIntents(GatewayIntent.GUILD_MEMBERS,
-                        GatewayIntent.GUILD_MESSAGES,
-                        GatewayIntent.MESSAGE_CONTENT,
-                        GatewayIntent.DIRECT_MESSAGES)
-                .addEventListeners(messageListener)
-                .build()
-                .awaitReady();
+        int shardsTotal = parseShardCount(shardCount);
+        // Measuring the heap forces full collections, so it only runs when asked for
+        long heapBefore = memoryReport ? usedHeapAfterGc() : 0;
+        long connectStarted = System.nanoTime();
+        DiscordGateway gateway;
+        if (shardsTotal == 0) {
+            JDA jda = cacheProfile.newBuilder(token, webhookCache.isEnabled())
+                    .addEventListeners(listeners.toArray())
+                    .build();
+            readiness.expectShards(1);
+            gateway = new SingleGateway(jda);
+        } else if (clusterCoordinator.isEnabled()) {
+            ShardedGateway standby = new ShardedGateway();
+            clusterCoordinator.start().thenAccept(lease -> {
+                activityStats.useShardRange(lease.range());
+                standby.attach(cacheProfile.newShardManagerBuilder(token, webhookCache.isEnabled())
+                        .setShardsTotal(clusterCoordinator.getShardsTotal())
+                        .setShards(lease.firstShard(), lease.lastShard())
+                        .addEventListeners(listeners.toArray())
+                        .build());
+                readiness.expectShards(lease.lastShard() - lease.firstShard() + 1);
+            }).exceptionally(e -> {
+                logger.error("Failed to start the leased shard range", e);
+                return null;
+            });
+            gateway = standby;
+        } else {
+            ShardManager shardManager = cacheProfile.newShardManagerBuilder(token, webhookCache.isEnabled())
+                    .setShardsTotal(shardsTotal)
+                    .addEventListeners(listeners.toArray())
+                    .build();
+            readiness.expectShards(shardManager.getShardsTotal());
+            gateway = new ShardedGateway(shardManager);
+        }
+        readiness.whenReady(() -> {
+            logger.info("Discord gateway ready {} ms after connecting, {} ms after JVM start",
+                    (System.nanoTime() - connectStarted) / 1_000_000,
+                    ManagementFactory.getRuntimeMXBean().getUptime());
+            logMemoryReport(gateway, cacheProfile, memoryReport ? usedHeapAfterGc() - heapBefore : -1);
+        });
+        return gateway;
+    }
+
+    /**
+     * Gateway for the AppCDS training run of {@code mvn -Pappcds package}: the context exits right after refresh,
+     * so no connection is made and no token is needed. It runs no shards and fails if a tool ever uses it.
+     */
+    @Bean
+    @Profile(CDS_TRAINING_PROFILE)
+    public DiscordGateway cdsTrainingGateway() {
+        logger.info("AppCDS training run, skipping the Discord gateway connection");
+        return new ShardedGateway();
+    }
+
+    private static int parseShardCount(String shardCount) {
+        if (shardCount == null || shardCount.isEmpty()) {
+            return 0;
+        }
+        if (shardCount.equalsIgnoreCase("auto")) {
+            return -1;
+        }
+        int shards = Integer.parseInt(shardCount);
+        if (shards < 0) {
+            throw new IllegalArgumentException("DISCORD_SHARD_COUNT must be 0, a positive number or auto");
+        }
+        return shards;
+    }
+
+    /**
+     * Logs the cache sizes after startup and, with {@code DISCORD_MEMORY_REPORT=true}, the heap retained by the
+     * JDA caches, so profiles can be compared per deployment.
+     *
+     * @param heapBytes heap retained since before the gateway connected, or -1 when it was not measured
+     */
+    private static void logMemoryReport(DiscordGateway gateway, CacheProfile cacheProfile, long heapBytes) {
+        long guilds = gateway.getGuildCache().size();
+        long members = gateway.getGuildCache().stream().mapToLong(guild -> guild.getMemberCache().size()).sum();
+        long largestGuild = gateway.getGuildCache().stream().mapToLong(Guild::getMemberCount).max().orElse(0);
+        if (heapBytes < 0) {
+            logger.info("Cache profile {}: {} guilds and {} cached members after ready (largest guild has {} members)",
+                    cacheProfile.name().toLowerCase(), guilds, members, largestGuild);
+            return;
+        }
+        logger.info("Cache profile {}: {} KB heap after ready for {} guilds and {} cached members "
+                        + "({} KB per guild, {} bytes per cached member, largest guild has {} members)",
+                cacheProfile.name().toLowerCase(), heapBytes / 1024, guilds, members,
+                guilds == 0 ? 0 : heapBytes / 1024 / guilds,
+                members == 0 ? 0 : heapBytes / members,
+                largestGuild);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
     }
 }
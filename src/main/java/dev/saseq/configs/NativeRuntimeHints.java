@@ -0,0 +1,60 @@
+package dev.saseq.configs;
+
+import dev.saseq.listeners.ActivityListener;
+import dev.saseq.listeners.ChangeJournalListener;
+import dev.saseq.listeners.ChannelIndexListener;
+import dev.saseq.listeners.DiscordMessageListener;
+import dev.saseq.listeners.GuildOwnerListener;
+import dev.saseq.listeners.GuildSnapshotListener;
+import dev.saseq.listeners.MemberIndexListener;
+import dev.saseq.listeners.PrivateChannelListener;
+import dev.saseq.listeners.ReadinessListener;
+import dev.saseq.listeners.ShardMetricsListener;
+import dev.saseq.listeners.WebhookCacheListener;
+import dev.saseq.mcp.SamplingMessage;
+import dev.saseq.mcp.SamplingRequest;
+import dev.saseq.mcp.SamplingResponse;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image that Spring AOT cannot infer from the bean definitions.
+ * Tool services need none: their callbacks are generated at compile time by
+ * {@link dev.saseq.processor.ToolCallbackProcessor} and call the services directly.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * Listeners: {@link ListenerAdapter} looks up its {@code onX} handler for each event class with method handles.
+     */
+    private static final List<Class<?>> LISTENERS = List.of(
+            ListenerAdapter.class,
+            ActivityListener.class,
+            ChangeJournalListener.class,
+            ChannelIndexListener.class,
+            DiscordMessageListener.class,
+            GuildOwnerListener.class,
+            GuildSnapshotListener.class,
+            MemberIndexListener.class,
+            PrivateChannelListener.class,
+            ReadinessListener.class,
+            ShardMetricsListener.class,
+            WebhookCacheListener.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> listener : LISTENERS) {
+            hints.reflection().registerType(listener, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        // MCP sampling payloads are bound with Jackson databind
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                SamplingRequest.class, SamplingResponse.class, SamplingMessage.class);
+        // OkHttp, used by JDA for REST requests, loads the public suffix list from the classpath
+        hints.resources().registerPattern("okhttp3/internal/publicsuffix/*");
+    }
+}
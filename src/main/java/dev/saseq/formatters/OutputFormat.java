@@ -0,0 +1,38 @@
+package dev.saseq.formatters;
+
+import java.util.Locale;
+
+/**
+ * Output formats selectable by tools that return lists of records.
+ */
+public enum OutputFormat {
+    /**
+     * Human-readable markdown, one bullet per record (the default).
+     */
+    MARKDOWN,
+    /**
+     * Tab-separated values with a single header row.
+     */
+    TSV,
+    /**
+     * One JSON object per line.
+     */
+    JSONL;
+
+    /**
+     * Parses a format name as passed to a tool, falling back to markdown when none is given.
+     *
+     * @param value the format name (case-insensitive), may be null or empty
+     * @return the matching output format
+     */
+    public static OutputFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return MARKDOWN;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format " + value + ". Supported formats: markdown, tsv, jsonl");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package dev.saseq.formatters;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Describes how one kind of record is rendered: the fields available for projection in
+ * compact formats and the markdown line used by the default format.
+ *
+ * @param <T> the record type, e.g. a JDA entity
+ */
+public final class RecordSchema<T> {
+
+    private final List<Field<T>> fields;
+    private final List<Field<T>> defaultFields;
+    private final BiConsumer<StringBuilder, T> markdown;
+    private final Function<T, String> key;
+
+    private RecordSchema(List<Field<T>> fields, BiConsumer<StringBuilder, T> markdown, Function<T, String> key) {
+        this.fields = List.copyOf(fields);
+        this.defaultFields = fields.stream().filter(Field::byDefault).toList();
+        this.markdown = markdown;
+        this.key = key;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    List<Field<T>> getDefaultFields() {
+        return defaultFields;
+    }
+
+    void writeMarkdown(StringBuilder out, T record) {
+        markdown.accept(out, record);
+    }
+
+    String keyOf(T record) {
+        return key != null ? key.apply(record) : null;
+    }
+
+    /**
+     * Resolves a comma-separated projection against the fields of this schema.
+     *
+     * @param projection field names, or null/empty for the default fields
+     * @return the selected fields in the requested order
+     */
+    List<Field<T>> project(String projection) {
+        if (projection == null || projection.isBlank()) {
+            return defaultFields;
+        }
+        List<Field<T>> selected = new ArrayList<>();
+        for (String name : projection.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Field<T> field = fields.stream()
+                    .filter(f -> f.name().equalsIgnoreCase(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field " + trimmed + ". Available fields: " +
+                            String.join(", ", fields.stream().map(Field::name).toList())));
+            selected.add(field);
+        }
+        return selected.isEmpty() ? defaultFields : selected;
+    }
+
+    /**
+     * A single projectable field. Values of type {@link OffsetDateTime} are rendered as relative ages
+     * in compact formats.
+     */
+    record Field<T>(String name, Function<T, Object> getter, boolean byDefault) {
+    }
+
+    public static final class Builder<T> {
+        private final List<Field<T>> fields = new ArrayList<>();
+        private BiConsumer<StringBuilder, T> markdown;
+        private Function<T, String> key;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the stable key (usually the snowflake ID) carried in continuation cursors.
+         */
+        public Builder<T> key(Function<T, String> key) {
+            this.key = key;
+            return this;
+        }
+
+        public Builder<T> field(String name, Function<T, Object> getter) {
+            fields.add(new Field<>(name, getter, true));
+            return this;
+        }
+
+        public Builder<T> optionalField(String name, Function<T, Object> getter) {
+            fields.add(new Field<>(name, getter, false));
+            return this;
+        }
+
+        public Builder<T> markdown(BiConsumer<StringBuilder, T> markdown) {
+            this.markdown = markdown;
+            return this;
+        }
+
+        public RecordSchema<T> build() {
+            if (markdown == null) {
+                throw new IllegalStateException("markdown renderer cannot be null");
+            }
+            return new RecordSchema<>(fields, markdown, key);
+        }
+    }
+}
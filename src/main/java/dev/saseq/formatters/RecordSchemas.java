@@ -0,0 +1,155 @@
+package dev.saseq.formatters;
+
+import dev.saseq.changes.Change;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.channel.attribute.ICategorizableChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.stream.Collectors;
+
+/**
+ * Record schemas shared by the tools that return Discord entities.
+ */
+public final class RecordSchemas {
+
+    public static final String FORMAT_DESCRIPTION =
+            "Output format: markdown (default), tsv or jsonl. Compact formats use relative timestamps (e.g. 5m, 3h, 2d)";
+    public static final String MESSAGE_FIELDS_DESCRIPTION =
+            "Comma-separated fields for tsv/jsonl: id, author, author_id, time, edited, content (default: id, author, time, content)";
+    public static final String CHANNEL_FIELDS_DESCRIPTION =
+            "Comma-separated fields for tsv/jsonl: type, name, id, category_id (default: type, name, id)";
+    public static final String WEBHOOK_FIELDS_DESCRIPTION =
+            "Comma-separated fields for tsv/jsonl: id, name, url, channel_id (default: id, name, url)";
+    public static final String GUILD_WEBHOOK_FIELDS_DESCRIPTION =
+            "Comma-separated fields for tsv/jsonl: id, name, channel_id, url (default: all)";
+    public static final String SERVER_FIELDS_DESCRIPTION =
+            "Comma-separated fields for tsv/jsonl: id, name, owner, owner_id, members, text, voice, categories, boosts, tier, created (default: id, name, owner, members, text, voice, categories)";
+    public static final String CHANGE_FIELDS_DESCRIPTION =
+            "Comma-separated fields for tsv/jsonl: time, type, guild_id, channel_id, subject_id, summary (default: time, type, channel_id, subject_id, summary)";
+    public static final String MEMBER_FIELDS_DESCRIPTION =
+            "Comma-separated fields for tsv/jsonl: id, username, nickname, joined, roles, status, bot (default: id, username, nickname, joined)";
+
+    public static final RecordSchema<Message> MESSAGES = RecordSchema.<Message>builder()
+            .key(Message::getId)
+            .field("id", Message::getId)
+            .field("author", m -> m.getAuthor().getName())
+            .optionalField("author_id", m -> m.getAuthor().getId())
+            .field("time", Message::getTimeCreated)
+            .optionalField("edited", Message::getTimeEdited)
+            .field("content", Message::getContentDisplay)
+            .markdown((out, m) -> out.append("- (ID: ").append(m.getId())
+                    .append(") **[").append(m.getAuthor().getName())
+                    .append("]** `").append(m.getTimeCreated())
+                    .append("`: ```").append(m.getContentDisplay()).append("```"))
+            .build();
+
+    public static final RecordSchema<GuildChannel> CHANNELS = RecordSchema.<GuildChannel>builder()
+            .key(GuildChannel::getId)
+            .field("type", c -> c.getType().name())
+            .field("name", GuildChannel::getName)
+            .field("id", GuildChannel::getId)
+            .optionalField("category_id", c -> c instanceof ICategorizableChannel categorizable
+                    ? categorizable.getParentCategoryId() : null)
+            .markdown((out, c) -> out.append("- ").append(c.getType().name())
+                    .append(" channel: ").append(c.getName())
+                    .append(" (ID: ").append(c.getId()).append(')'))
+            .build();
+
+    public static final RecordSchema<Webhook> WEBHOOKS = RecordSchema.<Webhook>builder()
+            .key(Webhook::getId)
+            .field("id", Webhook::getId)
+            .field("name", Webhook::getName)
+            .field("url", Webhook::getUrl)
+            .optionalField("channel_id", w -> w.getChannel().getId())
+            .markdown((out, w) -> out.append("- (ID: ").append(w.getId())
+                    .append(") **[").append(w.getName())
+                    .append("]** ```").append(w.getUrl()).append("```"))
+            .build();
+
+    public static final RecordSchema<Webhook> GUILD_WEBHOOKS = RecordSchema.<Webhook>builder()
+            .key(Webhook::getId)
+            .field("id", Webhook::getId)
+            .field("name", Webhook::getName)
+            .field("channel_id", w -> w.getChannel().getId())
+            .field("url", Webhook::getUrl)
+            .markdown((out, w) -> out.append("- (ID: ").append(w.getId())
+                    .append(") **[").append(w.getName())
+                    .append("]** in <#").append(w.getChannel().getId())
+                    .append("> ```").append(w.getUrl()).append("```"))
+            .build();
+
+    public static final RecordSchema<Member> MEMBERS = RecordSchema.<Member>builder()
+            .key(Member::getId)
+            .field("id", Member::getId)
+            .field("username", m -> m.getUser().getName())
+            .field("nickname", Member::getNickname)
+            .field("joined", m -> m.hasTimeJoined() ? m.getTimeJoined() : null)
+            .optionalField("roles", m -> m.getRoles().stream().map(Role::getName).collect(Collectors.joining(",")))
+            .optionalField("status", m -> m.getOnlineStatus().name())
+            .optionalField("bot", m -> m.getUser().isBot())
+            .markdown((out, m) -> {
+                out.append("- ").append(m.getUser().getName());
+                if (m.getNickname() != null) {
+                    out.append(" (").append(m.getNickname()).append(')');
+                }
+                out.append(" (ID: ").append(m.getId()).append(')');
+                if (m.hasTimeJoined()) {
+                    out.append(" joined `").append(m.getTimeJoined()).append('`');
+                }
+            })
+            .build();
+
+    public static final RecordSchema<ServerSummary> SERVERS = RecordSchema.<ServerSummary>builder()
+            .key(ServerSummary::id)
+            .field("id", ServerSummary::id)
+            .field("name", ServerSummary::name)
+            .field("owner", s -> s.owner() != null ? s.owner() : s.ownerId())
+            .optionalField("owner_id", ServerSummary::ownerId)
+            .field("members", ServerSummary::members)
+            .field("text", ServerSummary::textChannels)
+            .field("voice", ServerSummary::voiceChannels)
+            .field("categories", ServerSummary::categories)
+            .optionalField("boosts", ServerSummary::boosts)
+            .optionalField("tier", ServerSummary::boostTier)
+            .optionalField("created", ServerSummary::created)
+            .markdown((out, s) -> out.append("- **").append(s.name()).append("** (ID: ").append(s.id())
+                    .append("): owner ").append(s.owner() != null ? s.owner() : "ID " + s.ownerId())
+                    .append(", ").append(s.members()).append(" members, ")
+                    .append(s.textChannels()).append(" text / ").append(s.voiceChannels()).append(" voice channels, ")
+                    .append(s.categories()).append(" categories, ")
+                    .append(s.boosts()).append(" boosts (").append(s.boostTier()).append(')'))
+            .build();
+
+    public static final RecordSchema<Change> CHANGES = RecordSchema.<Change>builder()
+            .key(c -> Long.toString(c.sequence()))
+            .field("time", c -> OffsetDateTime.ofInstant(Instant.ofEpochMilli(c.timestamp()), ZoneOffset.UTC))
+            .field("type", Change::type)
+            .optionalField("guild_id", c -> Long.toString(c.guildId()))
+            .field("channel_id", Change::channelId)
+            .field("subject_id", Change::subjectId)
+            .field("summary", Change::summary)
+            .markdown((out, c) -> {
+                out.append("- `").append(Instant.ofEpochMilli(c.timestamp())).append("` ").append(c.type());
+                if (c.channelId() != null) {
+                    out.append(" in channel ").append(c.channelId());
+                }
+                out.append(" (ID: ").append(c.subjectId()).append("): ").append(c.summary());
+            })
+            .build();
+
+    /**
+     * Pre-rendered markdown blocks, e.g. the per-category sections of a guild snapshot.
+     */
+    public static final RecordSchema<String> SECTIONS = RecordSchema.<String>builder()
+            .markdown(StringBuilder::append)
+            .build();
+
+    private RecordSchemas() {
+    }
+}
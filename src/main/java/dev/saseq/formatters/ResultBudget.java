@@ -0,0 +1,39 @@
+package dev.saseq.formatters;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-response size budget shared by all list-style tools.
+ * A response that would exceed the budget is cut at a record boundary and ends with a
+ * truncation marker carrying a continuation cursor for the next page.
+ */
+@Component
+public class ResultBudget {
+
+    public static final String CURSOR_DESCRIPTION = "Continuation cursor returned by a previous truncated response";
+
+    private final int maxChars;
+
+    public ResultBudget(@Value("${DISCORD_MAX_RESPONSE_CHARS:16000}") int maxChars) {
+        if (maxChars <= 0) {
+            throw new IllegalArgumentException("DISCORD_MAX_RESPONSE_CHARS must be positive");
+        }
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Opens the window for one response of a listing.
+     *
+     * @param scope  identifies the listing; a cursor is only accepted by the listing that issued it
+     * @param cursor the cursor from a previous response, or null for the first page
+     * @return the window to render
+     */
+    public ResultWindow window(String scope, String cursor) {
+        return ResultWindow.decode(scope, cursor, maxChars);
+    }
+
+    public int getMaxChars() {
+        return maxChars;
+    }
+}
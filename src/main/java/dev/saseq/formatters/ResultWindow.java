@@ -0,0 +1,64 @@
+package dev.saseq.formatters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The slice of a listing a single tool response may cover: where to start and how many characters
+ * the rendered response may take. Continuation cursors are opaque to callers and bound to the
+ * listing ({@code scope}) that issued them.
+ *
+ * @param scope    identifies the listing, e.g. {@code list_channels:<guildId>}
+ * @param offset   index of the first record to render
+ * @param after    key of the last record returned by the previous page, or null
+ * @param maxChars character budget for the whole response, or {@code Integer.MAX_VALUE} for none
+ */
+public record ResultWindow(String scope, int offset, String after, int maxChars) {
+
+    private static final char SEPARATOR = '\n';
+
+    public static ResultWindow unbounded() {
+        return new ResultWindow("", 0, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a window over the same budget that starts at the first record, for listings that
+     * resume from {@link #after()} rather than from an offset.
+     */
+    public ResultWindow fromStart() {
+        return new ResultWindow(scope, 0, after, maxChars);
+    }
+
+    String nextCursor(int nextOffset, String lastKey) {
+        String payload = scope + SEPARATOR + nextOffset + SEPARATOR + (lastKey != null ? lastKey : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ResultWindow decode(String scope, String cursor, int maxChars) {
+        if (cursor == null || cursor.isBlank()) {
+            return new ResultWindow(scope, 0, null, maxChars);
+        }
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int first = payload.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : payload.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!payload.substring(0, first).equals(scope)) {
+            throw new IllegalArgumentException("cursor belongs to a different listing");
+        }
+        int offset;
+        try {
+            offset = Integer.parseInt(payload.substring(first + 1, second));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String after = payload.substring(second + 1);
+        return new ResultWindow(scope, Math.max(0, offset), after.isEmpty() ? null : after, maxChars);
+    }
+}
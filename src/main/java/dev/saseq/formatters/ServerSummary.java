@@ -0,0 +1,21 @@
+package dev.saseq.formatters;
+
+/**
+ * One row of {@code list_servers_summary}, built from cached guild state.
+ *
+ * @param id            guild ID
+ * @param name          guild name
+ * @param ownerId       owner user ID
+ * @param owner         owner username, or null when it could not be retrieved in time
+ * @param members       member count reported by Discord
+ * @param textChannels  number of text channels
+ * @param voiceChannels number of voice channels
+ * @param categories    number of categories
+ * @param boosts        number of boosts
+ * @param boostTier     boost tier
+ * @param created       creation date
+ */
+public record ServerSummary(String id, String name, String ownerId, String owner, int members,
+                            long textChannels, long voiceChannels, long categories,
+                            int boosts, String boostTier, String created) {
+}
@@ -0,0 +1,239 @@
+package dev.saseq.formatters;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shared renderer for list-style tool results.
+ * Every format is written into a per-thread {@link StringBuilder} that is reused between calls,
+ * so rendering a result allocates little more than the final string.
+ */
+public final class ToolResultRenderer {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private ToolResultRenderer() {
+    }
+
+    /**
+     * Renders records in the requested format without a size budget.
+     *
+     * @param title      the heading written before the records in markdown format
+     * @param records    the records to render
+     * @param schema     the schema describing the record fields
+     * @param format     the output format
+     * @param projection comma-separated field names for compact formats, or null for the defaults
+     * @return the rendered result
+     */
+    public static <T> String render(String title, List<T> records, RecordSchema<T> schema,
+                                    OutputFormat format, String projection) {
+        return render(title, records, schema, format, projection, ResultWindow.unbounded());
+    }
+
+    /**
+     * Renders the records inside a window. Rendering stops at the last record that fits the
+     * character budget together with the truncation marker (at least one record is always written),
+     * and the marker with a continuation cursor is appended when records remain.
+     *
+     * @param title      the heading written before the records in markdown format
+     * @param records    the complete listing; rendering starts at {@link ResultWindow#offset()}
+     * @param schema     the schema describing the record fields
+     * @param format     the output format
+     * @param projection comma-separated field names for compact formats, or null for the defaults
+     * @param window     the slice and budget for this response
+     * @return the rendered result
+     */
+    public static <T> String render(String title, List<T> records, RecordSchema<T> schema,
+                                    OutputFormat format, String projection, ResultWindow window) {
+        return render(title, records, Math.min(window.offset(), records.size()), 0, records.size(),
+                schema, format, projection, window);
+    }
+
+    /**
+     * Renders one page of a listing that continues from {@link ResultWindow#after()} instead of an offset,
+     * when only the records of the page are materialised. The truncation marker is also written when the
+     * whole page fits but the listing has more records after it.
+     *
+     * @param title      the heading written before the records in markdown format
+     * @param page       the records after the cursor, in listing order
+     * @param skipped    the number of records of the listing on earlier pages
+     * @param total      the number of records in the whole listing
+     * @param schema     the schema describing the record fields
+     * @param format     the output format
+     * @param projection comma-separated field names for compact formats, or null for the defaults
+     * @param window     the budget for this response
+     * @return the rendered result
+     */
+    public static <T> String renderPage(String title, List<T> page, int skipped, int total, RecordSchema<T> schema,
+                                        OutputFormat format, String projection, ResultWindow window) {
+        return render(title, page, 0, skipped, total, schema, format, projection, window);
+    }
+
+    private static <T> String render(String title, List<T> records, int start, int skipped, int total,
+                                     RecordSchema<T> schema, OutputFormat format, String projection,
+                                     ResultWindow window) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        try {
+            List<RecordSchema.Field<T>> fields = format == OutputFormat.MARKDOWN ? null : schema.project(projection);
+            long now = System.currentTimeMillis() / 1000;
+            switch (format) {
+                case MARKDOWN -> out.append(title);
+                case TSV -> writeTsvHeader(out, fields);
+                case JSONL -> {
+                }
+            }
+            int end = start;
+            // Start offset of each rendered record, so records can be dropped again to make room for the marker
+            int[] marks = new int[Math.min(records.size() - start, 64)];
+            while (end < records.size()) {
+                int mark = out.length();
+                if (end > start || format == OutputFormat.TSV) {
+                    out.append('\n');
+                }
+                T record = records.get(end);
+                switch (format) {
+                    case MARKDOWN -> schema.writeMarkdown(out, record);
+                    case TSV -> writeTsvRow(out, record, fields, now);
+                    case JSONL -> writeJsonLine(out, record, fields, now);
+                }
+                if (out.length() > window.maxChars() && end > start) {
+                    out.setLength(mark);
+                    break;
+                }
+                if (end - start == marks.length) {
+                    marks = Arrays.copyOf(marks, marks.length * 2);
+                }
+                marks[end - start] = mark;
+                end++;
+            }
+            if (end > start && (end < records.size() || skipped + end < total)) {
+                String marker = truncationMarker(records, schema, window, start, end, skipped, total);
+                // The marker counts against the budget too; give back records until it fits
+                while (out.length() + marker.length() > window.maxChars() && end - start > 1) {
+                    end--;
+                    out.setLength(marks[end - start]);
+                    marker = truncationMarker(records, schema, window, start, end, skipped, total);
+                }
+                out.append(marker);
+            }
+            return out.toString();
+        } finally {
+            if (out.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFER.set(new StringBuilder(INITIAL_CAPACITY));
+            } else {
+                out.setLength(0);
+            }
+        }
+    }
+
+    private static <T> String truncationMarker(List<T> records, RecordSchema<T> schema, ResultWindow window,
+                                               int start, int end, int skipped, int total) {
+        return "\n[truncated: showing " + (skipped + start + 1) + '-' + (skipped + end) + " of " + total
+                + "; continue with cursor=" + window.nextCursor(skipped + end, schema.keyOf(records.get(end - 1))) + ']';
+    }
+
+    private static <T> void writeTsvHeader(StringBuilder out, List<RecordSchema.Field<T>> fields) {
+        for (int f = 0; f < fields.size(); f++) {
+            if (f > 0) {
+                out.append('\t');
+            }
+            out.append(fields.get(f).name());
+        }
+    }
+
+    private static <T> void writeTsvRow(StringBuilder out, T record, List<RecordSchema.Field<T>> fields, long now) {
+        for (int f = 0; f < fields.size(); f++) {
+            if (f > 0) {
+                out.append('\t');
+            }
+            Object value = fields.get(f).getter().apply(record);
+            if (value instanceof OffsetDateTime time) {
+                appendAge(out, time, now);
+            } else if (value != null) {
+                appendTsvEscaped(out, value.toString());
+            }
+        }
+    }
+
+    private static <T> void writeJsonLine(StringBuilder out, T record, List<RecordSchema.Field<T>> fields, long now) {
+        out.append('{');
+        for (int f = 0; f < fields.size(); f++) {
+            if (f > 0) {
+                out.append(',');
+            }
+            RecordSchema.Field<T> field = fields.get(f);
+            out.append('"').append(field.name()).append("\":");
+            Object value = field.getter().apply(record);
+            if (value == null) {
+                out.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                out.append(value);
+            } else if (value instanceof OffsetDateTime time) {
+                out.append('"');
+                appendAge(out, time, now);
+                out.append('"');
+            } else {
+                out.append('"');
+                appendJsonEscaped(out, value.toString());
+                out.append('"');
+            }
+        }
+        out.append('}');
+    }
+
+    /**
+     * Appends how long ago a timestamp was, using the largest whole unit (e.g. {@code 45s}, {@code 12m}, {@code 3h}, {@code 9d}).
+     */
+    static void appendAge(StringBuilder out, OffsetDateTime time, long nowEpochSeconds) {
+        long seconds = Math.max(0, nowEpochSeconds - time.toEpochSecond());
+        if (seconds < 60) {
+            out.append(seconds).append('s');
+        } else if (seconds < 3600) {
+            out.append(seconds / 60).append('m');
+        } else if (seconds < 86400) {
+            out.append(seconds / 3600).append('h');
+        } else {
+            out.append(seconds / 86400).append('d');
+        }
+    }
+
+    private static void appendTsvEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\\' -> out.append("\\\\");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static void appendJsonEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16));
+                        out.append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
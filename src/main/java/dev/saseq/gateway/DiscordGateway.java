@@ -0,0 +1,71 @@
+package dev.saseq.gateway;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+
+import java.util.List;
+
+/**
+ * Entity lookups across every gateway connection of the bot.
+ * Services use this instead of a single {@link JDA} so the same code runs on one connection or on many shards.
+ */
+public interface DiscordGateway {
+
+    Guild getGuildById(String guildId);
+
+    TextChannel getTextChannelById(String channelId);
+
+    GuildChannel getGuildChannelById(String channelId);
+
+    User getUserById(String userId);
+
+    RestAction<User> retrieveUserById(String userId);
+
+    RestAction<PrivateChannel> openPrivateChannelById(String userId);
+
+    /**
+     * A private channel cached by the current session, or null.
+     */
+    PrivateChannel getPrivateChannelById(String channelId);
+
+    RestAction<Webhook> retrieveWebhookById(String webhookId);
+
+    /**
+     * Guilds of all shards.
+     */
+    SnowflakeCacheView<Guild> getGuildCache();
+
+    /**
+     * The connections of this process, ordered by shard ID. A non-sharded gateway has exactly one.
+     */
+    List<JDA> getShards();
+
+    int getShardsTotal();
+
+    /**
+     * The connection that receives the events of a guild, following Discord's {@code (guildId >> 22) % shards} rule.
+     */
+    default JDA getShardForGuild(long guildId) {
+        int shardId = (int) ((guildId >>> 22) % getShardsTotal());
+        for (JDA shard : getShards()) {
+            if (shard.getShardInfo().getShardId() == shardId) {
+                return shard;
+            }
+        }
+        throw new IllegalArgumentException("Shard " + shardId + " is not running in this process");
+    }
+
+    /**
+     * Any connected shard, for calls that do not depend on a guild such as webhook requests.
+     */
+    default JDA anyShard() {
+        return getShards().get(0);
+    }
+}
@@ -0,0 +1,81 @@
+package dev.saseq.gateway;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tracks whether the gateway connections of this process have finished their initial login.
+ * The gateway connects in the background, so tools consult this before trusting the entity caches.
+ */
+@Component
+public class GatewayReadiness {
+
+    private final Set<Integer> readyShards = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile int expectedShards = Integer.MAX_VALUE;
+
+    /**
+     * Sets how many shards this process runs; readiness completes once all of them sent their ready event.
+     */
+    public void expectShards(int shards) {
+        expectedShards = shards;
+        checkReady();
+    }
+
+    public void markReady(int shardId) {
+        readyShards.add(shardId);
+        checkReady();
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * Waits until every shard is ready or the timeout elapses.
+     *
+     * @return true if the gateway is ready
+     */
+    public boolean awaitReady(Duration timeout) {
+        try {
+            ready.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Runs the action off the gateway threads once every shard is ready.
+     */
+    public void whenReady(Runnable action) {
+        ready.thenRunAsync(action);
+    }
+
+    public int readyShards() {
+        return readyShards.size();
+    }
+
+    /**
+     * The number of shards this process runs, or -1 while it is not known yet.
+     */
+    public int expectedShards() {
+        return expectedShards == Integer.MAX_VALUE ? -1 : expectedShards;
+    }
+
+    private void checkReady() {
+        if (readyShards.size() >= expectedShards) {
+            ready.complete(null);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dev.saseq.gateway;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.saseq.formatters.OutputFormat;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.time.Duration;
+
+/**
+ * Tool callback that waits a bounded time for the gateway to become ready before running the tool.
+ * If the gateway is still connecting afterwards the tool runs anyway and its result is flagged as partial.
+ * Only markdown results are flagged; tsv and jsonl results are returned as they are so they stay parseable.
+ */
+public class ReadinessToolCallback implements ToolCallback {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ToolCallback delegate;
+    private final GatewayReadiness readiness;
+    private final Duration timeout;
+
+    public ReadinessToolCallback(ToolCallback delegate, GatewayReadiness readiness, Duration timeout) {
+        this.delegate = delegate;
+        this.readiness = readiness;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        boolean ready = readiness.awaitReady(timeout);
+        return flag(delegate.call(toolInput), ready, toolInput);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        boolean ready = readiness.awaitReady(timeout);
+        return flag(delegate.call(toolInput, toolContext), ready, toolInput);
+    }
+
+    private String flag(String result, boolean ready, String toolInput) {
+        if (ready || !isMarkdown(toolInput)) {
+            return result;
+        }
+        int expected = readiness.expectedShards();
+        return result + "\n[partial: Discord gateway is still connecting ("
+                + readiness.readyShards() + "/" + (expected < 0 ? "?" : expected)
+                + " shards ready), results may be incomplete]";
+    }
+
+    /**
+     * Whether the call asked for markdown output, the default when it passes no {@code format}.
+     */
+    private static boolean isMarkdown(String toolInput) {
+        try {
+            JsonNode input = objectMapper.readTree(toolInput);
+            String format = input == null ? "" : input.path("format").asText("");
+            return OutputFormat.parse(format) == OutputFormat.MARKDOWN;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // Malformed input and unknown formats are rejected by the tool itself
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package dev.saseq.gateway;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gateway event counters per shard: a running total and per-second buckets for the last minute.
+ */
+@Component
+public class ShardMetrics {
+
+    private static final int WINDOW_SECONDS = 60;
+
+    private final Map<Integer, Counter> shards = new ConcurrentHashMap<>();
+
+    public void recordEvent(int shardId) {
+        shards.computeIfAbsent(shardId, id -> new Counter()).record(System.currentTimeMillis() / 1000);
+    }
+
+    public long totalEvents(int shardId) {
+        Counter counter = shards.get(shardId);
+        return counter == null ? 0 : counter.total.sum();
+    }
+
+    /**
+     * Events received by the shard during the last minute.
+     */
+    public long eventsLastMinute(int shardId) {
+        Counter counter = shards.get(shardId);
+        return counter == null ? 0 : counter.lastMinute(System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Epoch second of the last event received by the shard, or 0 if it has not received any.
+     */
+    public long lastEventSecond(int shardId) {
+        Counter counter = shards.get(shardId);
+        return counter == null ? 0 : counter.lastSecond;
+    }
+
+    private static final class Counter {
+        private final LongAdder total = new LongAdder();
+        private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS);
+        private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS);
+        private volatile long lastSecond;
+
+        private void record(long second) {
+            total.increment();
+            int slot = (int) (second % WINDOW_SECONDS);
+            long bucketSecond = seconds.get(slot);
+            // The first event of a new second resets the bucket left over from a minute ago
+            if (bucketSecond != second && seconds.compareAndSet(slot, bucketSecond, second)) {
+                counts.set(slot, 0);
+            }
+            counts.incrementAndGet(slot);
+            lastSecond = second;
+        }
+
+        private long lastMinute(long now) {
+            long sum = 0;
+            for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+                if (now - seconds.get(slot) < WINDOW_SECONDS) {
+                    sum += counts.get(slot);
+                }
+            }
+            return sum;
+        }
+    }
+}
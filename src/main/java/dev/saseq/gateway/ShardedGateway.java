@@ -0,0 +1,104 @@
+package dev.saseq.gateway;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Gateway backed by a {@link ShardManager}; cache lookups search all shards of this process.
+ * A cluster member waiting for a shard range starts without a shard manager and gets one attached
+ * once it claimed its range; the AppCDS training run never gets one.
+ */
+public class ShardedGateway implements DiscordGateway {
+
+    private volatile ShardManager shardManager;
+
+    public ShardedGateway(ShardManager shardManager) {
+        this.shardManager = shardManager;
+    }
+
+    /**
+     * A gateway without shards, until {@link #attach(ShardManager)} is called.
+     */
+    public ShardedGateway() {
+    }
+
+    public void attach(ShardManager shardManager) {
+        this.shardManager = shardManager;
+    }
+
+    @Override
+    public Guild getGuildById(String guildId) {
+        return shardManager().getGuildById(guildId);
+    }
+
+    @Override
+    public TextChannel getTextChannelById(String channelId) {
+        return shardManager().getTextChannelById(channelId);
+    }
+
+    @Override
+    public GuildChannel getGuildChannelById(String channelId) {
+        return shardManager().getGuildChannelById(channelId);
+    }
+
+    @Override
+    public User getUserById(String userId) {
+        return shardManager().getUserById(userId);
+    }
+
+    @Override
+    public RestAction<User> retrieveUserById(String userId) {
+        return shardManager().retrieveUserById(userId);
+    }
+
+    @Override
+    public RestAction<PrivateChannel> openPrivateChannelById(String userId) {
+        return shardManager().openPrivateChannelById(userId);
+    }
+
+    @Override
+    public PrivateChannel getPrivateChannelById(String channelId) {
+        return shardManager().getPrivateChannelById(channelId);
+    }
+
+    @Override
+    public RestAction<Webhook> retrieveWebhookById(String webhookId) {
+        return anyShard().retrieveWebhookById(webhookId);
+    }
+
+    @Override
+    public SnowflakeCacheView<Guild> getGuildCache() {
+        return shardManager().getGuildCache();
+    }
+
+    @Override
+    public List<JDA> getShards() {
+        return shardManager().getShards().stream()
+                .sorted(Comparator.comparingInt(shard -> shard.getShardInfo().getShardId()))
+                .toList();
+    }
+
+    @Override
+    public int getShardsTotal() {
+        return shardManager().getShardsTotal();
+    }
+
+    private ShardManager shardManager() {
+        ShardManager current = shardManager;
+        if (current == null) {
+            throw new IllegalStateException("This process runs no shards yet; a cluster standby gets them once it claims a shard range");
+        }
+        return current;
+    }
+}
@@ -0,0 +1,80 @@
+package dev.saseq.gateway;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+
+import java.util.List;
+
+/**
+ * Gateway backed by one unsharded {@link JDA} connection.
+ */
+public class SingleGateway implements DiscordGateway {
+
+    private final JDA jda;
+
+    public SingleGateway(JDA jda) {
+        this.jda = jda;
+    }
+
+    @Override
+    public Guild getGuildById(String guildId) {
+        return jda.getGuildById(guildId);
+    }
+
+    @Override
+    public TextChannel getTextChannelById(String channelId) {
+        return jda.getTextChannelById(channelId);
+    }
+
+    @Override
+    public GuildChannel getGuildChannelById(String channelId) {
+        return jda.getGuildChannelById(channelId);
+    }
+
+    @Override
+    public User getUserById(String userId) {
+        return jda.getUserById(userId);
+    }
+
+    @Override
+    public RestAction<User> retrieveUserById(String userId) {
+        return jda.retrieveUserById(userId);
+    }
+
+    @Override
+    public RestAction<PrivateChannel> openPrivateChannelById(String userId) {
+        return jda.openPrivateChannelById(userId);
+    }
+
+    @Override
+    public PrivateChannel getPrivateChannelById(String channelId) {
+        return jda.getPrivateChannelById(channelId);
+    }
+
+    @Override
+    public RestAction<Webhook> retrieveWebhookById(String webhookId) {
+        return jda.retrieveWebhookById(webhookId);
+    }
+
+    @Override
+    public SnowflakeCacheView<Guild> getGuildCache() {
+        return jda.getGuildCache();
+    }
+
+    @Override
+    public List<JDA> getShards() {
+        return List.of(jda);
+    }
+
+    @Override
+    public int getShardsTotal() {
+        return 1;
+    }
+}
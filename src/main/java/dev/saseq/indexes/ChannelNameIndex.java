@@ -0,0 +1,52 @@
+package dev.saseq.indexes;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-guild {@link ChannelNames} over every channel and category (threads are not indexed).
+ * Built from the channel cache when a guild becomes ready and kept current from channel events.
+ */
+@Component
+public class ChannelNameIndex {
+
+    private final Map<Long, ChannelNames> guilds = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the channel names of a guild, or null if the guild has not been indexed.
+     */
+    public ChannelNames get(long guildId) {
+        return guilds.get(guildId);
+    }
+
+    public void rebuild(Guild guild) {
+        Map<Long, String> channels = new HashMap<>();
+        for (GuildChannel channel : guild.getChannels()) {
+            channels.put(channel.getIdLong(), channel.getName());
+        }
+        guilds.put(guild.getIdLong(), new ChannelNames(channels));
+    }
+
+    public void update(GuildChannel channel) {
+        ChannelNames names = guilds.get(channel.getGuild().getIdLong());
+        if (names != null) {
+            names.put(channel.getIdLong(), channel.getName());
+        }
+    }
+
+    public void remove(GuildChannel channel) {
+        ChannelNames names = guilds.get(channel.getGuild().getIdLong());
+        if (names != null) {
+            names.remove(channel.getIdLong());
+        }
+    }
+
+    public void drop(long guildId) {
+        guilds.remove(guildId);
+    }
+}
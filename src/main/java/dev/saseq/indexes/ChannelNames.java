@@ -0,0 +1,67 @@
+package dev.saseq.indexes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Channel names of one guild: an allocation-free exact lookup table plus a {@link FuzzyNameIndex}
+ * for prefix and fuzzy matches. Channel changes are rare compared to lookups, so every change
+ * publishes a freshly built exact table and readers never take a lock.
+ */
+public class ChannelNames {
+
+    private static final int MAX_NAMES = 10_000;
+
+    private final Map<Long, String> names = new HashMap<>();
+    private final FuzzyNameIndex fuzzy = new FuzzyNameIndex(MAX_NAMES);
+    private volatile NameTable table;
+
+    public ChannelNames(Map<Long, String> channels) {
+        names.putAll(channels);
+        channels.forEach((id, name) -> fuzzy.put(id, name));
+        table = NameTable.of(names);
+    }
+
+    public synchronized void put(long id, String name) {
+        if (name.equals(names.put(id, name))) {
+            return;
+        }
+        fuzzy.put(id, name);
+        table = NameTable.of(names);
+    }
+
+    public synchronized void remove(long id) {
+        if (names.remove(id) == null) {
+            return;
+        }
+        fuzzy.remove(id);
+        table = NameTable.of(names);
+    }
+
+    /**
+     * Returns the IDs of the channels with exactly this name ignoring case, in ascending order.
+     * The array is shared and must not be modified.
+     */
+    public long[] exact(String name) {
+        return table.get(name);
+    }
+
+    /**
+     * Returns channels with a name starting with the prefix, shortest names first.
+     */
+    public List<FuzzyNameIndex.Match> prefix(String prefix, int limit) {
+        return fuzzy.prefix(prefix, limit);
+    }
+
+    /**
+     * Returns the channels whose names are closest to the query, best match first.
+     */
+    public List<FuzzyNameIndex.Match> search(String query, int limit) {
+        return fuzzy.search(query, limit);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+}
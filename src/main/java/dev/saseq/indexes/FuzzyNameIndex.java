@@ -0,0 +1,327 @@
+package dev.saseq.indexes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index from case-folded names to entity IDs with exact, prefix and trigram fuzzy lookup.
+ * Each entity (a member, a channel, ...) may be known under several names. Entities are stored by
+ * dense int ordinals so trigram posting lists stay compact, and the total number of indexed names is
+ * capped; once the cap is hit, further entities are not indexed and {@link #isComplete()} turns false
+ * so callers can fall back to scanning.
+ * <p>
+ * The index is safe for concurrent readers and writers.
+ */
+public class FuzzyNameIndex {
+
+    private static final double MIN_FUZZY_SCORE = 0.3;
+    private static final int MAX_FUZZY_CANDIDATES = 200;
+
+    private final int maxNames;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final NavigableMap<String, int[]> byName = new TreeMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final IntList freeOrdinals = new IntList();
+    private long[] ids = new long[16];
+    private String[][] names = new String[16][];
+    private int nextOrdinal;
+    private int nameCount;
+    private boolean complete = true;
+
+    public FuzzyNameIndex(int maxNames) {
+        this.maxNames = maxNames;
+    }
+
+    /**
+     * A lookup result.
+     *
+     * @param id    the entity ID
+     * @param name  the case-folded name that matched
+     * @param score 1.0 for an exact match, lower for prefix and fuzzy matches
+     */
+    public record Match(long id, String name, double score) {
+    }
+
+    /**
+     * Indexes an entity under the given names, replacing any names it had before.
+     * Null and empty names are ignored.
+     */
+    public void put(long id, String... rawNames) {
+        String[] folded = Arrays.stream(rawNames)
+                .filter(n -> n != null && !n.isEmpty())
+                .map(FuzzyNameIndex::fold)
+                .distinct()
+                .toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (folded.length == 0) {
+                return;
+            }
+            if (nameCount + folded.length > maxNames) {
+                complete = false;
+                return;
+            }
+            int ordinal = allocate(id);
+            names[ordinal] = folded;
+            nameCount += folded.length;
+            for (String name : folded) {
+                byName.merge(name, new int[]{ordinal}, FuzzyNameIndex::append);
+            }
+            for (long gram : trigrams(folded)) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            byName.clear();
+            postings.clear();
+            freeOrdinals.clear();
+            Arrays.fill(names, null);
+            nextOrdinal = 0;
+            nameCount = 0;
+            complete = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of all entities with exactly this name (case-insensitive).
+     */
+    public long[] exact(String name) {
+        lock.readLock().lock();
+        try {
+            int[] matches = byName.get(fold(name));
+            if (matches == null) {
+                return new long[0];
+            }
+            long[] result = new long[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                result[i] = ids[matches[i]];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns entities with a name starting with the prefix, shortest names first.
+     */
+    public List<Match> prefix(String prefix, int limit) {
+        String folded = fold(prefix);
+        lock.readLock().lock();
+        try {
+            Map<Long, Match> best = new LinkedHashMap<>();
+            for (Map.Entry<String, int[]> entry : byName.tailMap(folded, true).entrySet()) {
+                String name = entry.getKey();
+                if (!name.startsWith(folded)) {
+                    break;
+                }
+                for (int ordinal : entry.getValue()) {
+                    best.putIfAbsent(ids[ordinal], new Match(ids[ordinal], name, prefixScore(folded, name)));
+                }
+            }
+            return best.values().stream()
+                    .sorted(Comparator.comparingDouble(Match::score).reversed())
+                    .limit(limit)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked lookup combining exact, prefix and trigram similarity. Each entity appears at most once,
+     * scored by its best-matching name.
+     */
+    public List<Match> search(String query, int limit) {
+        String folded = fold(query);
+        Set<Long> queryGrams = trigrams(new String[]{folded});
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> sharedCounts = new HashMap<>();
+            for (long gram : queryGrams) {
+                IntList posting = postings.get(gram);
+                if (posting == null) {
+                    continue;
+                }
+                for (int i = 0; i < posting.size(); i++) {
+                    sharedCounts.merge(posting.get(i), 1, Integer::sum);
+                }
+            }
+            List<Match> matches = new ArrayList<>();
+            sharedCounts.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                    .limit(MAX_FUZZY_CANDIDATES)
+                    .forEach(candidate -> {
+                        int ordinal = candidate.getKey();
+                        Match best = null;
+                        for (String name : names[ordinal]) {
+                            double score = score(folded, queryGrams, name);
+                            if (best == null || score > best.score()) {
+                                best = new Match(ids[ordinal], name, score);
+                            }
+                        }
+                        if (best != null && best.score() >= MIN_FUZZY_SCORE) {
+                            matches.add(best);
+                        }
+                    });
+            matches.sort(Comparator.comparingDouble(Match::score).reversed()
+                    .thenComparingInt(m -> m.name().length()));
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether every entity offered to the index fits the name budget.
+     */
+    public boolean isComplete() {
+        lock.readLock().lock();
+        try {
+            return complete;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static double score(String query, Set<Long> queryGrams, String name) {
+        if (name.equals(query)) {
+            return 1.0;
+        }
+        if (name.startsWith(query)) {
+            return prefixScore(query, name);
+        }
+        Set<Long> nameGrams = trigrams(new String[]{name});
+        int shared = 0;
+        for (long gram : queryGrams) {
+            if (nameGrams.contains(gram)) {
+                shared++;
+            }
+        }
+        return 2.0 * shared / (queryGrams.size() + nameGrams.size());
+    }
+
+    private static double prefixScore(String prefix, String name) {
+        return name.length() == prefix.length() ? 1.0 : 0.8 + 0.19 * prefix.length() / name.length();
+    }
+
+    /**
+     * Trigrams of the names padded like pg_trgm (two leading blanks, one trailing), packed into longs.
+     */
+    static Set<Long> trigrams(String[] names) {
+        Set<Long> grams = new HashSet<>();
+        for (String name : names) {
+            String padded = "  " + name + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private void removeLocked(long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        String[] entityNames = names[ordinal];
+        for (String name : entityNames) {
+            int[] remaining = without(byName.get(name), ordinal);
+            if (remaining.length == 0) {
+                byName.remove(name);
+            } else {
+                byName.put(name, remaining);
+            }
+        }
+        for (long gram : trigrams(entityNames)) {
+            IntList posting = postings.get(gram);
+            if (posting != null && posting.remove(ordinal) && posting.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+        nameCount -= entityNames.length;
+        names[ordinal] = null;
+        freeOrdinals.add(ordinal);
+    }
+
+    private int allocate(long id) {
+        int ordinal;
+        if (freeOrdinals.size() > 0) {
+            ordinal = freeOrdinals.removeLast();
+        } else {
+            ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+        }
+        ids[ordinal] = id;
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    private static int[] append(int[] existing, int[] added) {
+        int[] result = Arrays.copyOf(existing, existing.length + added.length);
+        System.arraycopy(added, 0, result, existing.length, added.length);
+        return result;
+    }
+
+    private static int[] without(int[] values, int value) {
+        if (values == null) {
+            return new int[0];
+        }
+        int[] result = new int[values.length];
+        int size = 0;
+        for (int v : values) {
+            if (v != value) {
+                result[size++] = v;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
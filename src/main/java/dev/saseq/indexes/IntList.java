@@ -0,0 +1,48 @@
+package dev.saseq.indexes;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used for posting lists without boxing.
+ */
+final class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int removeLast() {
+        return values[--size];
+    }
+
+    /**
+     * Removes one occurrence of the value by swapping in the last element; order is not preserved.
+     */
+    boolean remove(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                values[i] = values[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,296 @@
+package dev.saseq.indexes;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary indexes over the members of one guild for compound filtering.
+ * Members occupy dense slots; each role and each online status keeps a {@link BitSet} of slots, and
+ * a slot array sorted by join time answers join-date ranges with a binary search. A filter is
+ * answered by intersecting bitmaps, so its cost depends on the guild size in words, not members;
+ * only the IDs of the requested page are copied out.
+ * <p>
+ * The index is safe for concurrent readers and writers.
+ */
+public class MemberBitmapIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Map<Long, BitSet> roles = new HashMap<>();
+    private final Map<String, BitSet> statuses = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet bots = new BitSet();
+    private final IntList freeSlots = new IntList();
+    private long[] ids = new long[64];
+    private long[] joinedAt = new long[64];
+    private String[] status = new String[64];
+    private int nextSlot;
+    private int[] joinOrder = new int[0];
+    private boolean joinOrderDirty;
+
+    /**
+     * Filter for {@link #query(Filter)}. Null fields do not constrain the result.
+     *
+     * @param roleIds      members must have all of these roles
+     * @param joinedAfter  inclusive lower bound of the join time in epoch milliseconds
+     * @param joinedBefore exclusive upper bound of the join time in epoch milliseconds
+     * @param status       online status name, e.g. {@code ONLINE}
+     * @param bots         true for bots only, false for humans only
+     */
+    public record Filter(long[] roleIds, Long joinedAfter, Long joinedBefore, String status, Boolean bots) {
+    }
+
+    /**
+     * Adds or replaces a member.
+     */
+    public void put(long id, long joinedAtMillis, long[] roleIds, String onlineStatus, boolean bot) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int slot = allocate(id);
+            joinedAt[slot] = joinedAtMillis;
+            status[slot] = onlineStatus;
+            live.set(slot);
+            bots.set(slot, bot);
+            for (long roleId : roleIds) {
+                roles.computeIfAbsent(roleId, r -> new BitSet()).set(slot);
+            }
+            statuses.computeIfAbsent(onlineStatus, s -> new BitSet()).set(slot);
+            joinOrderDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setRole(long id, long roleId, boolean present) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                roles.computeIfAbsent(roleId, r -> new BitSet()).set(slot, present);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRole(long roleId) {
+        lock.writeLock().lock();
+        try {
+            roles.remove(roleId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setStatus(long id, String onlineStatus) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                statuses.get(status[slot]).clear(slot);
+                status[slot] = onlineStatus;
+                statuses.computeIfAbsent(onlineStatus, s -> new BitSet()).set(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * One page of a {@link #query(Filter, Long, int)} result.
+     *
+     * @param ids     the IDs of the members on this page, most recently joined first
+     * @param skipped the number of matching members on earlier pages
+     * @param total   the number of matching members across all pages
+     */
+    public record Page(long[] ids, int skipped, int total) {
+    }
+
+    /**
+     * Returns the IDs of all matching members, most recently joined first.
+     */
+    public long[] query(Filter filter) {
+        return query(filter, null, Integer.MAX_VALUE).ids();
+    }
+
+    /**
+     * Returns one page of the matching members, most recently joined first. Members are ordered by join
+     * time and then by ID, and a page continues after the last member of the previous page, so members
+     * joining or leaving between calls never shift later pages.
+     *
+     * @param filter  the filter
+     * @param afterId the last member of the previous page, or null for the first page
+     * @param limit   the maximum number of IDs on the page
+     * @throws IllegalArgumentException if {@code afterId} is no longer a member
+     */
+    public Page query(Filter filter, Long afterId, int limit) {
+        lock.readLock().lock();
+        if (joinOrderDirty) {
+            // Re-sorting mutates shared state: swap to the write lock, then downgrade to the read lock
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                if (joinOrderDirty) {
+                    sortJoinOrder();
+                }
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        try {
+            BitSet result = (BitSet) live.clone();
+            if (filter.roleIds() != null) {
+                for (long roleId : filter.roleIds()) {
+                    BitSet members = roles.get(roleId);
+                    if (members == null) {
+                        return new Page(new long[0], 0, 0);
+                    }
+                    result.and(members);
+                }
+            }
+            if (filter.status() != null) {
+                BitSet members = statuses.get(filter.status());
+                if (members == null) {
+                    return new Page(new long[0], 0, 0);
+                }
+                result.and(members);
+            }
+            if (filter.bots() != null) {
+                if (filter.bots()) {
+                    result.and(bots);
+                } else {
+                    result.andNot(bots);
+                }
+            }
+            int from = filter.joinedAfter() != null ? lowerBound(filter.joinedAfter(), Long.MIN_VALUE) : 0;
+            int to = filter.joinedBefore() != null ? lowerBound(filter.joinedBefore(), Long.MIN_VALUE) : joinOrder.length;
+            int skipped = 0;
+            int start = to;
+            if (afterId != null) {
+                Integer cursorSlot = slots.get(afterId);
+                if (cursorSlot == null) {
+                    throw new IllegalArgumentException("The cursor points to a member who left the server, list again without the cursor");
+                }
+                start = Math.max(from, Math.min(to, lowerBound(joinedAt[cursorSlot], afterId)));
+                skipped = countMatches(result, start, to);
+            }
+            long[] page = new long[Math.max(0, Math.min(limit, Math.min(result.cardinality(), start - from)))];
+            int size = 0;
+            int remaining = 0;
+            for (int i = start - 1; i >= from; i--) {
+                int slot = joinOrder[i];
+                if (result.get(slot)) {
+                    if (size < page.length) {
+                        page[size++] = ids[slot];
+                    } else {
+                        remaining++;
+                    }
+                }
+            }
+            return new Page(size == page.length ? page : Arrays.copyOf(page, size), skipped, skipped + size + remaining);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        live.clear(slot);
+        bots.clear(slot);
+        for (BitSet members : roles.values()) {
+            members.clear(slot);
+        }
+        BitSet statusMembers = statuses.get(status[slot]);
+        if (statusMembers != null) {
+            statusMembers.clear(slot);
+        }
+        status[slot] = null;
+        freeSlots.add(slot);
+        joinOrderDirty = true;
+    }
+
+    private int allocate(long id) {
+        int slot;
+        if (freeSlots.size() > 0) {
+            slot = freeSlots.removeLast();
+        } else {
+            slot = nextSlot++;
+            if (slot == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                joinedAt = Arrays.copyOf(joinedAt, joinedAt.length * 2);
+                status = Arrays.copyOf(status, status.length * 2);
+            }
+        }
+        ids[slot] = id;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private void sortJoinOrder() {
+        joinOrder = slots.values().stream()
+                .sorted((a, b) -> compare(joinedAt[a], ids[a], joinedAt[b], ids[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        joinOrderDirty = false;
+    }
+
+    private int countMatches(BitSet result, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (result.get(joinOrder[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Index of the first entry in the join order at or after the given join time and ID.
+     */
+    private int lowerBound(long millis, long id) {
+        int low = 0;
+        int high = joinOrder.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int slot = joinOrder[mid];
+            if (compare(joinedAt[slot], ids[slot], millis, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long joinedA, long idA, long joinedB, long idB) {
+        int byTime = Long.compare(joinedA, joinedB);
+        return byTime != 0 ? byTime : Long.compare(idA, idB);
+    }
+}
@@ -0,0 +1,145 @@
+package dev.saseq.indexes;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Per-guild {@link MemberBitmapIndex} over member roles, join times, online status and bot flags.
+ * Kept current from member events. Profiles that cache every member build it from the member cache when
+ * a guild becomes ready; other profiles load the member list from Discord once, on first use.
+ */
+@Component
+public class MemberFilterIndex {
+
+    private static final long LOAD_TIMEOUT_SECONDS = 60;
+
+    private final Map<Long, MemberBitmapIndex> guilds = new ConcurrentHashMap<>();
+    // Indexes whose member list is still being loaded from Discord, and the loads themselves
+    private final Map<Long, MemberBitmapIndex> loading = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<MemberBitmapIndex>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the index of a guild, or null if the guild has not been indexed.
+     */
+    public MemberBitmapIndex get(long guildId) {
+        return guilds.get(guildId);
+    }
+
+    /**
+     * Returns the index of a guild, loading the full member list from Discord if the guild has not been
+     * indexed yet. Only the indexed fields are kept, not the members, so this does not grow the member cache.
+     * Concurrent callers share one load, and member events arriving during the load are applied to it.
+     *
+     * @throws IllegalStateException if the member list is still loading after {@code LOAD_TIMEOUT_SECONDS}
+     */
+    public MemberBitmapIndex load(Guild guild) {
+        long guildId = guild.getIdLong();
+        MemberBitmapIndex index = guilds.get(guildId);
+        if (index != null) {
+            return index;
+        }
+        CompletableFuture<MemberBitmapIndex> started = new CompletableFuture<>();
+        CompletableFuture<MemberBitmapIndex> load = loads.putIfAbsent(guildId, started);
+        if (load == null) {
+            load = started;
+            MemberBitmapIndex loadingIndex = new MemberBitmapIndex();
+            loading.put(guildId, loadingIndex);
+            try {
+                guild.loadMembers(member -> put(loadingIndex, member))
+                        .onSuccess(done -> {
+                            guilds.put(guildId, loadingIndex);
+                            loading.remove(guildId);
+                            loads.remove(guildId);
+                            started.complete(loadingIndex);
+                        })
+                        .onError(error -> {
+                            loading.remove(guildId);
+                            loads.remove(guildId);
+                            started.completeExceptionally(error);
+                        });
+            } catch (RuntimeException e) {
+                loading.remove(guildId);
+                loads.remove(guildId);
+                started.completeExceptionally(e);
+            }
+        }
+        try {
+            return load.get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("The member list of this server is still loading, try again shortly");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load the member list: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the member list");
+        }
+    }
+
+    public void rebuild(Guild guild) {
+        MemberBitmapIndex index = new MemberBitmapIndex();
+        guild.getMemberCache().forEach(member -> put(index, member));
+        guilds.put(guild.getIdLong(), index);
+    }
+
+    public void update(Member member) {
+        MemberBitmapIndex index = indexOf(member.getGuild().getIdLong());
+        if (index != null) {
+            put(index, member);
+        }
+    }
+
+    public void updateRoles(Member member, List<Role> roles, boolean added) {
+        MemberBitmapIndex index = indexOf(member.getGuild().getIdLong());
+        if (index != null) {
+            for (Role role : roles) {
+                index.setRole(member.getIdLong(), role.getIdLong(), added);
+            }
+        }
+    }
+
+    public void updateStatus(Member member) {
+        MemberBitmapIndex index = indexOf(member.getGuild().getIdLong());
+        if (index != null) {
+            index.setStatus(member.getIdLong(), member.getOnlineStatus().name());
+        }
+    }
+
+    public void removeRole(long guildId, long roleId) {
+        MemberBitmapIndex index = indexOf(guildId);
+        if (index != null) {
+            index.removeRole(roleId);
+        }
+    }
+
+    public void remove(long guildId, long userId) {
+        MemberBitmapIndex index = indexOf(guildId);
+        if (index != null) {
+            index.remove(userId);
+        }
+    }
+
+    public void drop(long guildId) {
+        guilds.remove(guildId);
+    }
+
+    private MemberBitmapIndex indexOf(long guildId) {
+        MemberBitmapIndex index = guilds.get(guildId);
+        return index != null ? index : loading.get(guildId);
+    }
+
+    private static void put(MemberBitmapIndex index, Member member) {
+        long[] roleIds = member.getRoles().stream().mapToLong(Role::getIdLong).toArray();
+        long joinedAt = member.hasTimeJoined() ? member.getTimeJoined().toInstant().toEpochMilli() : 0L;
+        index.put(member.getIdLong(), joinedAt, roleIds, member.getOnlineStatus().name(), member.getUser().isBot());
+    }
+}
@@ -0,0 +1,76 @@
+package dev.saseq.indexes;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-guild {@link FuzzyNameIndex} over member usernames, global display names and nicknames.
+ * Built from the member cache when a guild becomes ready and kept current from member events.
+ * Members can also enter the member cache without an event (e.g. as message authors), so the
+ * index only answers exact lookups on its own while it covers the whole member cache; see
+ * {@link #authoritative(Guild)}.
+ */
+@Component
+public class MemberNameIndex {
+
+    private final int maxNamesPerGuild;
+    private final Map<Long, FuzzyNameIndex> guilds = new ConcurrentHashMap<>();
+
+    public MemberNameIndex(@Value("${DISCORD_NAME_INDEX_MAX_NAMES:300000}") int maxNamesPerGuild) {
+        this.maxNamesPerGuild = maxNamesPerGuild;
+    }
+
+    /**
+     * Returns the index of a guild, or null if the guild has not been indexed.
+     */
+    public FuzzyNameIndex get(long guildId) {
+        return guilds.get(guildId);
+    }
+
+    /**
+     * Returns the index of a guild if it can replace a member cache scan: every member fit the name budget
+     * and the index holds exactly as many members as the member cache. Otherwise null.
+     */
+    public FuzzyNameIndex authoritative(Guild guild) {
+        FuzzyNameIndex index = guilds.get(guild.getIdLong());
+        if (index == null || !index.isComplete() || index.size() != guild.getMemberCache().size()) {
+            return null;
+        }
+        return index;
+    }
+
+    public void rebuild(Guild guild) {
+        FuzzyNameIndex index = new FuzzyNameIndex(maxNamesPerGuild);
+        guild.getMemberCache().forEach(member -> index.put(member.getIdLong(), names(member)));
+        guilds.put(guild.getIdLong(), index);
+    }
+
+    public void update(Member member) {
+        FuzzyNameIndex index = guilds.get(member.getGuild().getIdLong());
+        if (index != null) {
+            index.put(member.getIdLong(), names(member));
+        }
+    }
+
+    public void remove(long guildId, long userId) {
+        FuzzyNameIndex index = guilds.get(guildId);
+        if (index != null) {
+            index.remove(userId);
+        }
+    }
+
+    public void drop(long guildId) {
+        guilds.remove(guildId);
+    }
+
+    private static String[] names(Member member) {
+        User user = member.getUser();
+        return new String[]{user.getName(), user.getGlobalName(), member.getNickname()};
+    }
+}
@@ -0,0 +1,115 @@
+package dev.saseq.indexes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable open-addressing table from case-folded names to the IDs carrying that name.
+ * Lookups fold and hash the query character by character and compare in place, so an exact
+ * lookup allocates nothing; the returned arrays are shared and must not be modified.
+ */
+final class NameTable {
+
+    static final long[] NONE = new long[0];
+
+    private final String[] keys;
+    private final long[][] values;
+    private final int mask;
+
+    private NameTable(String[] keys, long[][] values) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * Builds a table from entity IDs and their names; IDs sharing a name are kept in ascending order.
+     */
+    static NameTable of(Map<Long, String> names) {
+        Map<String, long[]> grouped = new HashMap<>();
+        for (Map.Entry<Long, String> entry : names.entrySet()) {
+            long[] id = {entry.getKey()};
+            grouped.merge(fold(entry.getValue()), id, (existing, added) -> {
+                long[] merged = Arrays.copyOf(existing, existing.length + 1);
+                merged[existing.length] = added[0];
+                return merged;
+            });
+        }
+        // Keep the load factor at or below one half so probe chains stay short
+        int capacity = Integer.highestOneBit(Math.max(4, grouped.size() * 2 - 1)) << 1;
+        String[] keys = new String[capacity];
+        long[][] values = new long[capacity][];
+        for (Map.Entry<String, long[]> entry : grouped.entrySet()) {
+            long[] ids = entry.getValue();
+            Arrays.sort(ids);
+            int slot = hash(entry.getKey()) & (capacity - 1);
+            while (keys[slot] != null) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = entry.getKey();
+            values[slot] = ids;
+        }
+        return new NameTable(keys, values);
+    }
+
+    /**
+     * Returns the IDs with exactly this name ignoring case, or an empty array.
+     */
+    long[] get(CharSequence name) {
+        int slot = hash(name) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, name)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    int size() {
+        int size = 0;
+        for (String key : keys) {
+            if (key != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Per-character folding, equivalent to {@link String#equalsIgnoreCase} for characters in the BMP.
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    static String fold(String name) {
+        char[] folded = new char[name.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = fold(name.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    private static int hash(CharSequence name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + fold(name.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence name) {
+        if (key.length() != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != fold(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
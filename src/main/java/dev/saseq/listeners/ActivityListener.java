@@ -0,0 +1,45 @@
+package dev.saseq.listeners;
+
+import dev.saseq.analytics.ActivityStats;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds guild messages into the {@link ActivityStats} sketches. Webhook messages count towards
+ * their channel but not towards any author.
+ */
+@Component
+public class ActivityListener extends ListenerAdapter {
+
+    private final ActivityStats activityStats;
+
+    public ActivityListener(ActivityStats activityStats) {
+        this.activityStats = activityStats;
+    }
+
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        if (!event.isFromGuild()) {
+            return;
+        }
+        long authorId = event.isWebhookMessage() ? 0 : event.getAuthor().getIdLong();
+        activityStats.record(event.getGuild().getIdLong(), event.getChannel().getIdLong(), authorId,
+                event.getMessage().getTimeCreated().toInstant().toEpochMilli());
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        if (event.getChannel() instanceof GuildChannel channel) {
+            activityStats.removeChannel(channel.getGuild().getIdLong(), channel.getIdLong());
+        }
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        activityStats.dropGuild(event.getGuild().getIdLong());
+    }
+}
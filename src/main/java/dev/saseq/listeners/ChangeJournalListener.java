@@ -0,0 +1,128 @@
+package dev.saseq.listeners;
+
+import dev.saseq.changes.Change;
+import dev.saseq.changes.ChangeJournal;
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.GenericChannelUpdateEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records guild messages, member joins and leaves, channel changes and reactions in the {@link ChangeJournal}.
+ */
+@Component
+public class ChangeJournalListener extends ListenerAdapter {
+
+    private static final int MAX_SUMMARY_CHARS = 200;
+
+    private final ChangeJournal journal;
+
+    public ChangeJournalListener(ChangeJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        if (event.isFromGuild()) {
+            recordMessage(Change.MESSAGE_CREATE, event.getGuild().getIdLong(), event.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessageUpdate(MessageUpdateEvent event) {
+        if (event.isFromGuild()) {
+            recordMessage(Change.MESSAGE_UPDATE, event.getGuild().getIdLong(), event.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessageDelete(MessageDeleteEvent event) {
+        if (event.isFromGuild()) {
+            journal.record(event.getGuild().getIdLong(), Change.MESSAGE_DELETE, event.getChannel().getId(),
+                    event.getMessageId(), "message deleted");
+        }
+    }
+
+    @Override
+    public void onGuildMemberJoin(GuildMemberJoinEvent event) {
+        journal.record(event.getGuild().getIdLong(), Change.MEMBER_JOIN, null, event.getUser().getId(),
+                event.getUser().getName() + " joined");
+    }
+
+    @Override
+    public void onGuildMemberRemove(GuildMemberRemoveEvent event) {
+        journal.record(event.getGuild().getIdLong(), Change.MEMBER_LEAVE, null, event.getUser().getId(),
+                event.getUser().getName() + " left");
+    }
+
+    @Override
+    public void onChannelCreate(ChannelCreateEvent event) {
+        recordChannel(Change.CHANNEL_CREATE, event.getChannel(), "created");
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        recordChannel(Change.CHANNEL_DELETE, event.getChannel(), "deleted");
+    }
+
+    @Override
+    public void onGenericChannelUpdate(GenericChannelUpdateEvent<?> event) {
+        recordChannel(Change.CHANNEL_UPDATE, event.getChannel(), event.getPropertyIdentifier() + " changed from "
+                + describe(event.getOldValue()) + " to " + describe(event.getNewValue()));
+    }
+
+    @Override
+    public void onMessageReactionAdd(MessageReactionAddEvent event) {
+        if (event.isFromGuild()) {
+            journal.record(event.getGuild().getIdLong(), Change.REACTION_ADD, event.getChannel().getId(),
+                    event.getMessageId(), "user " + event.getUserId() + " added " + event.getEmoji().getFormatted());
+        }
+    }
+
+    @Override
+    public void onMessageReactionRemove(MessageReactionRemoveEvent event) {
+        if (event.isFromGuild()) {
+            journal.record(event.getGuild().getIdLong(), Change.REACTION_REMOVE, event.getChannel().getId(),
+                    event.getMessageId(), "user " + event.getUserId() + " removed " + event.getEmoji().getFormatted());
+        }
+    }
+
+    private void recordMessage(String type, long guildId, Message message) {
+        journal.record(guildId, type, message.getChannel().getId(), message.getId(),
+                abbreviate(message.getAuthor().getName() + ": " + message.getContentDisplay()));
+    }
+
+    private void recordChannel(String type, Channel channel, String what) {
+        if (channel instanceof GuildChannel guildChannel) {
+            journal.record(guildChannel.getGuild().getIdLong(), type, channel.getId(), channel.getId(),
+                    abbreviate(channel.getType().name() + " channel " + channel.getName() + " " + what));
+        }
+    }
+
+    private static String describe(Object value) {
+        if (value instanceof Channel channel) {
+            return channel.getName() + " (ID: " + channel.getId() + ")";
+        }
+        if (value instanceof ISnowflake snowflake) {
+            return snowflake.getId();
+        }
+        return String.valueOf(value);
+    }
+
+    private static String abbreviate(String text) {
+        String line = text.replace('\n', ' ');
+        return line.length() > MAX_SUMMARY_CHARS ? line.substring(0, MAX_SUMMARY_CHARS) + "..." : line;
+    }
+}
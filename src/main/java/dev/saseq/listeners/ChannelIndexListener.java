@@ -0,0 +1,66 @@
+package dev.saseq.listeners;
+
+import dev.saseq.indexes.ChannelNameIndex;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateNameEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the per-guild channel name index in sync with gateway channel events.
+ */
+@Component
+public class ChannelIndexListener extends ListenerAdapter {
+
+    private final ChannelNameIndex channelNameIndex;
+
+    public ChannelIndexListener(ChannelNameIndex channelNameIndex) {
+        this.channelNameIndex = channelNameIndex;
+    }
+
+    @Override
+    public void onGuildReady(GuildReadyEvent event) {
+        channelNameIndex.rebuild(event.getGuild());
+    }
+
+    @Override
+    public void onGuildJoin(GuildJoinEvent event) {
+        channelNameIndex.rebuild(event.getGuild());
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        channelNameIndex.drop(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onChannelCreate(ChannelCreateEvent event) {
+        if (isIndexed(event.getChannel())) {
+            channelNameIndex.update((GuildChannel) event.getChannel());
+        }
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        if (isIndexed(event.getChannel())) {
+            channelNameIndex.remove((GuildChannel) event.getChannel());
+        }
+    }
+
+    @Override
+    public void onChannelUpdateName(ChannelUpdateNameEvent event) {
+        if (isIndexed(event.getChannel())) {
+            channelNameIndex.update((GuildChannel) event.getChannel());
+        }
+    }
+
+    private static boolean isIndexed(Channel channel) {
+        return channel instanceof GuildChannel && !channel.getType().isThread();
+    }
+}
@@ -1,6 +1,7 @@
 package dev.saseq.listeners;
 
 import dev.saseq.services.MessageResponseService;
+import dev.saseq.subscriptions.MessageSubscriptions;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
@@ -9,7 +10,6 @@ import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +17,7 @@ import org.springframework.stereotype.Component;
  * Listener for incoming Discord messages.
  * Filters to only process messages that @mention the bot or are DMs.
  * Wires to MessageResponseService for MCP sampling.
+ * Every message from a user is also published to waiting {@code wait_for_messages} calls.
  */
 @Component
 public class DiscordMessageListener extends ListenerAdapter {
@@ -25,13 +26,15 @@ public class DiscordMessageListener extends ListenerAdapter {
 
     private final boolean respondToMentionsOnly;
     private final MessageResponseService messageResponseService;
+    private final MessageSubscriptions messageSubscriptions;
 
-    @Autowired
     public DiscordMessageListener(
             @Value("${DISCORD_RESPOND_TO_MENTIONS:true}") boolean respondToMentionsOnly,
-            MessageResponseService messageResponseService) {
+            MessageResponseService messageResponseService,
+            MessageSubscriptions messageSubscriptions) {
         this.respondToMentionsOnly = respondToMentionsOnly;
         this.messageResponseService = messageResponseService;
+        this.messageSubscriptions = messageSubscriptions;
     }
 
     @Override
@@ -41,6 +44,10 @@ public class DiscordMessageListener extends ListenerAdapter {
             return;
         }
 
+        if (!messageSubscriptions.isEmpty()) {
+            messageSubscriptions.publish(event.getMessage());
+        }
+
         // Only process text channels and private channels (DMs)
         ChannelType channelType = event.getChannelType();
         if (!channelType.isMessage()) {
@@ -0,0 +1,42 @@
+package dev.saseq.listeners;
+
+import dev.saseq.caches.GuildOwnerCache;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.update.GuildUpdateOwnerEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the cached guild owner names in line with ownership transfers and username changes.
+ */
+@Component
+public class GuildOwnerListener extends ListenerAdapter {
+
+    private final GuildOwnerCache ownerCache;
+
+    public GuildOwnerListener(GuildOwnerCache ownerCache) {
+        this.ownerCache = ownerCache;
+    }
+
+    @Override
+    public void onGuildUpdateOwner(GuildUpdateOwnerEvent event) {
+        Member newOwner = event.getNewOwner();
+        if (newOwner != null) {
+            ownerCache.put(event.getGuild().getIdLong(), newOwner.getIdLong(), newOwner.getUser().getName());
+        } else {
+            ownerCache.invalidate(event.getGuild().getIdLong());
+        }
+    }
+
+    @Override
+    public void onUserUpdateName(UserUpdateNameEvent event) {
+        ownerCache.rename(event.getUser().getIdLong(), event.getNewName());
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        ownerCache.invalidate(event.getGuild().getIdLong());
+    }
+}
@@ -0,0 +1,81 @@
+package dev.saseq.listeners;
+
+import dev.saseq.caches.GuildSnapshotCache;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.attribute.ICategorizableChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateParentEvent;
+import net.dv8tion.jda.api.events.channel.update.GenericChannelUpdateEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.guild.override.GenericPermissionOverrideEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates the cached guild snapshot sections affected by channel and permission events.
+ */
+@Component
+public class GuildSnapshotListener extends ListenerAdapter {
+
+    private final GuildSnapshotCache snapshotCache;
+
+    public GuildSnapshotListener(GuildSnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    @Override
+    public void onGuildReady(GuildReadyEvent event) {
+        snapshotCache.drop(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        snapshotCache.drop(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onChannelCreate(ChannelCreateEvent event) {
+        invalidate(event.getChannel());
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        invalidate(event.getChannel());
+    }
+
+    @Override
+    public void onGenericChannelUpdate(GenericChannelUpdateEvent<?> event) {
+        invalidate(event.getChannel());
+        if (event instanceof ChannelUpdateParentEvent parentEvent
+                && parentEvent.getChannel() instanceof GuildChannel guildChannel) {
+            Category oldParent = parentEvent.getOldValue();
+            // Channels without a category are listed in section 0
+            snapshotCache.invalidateSection(guildChannel.getGuild().getIdLong(), oldParent != null ? oldParent.getIdLong() : 0);
+        }
+    }
+
+    @Override
+    public void onGenericPermissionOverride(GenericPermissionOverrideEvent event) {
+        invalidate(event.getChannel());
+    }
+
+    private void invalidate(Channel channel) {
+        if (!(channel instanceof GuildChannel guildChannel) || channel.getType().isThread()) {
+            return;
+        }
+        long guildId = guildChannel.getGuild().getIdLong();
+        if (channel.getType() == ChannelType.CATEGORY) {
+            // Covers renames and position changes of the category itself
+            snapshotCache.invalidateSection(guildId, channel.getIdLong());
+        } else if (channel instanceof ICategorizableChannel categorizable) {
+            snapshotCache.invalidateSection(guildId, categorizable.getParentCategoryIdLong());
+        } else {
+            snapshotCache.invalidateSection(guildId, 0);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package dev.saseq.listeners;
+
+import dev.saseq.configs.CacheProfile;
+import dev.saseq.indexes.MemberFilterIndex;
+import dev.saseq.indexes.MemberNameIndex;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberUpdateEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateGlobalNameEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateOnlineStatusEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the per-guild member indexes in sync with gateway member events.
+ * The name index is only read when the profile caches every member, so it is only built and updated then.
+ */
+@Component
+public class MemberIndexListener extends ListenerAdapter {
+
+    private final MemberNameIndex memberNameIndex;
+    private final MemberFilterIndex memberFilterIndex;
+    private final CacheProfile cacheProfile;
+
+    public MemberIndexListener(MemberNameIndex memberNameIndex, MemberFilterIndex memberFilterIndex,
+                               CacheProfile cacheProfile) {
+        this.memberNameIndex = memberNameIndex;
+        this.memberFilterIndex = memberFilterIndex;
+        this.cacheProfile = cacheProfile;
+    }
+
+    @Override
+    public void onGuildReady(GuildReadyEvent event) {
+        rebuildNameIndex(event.getGuild());
+        rebuildFilterIndex(event.getGuild());
+    }
+
+    @Override
+    public void onGuildJoin(GuildJoinEvent event) {
+        rebuildNameIndex(event.getGuild());
+        rebuildFilterIndex(event.getGuild());
+    }
+
+    private void rebuildNameIndex(Guild guild) {
+        if (cacheProfile.cachesAllMembers()) {
+            memberNameIndex.rebuild(guild);
+        }
+    }
+
+    /**
+     * A full member cache is indexed right away. A partial cache cannot be; the filter index is dropped
+     * instead, since events may have been missed, and list_members loads the member list again on first use.
+     */
+    private void rebuildFilterIndex(Guild guild) {
+        if (cacheProfile.cachesAllMembers()) {
+            memberFilterIndex.rebuild(guild);
+        } else {
+            memberFilterIndex.drop(guild.getIdLong());
+        }
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        memberNameIndex.drop(event.getGuild().getIdLong());
+        memberFilterIndex.drop(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberJoin(GuildMemberJoinEvent event) {
+        updateNameIndex(event.getMember());
+        memberFilterIndex.update(event.getMember());
+    }
+
+    @Override
+    public void onGuildMemberRemove(GuildMemberRemoveEvent event) {
+        memberNameIndex.remove(event.getGuild().getIdLong(), event.getUser().getIdLong());
+        memberFilterIndex.remove(event.getGuild().getIdLong(), event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRoleAdd(GuildMemberRoleAddEvent event) {
+        memberFilterIndex.updateRoles(event.getMember(), event.getRoles(), true);
+    }
+
+    @Override
+    public void onGuildMemberRoleRemove(GuildMemberRoleRemoveEvent event) {
+        memberFilterIndex.updateRoles(event.getMember(), event.getRoles(), false);
+    }
+
+    @Override
+    public void onRoleDelete(RoleDeleteEvent event) {
+        memberFilterIndex.removeRole(event.getGuild().getIdLong(), event.getRole().getIdLong());
+    }
+
+    @Override
+    public void onUserUpdateOnlineStatus(UserUpdateOnlineStatusEvent event) {
+        memberFilterIndex.updateStatus(event.getMember());
+    }
+
+    /**
+     * Fired for every member update, including members that were not cached before, so the indexes
+     * also pick up members the cache learned about after the guild became ready.
+     */
+    @Override
+    public void onGuildMemberUpdate(GuildMemberUpdateEvent event) {
+        updateNameIndex(event.getMember());
+        memberFilterIndex.update(event.getMember());
+    }
+
+    @Override
+    public void onUserUpdateName(UserUpdateNameEvent event) {
+        updateMutualGuilds(event.getUser());
+    }
+
+    @Override
+    public void onUserUpdateGlobalName(UserUpdateGlobalNameEvent event) {
+        updateMutualGuilds(event.getUser());
+    }
+
+    private void updateMutualGuilds(User user) {
+        for (Guild guild : user.getMutualGuilds()) {
+            Member member = guild.getMember(user);
+            if (member != null) {
+                updateNameIndex(member);
+            }
+        }
+    }
+
+    private void updateNameIndex(Member member) {
+        if (cacheProfile.cachesAllMembers()) {
+            memberNameIndex.update(member);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package dev.saseq.listeners;
+
+import dev.saseq.caches.PrivateChannelCache;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the private channel of every user who exchanges a DM with the bot,
+ * so later DM tool calls go straight to the channel.
+ */
+@Component
+public class PrivateChannelListener extends ListenerAdapter {
+
+    private final PrivateChannelCache privateChannelCache;
+
+    public PrivateChannelListener(PrivateChannelCache privateChannelCache) {
+        this.privateChannelCache = privateChannelCache;
+    }
+
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        if (event.getChannelType() != ChannelType.PRIVATE) {
+            return;
+        }
+        PrivateChannel channel = event.getChannel().asPrivateChannel();
+        // Messages the bot sent itself belong to the DM of the channel's recipient
+        User recipient = event.getAuthor().getIdLong() == event.getJDA().getSelfUser().getIdLong() ? channel.getUser() : event.getAuthor();
+        if (recipient != null) {
+            privateChannelCache.put(recipient.getId(), channel);
+        }
+    }
+}
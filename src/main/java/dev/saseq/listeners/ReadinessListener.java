@@ -0,0 +1,24 @@
+package dev.saseq.listeners;
+
+import dev.saseq.gateway.GatewayReadiness;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks shards ready as their initial login completes.
+ */
+@Component
+public class ReadinessListener extends ListenerAdapter {
+
+    private final GatewayReadiness readiness;
+
+    public ReadinessListener(GatewayReadiness readiness) {
+        this.readiness = readiness;
+    }
+
+    @Override
+    public void onReady(ReadyEvent event) {
+        readiness.markReady(event.getJDA().getShardInfo().getShardId());
+    }
+}
@@ -0,0 +1,24 @@
+package dev.saseq.listeners;
+
+import dev.saseq.gateway.ShardMetrics;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts gateway events per shard for the shard metrics tool.
+ */
+@Component
+public class ShardMetricsListener extends ListenerAdapter {
+
+    private final ShardMetrics shardMetrics;
+
+    public ShardMetricsListener(ShardMetrics shardMetrics) {
+        this.shardMetrics = shardMetrics;
+    }
+
+    @Override
+    public void onGenericEvent(GenericEvent event) {
+        shardMetrics.recordEvent(event.getJDA().getShardInfo().getShardId());
+    }
+}
@@ -0,0 +1,47 @@
+package dev.saseq.listeners;
+
+import dev.saseq.caches.WebhookCache;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.events.RawGatewayEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates cached webhook inventories. JDA has no typed event for {@code WEBHOOKS_UPDATE},
+ * so it is read from the raw gateway events, which are enabled while the webhook cache is on.
+ */
+@Component
+public class WebhookCacheListener extends ListenerAdapter {
+
+    private static final String WEBHOOKS_UPDATE = "WEBHOOKS_UPDATE";
+
+    private final WebhookCache webhookCache;
+
+    public WebhookCacheListener(WebhookCache webhookCache) {
+        this.webhookCache = webhookCache;
+    }
+
+    @Override
+    public void onRawGateway(RawGatewayEvent event) {
+        if (!WEBHOOKS_UPDATE.equals(event.getType())) {
+            return;
+        }
+        DataObject payload = event.getPayload();
+        webhookCache.invalidate(payload.getUnsignedLong("guild_id"), payload.getUnsignedLong("channel_id"));
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        if (event.getChannel() instanceof GuildChannel channel) {
+            webhookCache.invalidate(channel.getGuild().getIdLong(), channel.getIdLong());
+        }
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        webhookCache.drop(event.getGuild().getIdLong());
+    }
+}
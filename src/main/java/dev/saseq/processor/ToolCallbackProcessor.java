@@ -0,0 +1,202 @@
+package dev.saseq.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Service>ToolCallbacks} class next to every class with {@code @Tool} methods.
+ * Each tool becomes a static {@code ToolCallback} implementation whose JSON schema is a compile-time
+ * constant and whose arguments are bound from the JSON input and passed to the method directly, so
+ * neither startup nor tool calls need reflection.
+ * <p>
+ * Tool parameters may be {@code String}, {@code int}, {@code long}, {@code boolean}, {@code double}
+ * or their boxed types; anything else is reported as a compile error.
+ */
+@SupportedAnnotationTypes(ToolCallbackProcessor.TOOL_ANNOTATION)
+public class ToolCallbackProcessor extends AbstractProcessor {
+
+    static final String TOOL_ANNOTATION = "org.springframework.ai.tool.annotation.Tool";
+    static final String TOOL_PARAM_ANNOTATION = "org.springframework.ai.tool.annotation.ToolParam";
+    static final String SUFFIX = "ToolCallbacks";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<ExecutableElement>> toolsByType = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) element;
+                if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+                    error(method, "@Tool methods must be public instance methods");
+                    continue;
+                }
+                toolsByType.computeIfAbsent((TypeElement) method.getEnclosingElement(), type -> new ArrayList<>()).add(method);
+            }
+        }
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : toolsByType.entrySet()) {
+            generate(entry.getKey(), entry.getValue());
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type, List<ExecutableElement> methods) {
+        List<ToolModel> tools = new ArrayList<>();
+        Set<String> toolNames = new HashSet<>();
+        for (ExecutableElement method : methods) {
+            ToolModel tool = toolModel(method);
+            if (tool == null) {
+                return;
+            }
+            if (!toolNames.add(tool.name())) {
+                error(method, "Duplicate @Tool name " + tool.name() + "; overloaded tools need distinct names");
+                return;
+            }
+            tools.add(tool);
+        }
+        String packageName = ((PackageElement) processingEnv.getElementUtils().getPackageOf(type)).getQualifiedName().toString();
+        String serviceName = type.getSimpleName().toString();
+        String className = serviceName + SUFFIX;
+        String source = ToolCallbackWriter.write(packageName, serviceName, className, tools);
+        try {
+            JavaFileObject file = processingEnv.getFiler()
+                    .createSourceFile(packageName.isEmpty() ? className : packageName + "." + className, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + className, e);
+        }
+    }
+
+    private ToolModel toolModel(ExecutableElement method) {
+        Map<String, Object> tool = annotationValues(method, TOOL_ANNOTATION);
+        String methodName = method.getSimpleName().toString();
+        String name = stringValue(tool, "name");
+        String description = stringValue(tool, "description");
+        List<ParamModel> params = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            ParamType paramType = ParamType.of(parameter.asType());
+            if (paramType == null) {
+                error(parameter, "Unsupported @Tool parameter type " + parameter.asType()
+                        + "; use String, int, long, boolean, double or their boxed types");
+                return null;
+            }
+            Map<String, Object> toolParam = annotationValues(parameter, TOOL_PARAM_ANNOTATION);
+            Object required = toolParam.get("required");
+            params.add(new ParamModel(parameter.getSimpleName().toString(), paramType,
+                    stringValue(toolParam, "description"), required == null || (Boolean) required));
+        }
+        TypeMirror returnType = method.getReturnType();
+        String returnClass = returnType.getKind() == TypeKind.VOID
+                ? "void"
+                : processingEnv.getTypeUtils().erasure(returnType).toString();
+        return new ToolModel(methodName, name.isEmpty() ? methodName : name,
+                description.isEmpty() ? methodName : description, params, returnClass);
+    }
+
+    /**
+     * Reads an annotation by name, including defaults, without loading the annotation class.
+     */
+    private Map<String, Object> annotationValues(Element element, String annotationName) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().toString().equals(annotationName)) {
+                continue;
+            }
+            Map<? extends ExecutableElement, ? extends AnnotationValue> withDefaults =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+            withDefaults.forEach((key, value) -> values.put(key.getSimpleName().toString(), value.getValue()));
+        }
+        return values;
+    }
+
+    private static String stringValue(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        return value == null ? "" : value.toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Supported parameter types with their JSON schema type and the helper that binds them.
+     * Primitive parameters have no null to stand for a missing argument, so a call without one is rejected.
+     */
+    enum ParamType {
+        STRING("string", "text", false),
+        INT("integer", "integer", true),
+        INTEGER("integer", "integer", false),
+        LONG_PRIMITIVE("integer", "longValue", true),
+        LONG("integer", "longValue", false),
+        BOOLEAN_PRIMITIVE("boolean", "bool", true),
+        BOOLEAN("boolean", "bool", false),
+        DOUBLE_PRIMITIVE("number", "number", true),
+        DOUBLE("number", "number", false);
+
+        final String schemaType;
+        final String binder;
+        final boolean primitive;
+
+        ParamType(String schemaType, String binder, boolean primitive) {
+            this.schemaType = schemaType;
+            this.binder = binder;
+            this.primitive = primitive;
+        }
+
+        static ParamType of(TypeMirror type) {
+            return switch (type.getKind()) {
+                case INT -> INT;
+                case LONG -> LONG_PRIMITIVE;
+                case BOOLEAN -> BOOLEAN_PRIMITIVE;
+                case DOUBLE -> DOUBLE_PRIMITIVE;
+                case DECLARED -> switch (type.toString()) {
+                    case "java.lang.String" -> STRING;
+                    case "java.lang.Integer" -> INTEGER;
+                    case "java.lang.Long" -> LONG;
+                    case "java.lang.Boolean" -> BOOLEAN;
+                    case "java.lang.Double" -> DOUBLE;
+                    default -> null;
+                };
+                default -> null;
+            };
+        }
+    }
+
+    record ParamModel(String name, ParamType type, String description, boolean required) {
+    }
+
+    record ToolModel(String methodName, String name, String description, List<ParamModel> params, String returnClass) {
+    }
+}
@@ -0,0 +1,264 @@
+package dev.saseq.processor;
+
+import dev.saseq.processor.ToolCallbackProcessor.ParamModel;
+import dev.saseq.processor.ToolCallbackProcessor.ToolModel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the source of a generated tool callback class.
+ */
+final class ToolCallbackWriter {
+
+    private ToolCallbackWriter() {
+    }
+
+    static String write(String packageName, String serviceName, String className, List<ToolModel> tools) {
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import com.fasterxml.jackson.core.JsonProcessingException;\n")
+                .append("import com.fasterxml.jackson.databind.JsonNode;\n")
+                .append("import com.fasterxml.jackson.databind.ObjectMapper;\n")
+                .append("import org.springframework.ai.tool.ToolCallback;\n")
+                .append("import org.springframework.ai.tool.definition.ToolDefinition;\n")
+                .append("import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;\n")
+                .append("import org.springframework.ai.tool.execution.ToolExecutionException;\n\n")
+                .append("import javax.annotation.processing.Generated;\n\n")
+                .append("/**\n * Tool callbacks for {@link ").append(serviceName).append("}, generated at compile time.\n */\n")
+                .append("@Generated(\"").append(ToolCallbackProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(className).append(" {\n\n")
+                .append("    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();\n")
+                .append("    private static final DefaultToolCallResultConverter RESULT_CONVERTER = new DefaultToolCallResultConverter();\n\n")
+                .append("    private ").append(className).append("() {\n    }\n\n")
+                .append("    public static ToolCallback[] create(").append(serviceName).append(" service) {\n")
+                .append("        return new ToolCallback[]{");
+        List<String> callbackNames = callbackNames(tools);
+        for (int i = 0; i < tools.size(); i++) {
+            out.append(i == 0 ? "\n" : ",\n")
+                    .append("                new ").append(callbackNames.get(i)).append("(service)");
+        }
+        out.append("\n        };\n    }\n");
+
+        for (int i = 0; i < tools.size(); i++) {
+            writeCallback(out, serviceName, callbackNames.get(i), tools.get(i));
+        }
+        writeHelpers(out);
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * Builds the input schema of a tool in the shape produced by Spring AI's schema generator.
+     */
+    static String schema(List<ParamModel> params) {
+        StringBuilder schema = new StringBuilder()
+                .append("{\"$schema\":\"https://json-schema.org/draft/2020-12/schema\",\"type\":\"object\",\"properties\":{");
+        for (int i = 0; i < params.size(); i++) {
+            ParamModel param = params.get(i);
+            if (i > 0) {
+                schema.append(',');
+            }
+            schema.append(jsonString(param.name())).append(":{\"type\":").append(jsonString(param.type().schemaType));
+            if (!param.description().isEmpty()) {
+                schema.append(",\"description\":").append(jsonString(param.description()));
+            }
+            schema.append('}');
+        }
+        schema.append("},\"required\":[");
+        boolean first = true;
+        for (ParamModel param : params) {
+            if (param.required()) {
+                schema.append(first ? "" : ",").append(jsonString(param.name()));
+                first = false;
+            }
+        }
+        return schema.append("],\"additionalProperties\":false}").toString();
+    }
+
+    static String jsonString(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Java string literal; JSON string escaping is also valid Java escaping for these characters.
+     */
+    static String javaString(String value) {
+        return jsonString(value);
+    }
+
+    private static void writeCallback(StringBuilder out, String serviceName, String name, ToolModel tool) {
+        out.append("\n    private static final class ").append(name).append(" implements ToolCallback {\n\n")
+                .append("        private static final ToolDefinition DEFINITION = ToolDefinition.builder()\n")
+                .append("                .name(").append(javaString(tool.name())).append(")\n")
+                .append("                .description(").append(javaString(tool.description())).append(")\n")
+                .append("                .inputSchema(").append(javaString(schema(tool.params()))).append(")\n")
+                .append("                .build();\n\n")
+                .append("        private final ").append(serviceName).append(" service;\n\n")
+                .append("        private ").append(name).append("(").append(serviceName).append(" service) {\n")
+                .append("            this.service = service;\n        }\n\n")
+                .append("        @Override\n        public ToolDefinition getToolDefinition() {\n            return DEFINITION;\n        }\n\n")
+                .append("        @Override\n        public String call(String toolInput) {\n")
+                .append("            JsonNode input = parse(DEFINITION, toolInput);\n")
+                .append("            try {\n");
+        StringBuilder arguments = new StringBuilder();
+        for (ParamModel param : tool.params()) {
+            String binding = param.type().binder + "(input, " + javaString(param.name()) + ")";
+            if (param.type().primitive) {
+                binding = "present(" + binding + ", " + javaString(param.name()) + ")";
+            }
+            arguments.append(arguments.isEmpty() ? "" : ", ").append(binding);
+        }
+        if (tool.returnClass().equals("void")) {
+            out.append("                service.").append(tool.methodName()).append("(").append(arguments).append(");\n")
+                    .append("                return RESULT_CONVERTER.convert(null, void.class);\n");
+        } else {
+            out.append("                return RESULT_CONVERTER.convert(service.").append(tool.methodName())
+                    .append("(").append(arguments).append("), ").append(tool.returnClass()).append(".class);\n");
+        }
+        out.append("            } catch (RuntimeException e) {\n")
+                .append("                throw new ToolExecutionException(DEFINITION, e);\n")
+                .append("            }\n        }\n    }\n");
+    }
+
+    private static void writeHelpers(StringBuilder out) {
+        out.append("""
+
+                    private static JsonNode parse(ToolDefinition definition, String toolInput) {
+                        try {
+                            JsonNode input = OBJECT_MAPPER.readTree(toolInput == null || toolInput.isEmpty() ? "{}" : toolInput);
+                            return input == null ? OBJECT_MAPPER.createObjectNode() : input;
+                        } catch (JsonProcessingException e) {
+                            throw new ToolExecutionException(definition, e);
+                        }
+                    }
+
+                    private static String text(JsonNode input, String name) {
+                        JsonNode value = input.get(name);
+                        if (value == null || value.isNull()) {
+                            return null;
+                        }
+                        return value.isTextual() ? value.textValue() : value.toString();
+                    }
+
+                    private static Integer integer(JsonNode input, String name) {
+                        JsonNode value = input.get(name);
+                        if (value == null || value.isNull()) {
+                            return null;
+                        }
+                        if (value.isIntegralNumber() && value.canConvertToInt()) {
+                            return value.intValue();
+                        }
+                        if (value.isTextual()) {
+                            try {
+                                return Integer.valueOf(value.textValue().trim());
+                            } catch (NumberFormatException e) {
+                                // Reported below
+                            }
+                        }
+                        throw new IllegalArgumentException(name + " must be an integer, got " + value);
+                    }
+
+                    private static Long longValue(JsonNode input, String name) {
+                        JsonNode value = input.get(name);
+                        if (value == null || value.isNull()) {
+                            return null;
+                        }
+                        if (value.isIntegralNumber() && value.canConvertToLong()) {
+                            return value.longValue();
+                        }
+                        if (value.isTextual()) {
+                            try {
+                                return Long.valueOf(value.textValue().trim());
+                            } catch (NumberFormatException e) {
+                                // Reported below
+                            }
+                        }
+                        throw new IllegalArgumentException(name + " must be an integer, got " + value);
+                    }
+
+                    private static Boolean bool(JsonNode input, String name) {
+                        JsonNode value = input.get(name);
+                        if (value == null || value.isNull()) {
+                            return null;
+                        }
+                        if (value.isBoolean()) {
+                            return value.booleanValue();
+                        }
+                        String text = value.isTextual() ? value.textValue().trim() : "";
+                        if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+                            return Boolean.valueOf(text);
+                        }
+                        throw new IllegalArgumentException(name + " must be true or false, got " + value);
+                    }
+
+                    private static Double number(JsonNode input, String name) {
+                        JsonNode value = input.get(name);
+                        if (value == null || value.isNull()) {
+                            return null;
+                        }
+                        if (value.isNumber()) {
+                            return value.doubleValue();
+                        }
+                        if (value.isTextual()) {
+                            try {
+                                double parsed = Double.parseDouble(value.textValue().trim());
+                                if (Double.isFinite(parsed)) {
+                                    return parsed;
+                                }
+                            } catch (NumberFormatException e) {
+                                // Reported below
+                            }
+                        }
+                        throw new IllegalArgumentException(name + " must be a number, got " + value);
+                    }
+
+                    private static <T> T present(T value, String name) {
+                        if (value == null) {
+                            throw new IllegalArgumentException(name + " is required");
+                        }
+                        return value;
+                    }
+                """);
+    }
+
+    /**
+     * Class names of the callbacks, from the method names; overloads get a number from their second occurrence on.
+     */
+    static List<String> callbackNames(List<ToolModel> tools) {
+        Set<String> used = new HashSet<>();
+        List<String> names = new ArrayList<>();
+        for (ToolModel tool : tools) {
+            String method = tool.methodName();
+            String base = Character.toUpperCase(method.charAt(0)) + method.substring(1);
+            String name = base + "Tool";
+            for (int n = 2; !used.add(name); n++) {
+                name = base + n + "Tool";
+            }
+            names.add(name);
+        }
+        return names;
+    }
+}
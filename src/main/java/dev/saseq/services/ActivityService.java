@@ -0,0 +1,101 @@
+package dev.saseq.services;
+
+import dev.saseq.analytics.ActivityStats;
+import dev.saseq.gateway.DiscordGateway;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Activity statistics answered from the {@link ActivityStats} sketches, without reading message history.
+ */
+@Service
+public class ActivityService {
+
+    private static final int DEFAULT_HOURS = 24;
+    private static final int DEFAULT_TOP = 10;
+    private static final int MAX_TOP = 50;
+
+    private final DiscordGateway gateway;
+    private final ActivityStats activityStats;
+
+    @Value("${DISCORD_GUILD_ID:}")
+    private String defaultGuildId;
+
+    public ActivityService(DiscordGateway gateway, ActivityStats activityStats) {
+        this.gateway = gateway;
+        this.activityStats = activityStats;
+    }
+
+    private String resolveGuildId(String guildId) {
+        if ((guildId == null || guildId.isEmpty()) && defaultGuildId != null && !defaultGuildId.isEmpty()) {
+            return defaultGuildId;
+        }
+        return guildId;
+    }
+
+    /**
+     * Returns message activity of a server or channel recorded from gateway events.
+     *
+     * @param guildId   Optional ID of the Discord server (guild). If not provided, the default server will be used.
+     * @param channelId Optional ID of a channel to restrict the statistics to.
+     * @param hours     Optional window in hours (default 24, at most 168).
+     * @param top       Optional number of busiest channels and most active users to list (default 10).
+     * @return Message count, estimated unique authors, busiest channels, most active users and messages per hour.
+     * The author statistics cover whole UTC days, from midnight UTC of the first day the window reaches into.
+     */
+    @Tool(name = "get_activity_stats", description = "Get message activity of a server or channel for the last hours: message count, unique authors, busiest channels, most active users and messages per hour. Answered from local statistics without reading history. Unique authors and most active users are counted per UTC day, so they cover whole days: the current day since midnight UTC plus the earlier days the window reaches into, even for hours=1")
+    public String getActivityStats(@ToolParam(description = "Discord server ID", required = false) String guildId,
+                                   @ToolParam(description = "Discord channel ID", required = false) String channelId,
+                                   @ToolParam(description = "Window in hours (default 24, max 168)", required = false) String hours,
+                                   @ToolParam(description = "Number of busiest channels and most active users (default 10)", required = false) String top) {
+        guildId = resolveGuildId(guildId);
+        if (guildId == null || guildId.isEmpty()) {
+            throw new IllegalArgumentException("guildId cannot be null");
+        }
+        Guild guild = gateway.getGuildById(guildId);
+        if (guild == null) {
+            throw new IllegalArgumentException("Discord server not found by guildId");
+        }
+        Long channel = channelId == null || channelId.isEmpty() ? null : Long.parseLong(channelId);
+        int window = hours == null || hours.isEmpty() ? DEFAULT_HOURS : Integer.parseInt(hours);
+        int limit = top == null || top.isEmpty() ? DEFAULT_TOP : Integer.parseInt(top);
+        if (limit <= 0 || limit > MAX_TOP) {
+            throw new IllegalArgumentException("top must be between 1 and " + MAX_TOP);
+        }
+
+        ActivityStats.Report report = activityStats.report(guild.getIdLong(), channel, window, limit);
+        StringBuilder result = new StringBuilder("Activity in ")
+                .append(channel != null ? "channel <#" + channel + ">" : "server **" + guild.getName() + "**")
+                .append(" over the last ").append(report.hours()).append(" hours (recorded since ")
+                .append(Instant.ofEpochMilli(report.recordingSince())).append("):\n")
+                .append(" - Messages: ").append(report.messages()).append('\n')
+                .append(" - Unique authors (since ").append(Instant.ofEpochMilli(report.authorsSince()))
+                .append("): ~").append(report.uniqueAuthors()).append('\n');
+        if (channel == null && !report.busiest().isEmpty()) {
+            result.append("Busiest channels:\n");
+            for (ActivityStats.Count count : report.busiest()) {
+                GuildChannel guildChannel = guild.getGuildChannelById(count.id());
+                result.append(" - ").append(guildChannel != null ? "#" + guildChannel.getName() : "deleted channel")
+                        .append(" (ID: ").append(count.id()).append("): ").append(count.count()).append(" messages\n");
+            }
+        }
+        if (!report.topAuthors().isEmpty()) {
+            result.append("Most active users (since ").append(Instant.ofEpochMilli(report.authorsSince()))
+                    .append(", estimates never below the real count):\n");
+            for (ActivityStats.Count count : report.topAuthors()) {
+                result.append(" - <@").append(count.id()).append(">: ~").append(count.count()).append(" messages\n");
+            }
+        }
+        result.append("Messages per hour, oldest first: ")
+                .append(Arrays.stream(report.hourly()).mapToObj(Integer::toString).collect(Collectors.joining(", ")));
+        return result.toString();
+    }
+}
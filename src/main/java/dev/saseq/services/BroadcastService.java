@@ -0,0 +1,319 @@
+package dev.saseq.services;
+
+import dev.saseq.caches.PrivateChannelCache;
+import dev.saseq.gateway.DiscordGateway;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Fan-out delivery of one message to many channels or users.
+ * All sends are submitted at once so JDA's requester can schedule them across
+ * Discord's per-route rate-limit buckets instead of one blocking call per target.
+ */
+@Service
+public class BroadcastService {
+
+    private static final int MAX_TARGETS = 1000;
+    private static final int MAX_TRACKED_BROADCASTS = 100;
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(60);
+    // A send still unanswered after this long is assumed lost (e.g. dropped during a reconnect) and is retried.
+    private static final long STALE_PENDING_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final DiscordGateway gateway;
+    private final PrivateChannelCache privateChannelCache;
+    private final LongSupplier nanoClock;
+    private final Duration deliveryTimeout;
+    private final Map<String, Broadcast> broadcasts = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Broadcast> eldest) {
+                    return size() > MAX_TRACKED_BROADCASTS;
+                }
+            });
+
+    @Autowired
+    public BroadcastService(DiscordGateway gateway, PrivateChannelCache privateChannelCache) {
+        this(gateway, privateChannelCache, System::nanoTime, DELIVERY_TIMEOUT);
+    }
+
+    BroadcastService(DiscordGateway gateway, PrivateChannelCache privateChannelCache,
+                     LongSupplier nanoClock, Duration deliveryTimeout) {
+        this.gateway = gateway;
+        this.privateChannelCache = privateChannelCache;
+        this.nanoClock = nanoClock;
+        this.deliveryTimeout = deliveryTimeout;
+    }
+
+    /**
+     * Sends the same message to many Discord channels concurrently.
+     *
+     * @param channelIds Comma-separated list of channel IDs.
+     * @param message    The content of the message to be sent.
+     * @return A per-channel delivery report including the broadcast ID used for resuming.
+     */
+    @Tool(name = "broadcast_message", description = "Send the same message to many channels at once and return a per-channel delivery report")
+    public String broadcastMessage(@ToolParam(description = "Comma-separated Discord channel IDs") String channelIds,
+                                   @ToolParam(description = "Message content") String message) {
+        return startBroadcast(TargetType.CHANNEL, channelIds, message);
+    }
+
+    /**
+     * Sends the same private message to many Discord users concurrently.
+     *
+     * @param userIds Comma-separated list of user IDs.
+     * @param message The content of the private message.
+     * @return A per-user delivery report including the broadcast ID used for resuming.
+     */
+    @Tool(name = "broadcast_private_message", description = "Send the same private message to many users at once and return a per-user delivery report")
+    public String broadcastPrivateMessage(@ToolParam(description = "Comma-separated Discord user IDs") String userIds,
+                                          @ToolParam(description = "Message content") String message) {
+        return startBroadcast(TargetType.USER, userIds, message);
+    }
+
+    /**
+     * Retries every target of a previous broadcast that failed, or whose send has been
+     * pending for so long that it is assumed lost.
+     *
+     * @param broadcastId The ID returned by broadcast_message or broadcast_private_message.
+     * @return The updated delivery report for the whole broadcast.
+     */
+    @Tool(name = "resume_broadcast", description = "Retry the failed targets of a previous broadcast, and targets whose send has been pending for more than 5 minutes")
+    public String resumeBroadcast(@ToolParam(description = "Broadcast ID") String broadcastId) {
+        if (broadcastId == null || broadcastId.isEmpty()) {
+            throw new IllegalArgumentException("broadcastId cannot be null");
+        }
+        Broadcast broadcast = broadcasts.get(broadcastId);
+        if (broadcast == null) {
+            throw new IllegalArgumentException("Broadcast not found by broadcastId");
+        }
+        if (!broadcast.lock.tryLock()) {
+            throw new IllegalStateException("Broadcast " + broadcastId + " is already being delivered, resume it once that finishes");
+        }
+        try {
+            List<String> retryTargets = broadcast.retryableTargets(nanoClock.getAsLong() - STALE_PENDING_NANOS);
+            if (!retryTargets.isEmpty()) {
+                deliver(broadcast, retryTargets);
+            }
+            return broadcast.report();
+        } finally {
+            broadcast.lock.unlock();
+        }
+    }
+
+    private String startBroadcast(TargetType type, String targetIds, String message) {
+        if (targetIds == null || targetIds.isEmpty()) {
+            throw new IllegalArgumentException(type.paramName + " cannot be null");
+        }
+        if (message == null || message.isEmpty()) {
+            throw new IllegalArgumentException("message cannot be null");
+        }
+        List<String> targets = parseTargets(targetIds);
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException(type.paramName + " cannot be empty");
+        }
+        if (targets.size() > MAX_TARGETS) {
+            throw new IllegalArgumentException("Too many targets, the limit is " + MAX_TARGETS);
+        }
+
+        Broadcast broadcast = new Broadcast(UUID.randomUUID().toString().substring(0, 8), type, message, targets);
+        broadcast.lock.lock();
+        try {
+            broadcasts.put(broadcast.id, broadcast);
+            deliver(broadcast, targets);
+            return broadcast.report();
+        } finally {
+            broadcast.lock.unlock();
+        }
+    }
+
+    private void deliver(Broadcast broadcast, List<String> targets) {
+        List<CompletableFuture<Message>> futures = new ArrayList<>(targets.size());
+        for (String target : targets) {
+            Delivery pending = broadcast.start(target, nanoClock.getAsLong());
+            CompletableFuture<Message> future = submit(broadcast.type, target, broadcast.message);
+            pending.future = future;
+            futures.add(future.whenComplete((sent, error) -> {
+                if (error == null) {
+                    broadcast.complete(target, pending, DeliveryStatus.SENT, sent.getJumpUrl());
+                } else {
+                    broadcast.complete(target, pending, DeliveryStatus.FAILED, describe(error));
+                }
+            }));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(deliveryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Individual outcomes are recorded per target; targets still in flight stay PENDING.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    CompletableFuture<Message> submit(TargetType type, String target, String message) {
+        try {
+            if (type == TargetType.CHANNEL) {
+                TextChannel textChannel = gateway.getTextChannelById(target);
+                if (textChannel == null) {
+                    return CompletableFuture.failedFuture(new IllegalArgumentException("Channel not found by channelId"));
+                }
+                return textChannel.sendMessage(message).submit();
+            }
+            PrivateChannel cached = privateChannelCache.get(target, gateway::getPrivateChannelById);
+            if (cached != null) {
+                return cached.sendMessage(message).submit();
+            }
+            return gateway.openPrivateChannelById(target)
+                    .flatMap(privateChannel -> {
+                        privateChannelCache.put(target, privateChannel);
+                        return privateChannel.sendMessage(message);
+                    })
+                    .submit();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static List<String> parseTargets(String targetIds) {
+        Set<String> targets = new LinkedHashSet<>();
+        for (String id : targetIds.split("[,\\s]+")) {
+            if (!id.isEmpty()) {
+                targets.add(id);
+            }
+        }
+        return new ArrayList<>(targets);
+    }
+
+    enum TargetType {
+        CHANNEL("channelIds"),
+        USER("userIds");
+
+        private final String paramName;
+
+        TargetType(String paramName) {
+            this.paramName = paramName;
+        }
+    }
+
+    private enum DeliveryStatus {
+        PENDING, SENT, FAILED
+    }
+
+    private static final class Delivery {
+        private final DeliveryStatus status;
+        private final String detail;
+        private final long startedAt;
+        private volatile CompletableFuture<Message> future;
+
+        private Delivery(DeliveryStatus status, String detail, long startedAt) {
+            this.status = status;
+            this.detail = detail;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static final class Broadcast {
+        private final String id;
+        private final TargetType type;
+        private final String message;
+        private final List<String> targets;
+        private final Map<String, Delivery> deliveries = new ConcurrentHashMap<>();
+        // Held while sends are being submitted and awaited, so two resumes never send to a target twice.
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Broadcast(String id, TargetType type, String message, List<String> targets) {
+            this.id = id;
+            this.type = type;
+            this.message = message;
+            this.targets = targets;
+        }
+
+        private Delivery start(String target, long now) {
+            Delivery previous = deliveries.get(target);
+            if (previous != null && previous.future != null) {
+                // A stale send being replaced is cancelled so it cannot still go out later
+                previous.future.cancel(false);
+            }
+            Delivery pending = new Delivery(DeliveryStatus.PENDING, null, now);
+            deliveries.put(target, pending);
+            return pending;
+        }
+
+        /**
+         * Records the outcome of an attempt, unless a newer attempt has replaced it meanwhile.
+         */
+        private void complete(String target, Delivery attempt, DeliveryStatus status, String detail) {
+            deliveries.replace(target, attempt, new Delivery(status, detail, attempt.startedAt));
+        }
+
+        private List<String> retryableTargets(long staleBefore) {
+            return targets.stream()
+                    .filter(target -> {
+                        Delivery delivery = deliveries.get(target);
+                        return delivery.status == DeliveryStatus.FAILED
+                                || (delivery.status == DeliveryStatus.PENDING && delivery.startedAt - staleBefore < 0);
+                    })
+                    .toList();
+        }
+
+        private String report() {
+            int sent = 0;
+            int failed = 0;
+            int pending = 0;
+            StringBuilder lines = new StringBuilder();
+            for (String target : targets) {
+                Delivery delivery = deliveries.get(target);
+                switch (delivery.status) {
+                    case SENT -> sent++;
+                    case FAILED -> failed++;
+                    case PENDING -> pending++;
+                }
+                lines.append("\n- ").append(target).append(": ").append(delivery.status);
+                if (delivery.detail != null) {
+                    lines.append(' ').append(delivery.detail);
+                }
+            }
+            StringBuilder report = new StringBuilder()
+                    .append("Broadcast ").append(id).append(": ")
+                    .append(sent).append('/').append(targets.size()).append(" delivered, ")
+                    .append(failed).append(" failed, ")
+                    .append(pending).append(" pending")
+                    .append(lines);
+            if (failed > 0) {
+                report.append("\nRetry the failed targets with resume_broadcast (broadcastId: ").append(id).append(")");
+            } else if (pending > 0) {
+                report.append("\nPending targets still unanswered after 5 minutes can be retried with resume_broadcast (broadcastId: ")
+                        .append(id).append(")");
+            }
+            return report.toString();
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package dev.saseq.services;
 
-import net.dv8tion.jda.api.JDA;
+import dev.saseq.formatters.OutputFormat;
+import dev.saseq.formatters.RecordSchemas;
+import dev.saseq.formatters.ResultBudget;
+import dev.saseq.formatters.ResultWindow;
+import dev.saseq.formatters.ToolResultRenderer;
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.indexes.ChannelNameIndex;
+import dev.saseq.indexes.ChannelNames;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.concrete.Category;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
@@ -9,19 +16,29 @@ import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
 
-    private final JDA jda;
+    private static final int MAX_NAME_SUGGESTIONS = 5;
+    // Fuzzy matches also include channels, so look further to find enough categories
+    private static final int MAX_FUZZY_CANDIDATES = 50;
+
+    private final DiscordGateway gateway;
+    private final ResultBudget resultBudget;
+    private final ChannelNameIndex channelNameIndex;
 
     @Value("${DISCORD_GUILD_ID:}")
     private String defaultGuildId;
 
-    public CategoryService(JDA jda) {
-        this.jda = jda;
+    public CategoryService(DiscordGateway gateway, ResultBudget resultBudget, ChannelNameIndex channelNameIndex) {
+        this.gateway = gateway;
+        this.resultBudget = resultBudget;
+        this.channelNameIndex = channelNameIndex;
     }
 
     private String resolveGuildId(String guildId) {
@@ -49,7 +66,7 @@ public class CategoryService {
             throw new IllegalArgumentException("name cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
@@ -75,7 +92,7 @@ public class CategoryService {
             throw new IllegalArgumentException("categoryId cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
@@ -89,12 +106,13 @@ public class CategoryService {
 
     /**
      * Finds a channel category by its name within a specified Discord server and returns its ID.
+     * Without an exact match the error lists the closest category names.
      *
      * @param guildId      Optional ID of the Discord server (guild). If not provided, the default server will be used.
      * @param categoryName The name of the category to find.
      * @return A message containing the name and ID of the found category.
      */
-    @Tool(name = "find_category", description = "Find a category ID using name and server ID")
+    @Tool(name = "find_category", description = "Find a category ID using name and server ID. Suggests the closest matches for misspelled names.")
     public String findCategory(@ToolParam(description = "Discord server ID", required = false) String guildId,
                                @ToolParam(description = "Discord category name") String categoryName) {
         guildId = resolveGuildId(guildId);
@@ -105,13 +123,20 @@ public class CategoryService {
             throw new IllegalArgumentException("categoryName cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
-        List<Category> categories = guild.getCategoriesByName(categoryName, true);
+        ChannelNames names = channelNameIndex.get(guild.getIdLong());
+        List<Category> categories = names != null
+                ? resolveCategories(guild, names.exact(categoryName))
+                : guild.getCategoriesByName(categoryName, true);
         if (categories.isEmpty()) {
-            throw new IllegalArgumentException("Category " + categoryName + " not found");
+            String suggestions = names == null ? "" : suggestCategories(guild, names, categoryName);
+            if (suggestions.isEmpty()) {
+                throw new IllegalArgumentException("Category " + categoryName + " not found");
+            }
+            throw new IllegalArgumentException("Category " + categoryName + " not found. Closest matches:\n" + suggestions);
         }
         if (categories.size() > 1) {
             String channelList = categories.stream()
@@ -124,16 +149,42 @@ public class CategoryService {
         return "Retrieved category: " + category.getName() + ", with ID: " + category.getId();
     }
 
+    private static List<Category> resolveCategories(Guild guild, long[] channelIds) {
+        List<Category> categories = new ArrayList<>(channelIds.length);
+        for (long channelId : channelIds) {
+            Category category = guild.getCategoryById(channelId);
+            if (category != null) {
+                categories.add(category);
+            }
+        }
+        return categories;
+    }
+
+    private static String suggestCategories(Guild guild, ChannelNames names, String categoryName) {
+        return names.search(categoryName, MAX_FUZZY_CANDIDATES).stream()
+                .map(match -> guild.getCategoryById(match.id()))
+                .filter(Objects::nonNull)
+                .limit(MAX_NAME_SUGGESTIONS)
+                .map(category -> "- " + category.getName() + " (ID: " + category.getId() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+
     /**
      * Lists all channels within a specified category in a Discord server.
      *
      * @param guildId    Optional ID of the Discord server (guild). If not provided, the default server will be used.
      * @param categoryId The ID of the category from which to list channels.
+     * @param format     Optional output format: markdown (default), tsv or jsonl.
+     * @param fields     Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor     Optional continuation cursor from a previous truncated response.
      * @return A formatted string listing the channels in the category, including their type, name, and ID.
      */
     @Tool(name = "list_channels_in_category", description = "List of channels in a specific category")
     public String listChannelsInCategory(@ToolParam(description = "Discord server ID", required = false) String guildId,
-                                         @ToolParam(description = "Discord category ID") String categoryId) {
+                                         @ToolParam(description = "Discord category ID") String categoryId,
+                                         @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                                         @ToolParam(description = RecordSchemas.CHANNEL_FIELDS_DESCRIPTION, required = false) String fields,
+                                         @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
         guildId = resolveGuildId(guildId);
         if (guildId == null || guildId.isEmpty()) {
             throw new IllegalArgumentException("guildId cannot be null");
@@ -142,7 +193,7 @@ public class CategoryService {
             throw new IllegalArgumentException("categoryId cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
@@ -154,9 +205,8 @@ public class CategoryService {
         if (channels.isEmpty()) {
             throw new IllegalArgumentException("Category not contains any channels");
         }
-        return "Retrieved " + channels.size() + " channels:\n" +
-                channels.stream()
-                        .map(c -> "- " + c.getType().name() + " channel: " + c.getName() + " (ID: " + c.getId() + ")")
-                        .collect(Collectors.joining("\n"));
+        ResultWindow window = resultBudget.window("list_channels_in_category:" + categoryId, cursor);
+        return ToolResultRenderer.render("Retrieved " + channels.size() + " channels:\n",
+                channels, RecordSchemas.CHANNELS, OutputFormat.parse(format), fields, window);
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package dev.saseq.services;
+
+import dev.saseq.changes.Change;
+import dev.saseq.changes.ChangeJournal;
+import dev.saseq.formatters.OutputFormat;
+import dev.saseq.formatters.RecordSchemas;
+import dev.saseq.formatters.ToolResultRenderer;
+import dev.saseq.gateway.DiscordGateway;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Change feed over the {@link ChangeJournal}, so agents watching a server can poll for deltas
+ * instead of re-reading channels and diffing the results.
+ */
+@Service
+public class ChangeService {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    private final DiscordGateway gateway;
+    private final ChangeJournal journal;
+
+    @Value("${DISCORD_GUILD_ID:}")
+    private String defaultGuildId;
+
+    public ChangeService(DiscordGateway gateway, ChangeJournal journal) {
+        this.gateway = gateway;
+        this.journal = journal;
+    }
+
+    private String resolveGuildId(String guildId) {
+        if ((guildId == null || guildId.isEmpty()) && defaultGuildId != null && !defaultGuildId.isEmpty()) {
+            return defaultGuildId;
+        }
+        return guildId;
+    }
+
+    /**
+     * Returns the changes recorded after a cursor: messages, member joins and leaves, channel changes and reactions.
+     *
+     * @param guildId Optional ID of the Discord server (guild). If not provided, the default server is used, or all servers if there is none.
+     * @param cursor  Optional cursor from a previous call; without it the feed starts at the oldest retained change.
+     * @param types   Optional comma-separated change types to return.
+     * @param limit   Optional maximum number of changes to return (default 50, at most 500).
+     * @param format  Optional output format: markdown (default), tsv or jsonl.
+     * @param fields  Optional comma-separated fields to include in tsv/jsonl output.
+     * @return The changes oldest first, followed by the cursor for the next call and an overflow marker if changes were missed.
+     */
+    @Tool(name = "get_changes_since", description = "Get server changes (messages, member joins/leaves, channel changes, reactions) recorded after a cursor. Poll with the returned cursor to receive only new changes")
+    public String getChangesSince(@ToolParam(description = "Discord server ID", required = false) String guildId,
+                                  @ToolParam(description = "Cursor returned by the previous call; omit to start at the oldest retained change", required = false) String cursor,
+                                  @ToolParam(description = "Comma-separated change types: message_create, message_update, message_delete, member_join, member_leave, channel_create, channel_update, channel_delete, reaction_add, reaction_remove", required = false) String types,
+                                  @ToolParam(description = "Maximum number of changes to return (default 50, max 500)", required = false) String limit,
+                                  @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                                  @ToolParam(description = RecordSchemas.CHANGE_FIELDS_DESCRIPTION, required = false) String fields) {
+        guildId = resolveGuildId(guildId);
+        Long guild = null;
+        if (guildId != null && !guildId.isEmpty()) {
+            if (gateway.getGuildById(guildId) == null) {
+                throw new IllegalArgumentException("Discord server not found by guildId");
+            }
+            guild = Long.parseLong(guildId);
+        }
+        int maxChanges = limit == null || limit.isEmpty() ? DEFAULT_LIMIT : Integer.parseInt(limit);
+        if (maxChanges <= 0 || maxChanges > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        ChangeJournal.Page page = journal.since(cursor, guild, parseTypes(types), maxChanges);
+        StringBuilder result = new StringBuilder(ToolResultRenderer.render(
+                "Retrieved " + page.changes().size() + " changes:\n",
+                page.changes(), RecordSchemas.CHANGES, OutputFormat.parse(format), fields));
+        if (page.overflow()) {
+            result.append("\n[overflow: changes after the given cursor were dropped, only the latest ")
+                    .append(journal.getCapacity())
+                    .append(" are retained; re-read the current state before relying on this feed]");
+        }
+        result.append(page.more() ? "\n[more changes available; continue with cursor=" : "\n[up to date; poll again with cursor=")
+                .append(page.cursor())
+                .append(']');
+        return result.toString();
+    }
+
+    private static Set<String> parseTypes(String types) {
+        if (types == null || types.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String type : types.split(",")) {
+            String trimmed = type.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!Change.TYPES.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown change type " + trimmed + ". Available types: " + String.join(", ", Change.TYPES));
+            }
+            selected.add(trimmed);
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+}
@@ -1,6 +1,13 @@
 package dev.saseq.services;
 
-import net.dv8tion.jda.api.JDA;
+import dev.saseq.formatters.OutputFormat;
+import dev.saseq.formatters.RecordSchemas;
+import dev.saseq.formatters.ResultBudget;
+import dev.saseq.formatters.ResultWindow;
+import dev.saseq.formatters.ToolResultRenderer;
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.indexes.ChannelNameIndex;
+import dev.saseq.indexes.ChannelNames;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.concrete.Category;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
@@ -10,19 +17,27 @@ import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class ChannelService {
 
-    private final JDA jda;
+    private static final int MAX_NAME_SUGGESTIONS = 5;
+
+    private final DiscordGateway gateway;
+    private final ResultBudget resultBudget;
+    private final ChannelNameIndex channelNameIndex;
 
     @Value("${DISCORD_GUILD_ID:}")
     private String defaultGuildId;
 
-    public ChannelService(JDA jda) {
-        this.jda = jda;
+    public ChannelService(DiscordGateway gateway, ResultBudget resultBudget, ChannelNameIndex channelNameIndex) {
+        this.gateway = gateway;
+        this.resultBudget = resultBudget;
+        this.channelNameIndex = channelNameIndex;
     }
 
     private String resolveGuildId(String guildId) {
@@ -50,7 +65,7 @@ public class ChannelService {
             throw new IllegalArgumentException("channelId cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
@@ -82,7 +97,7 @@ public class ChannelService {
             throw new IllegalArgumentException("name cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
@@ -103,14 +118,21 @@ public class ChannelService {
 
     /**
      * Finds a channel by its name within a specified Discord server and returns its type and ID.
+     * Without an exact match the error lists the closest channel names.
      *
      * @param guildId     Optional ID of the Discord server (guild). If not provided, the default server will be used.
      * @param channelName The name of the channel to find.
+     * @param format      Optional output format for multiple matches: markdown (default), tsv or jsonl.
+     * @param fields      Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor      Optional continuation cursor from a previous truncated response.
      * @return A message containing the type, name, and ID of the found channel. If multiple channels are found, it returns a list of them.
      */
-    @Tool(name = "find_channel", description = "Find a channel type and ID using name and server ID")
+    @Tool(name = "find_channel", description = "Find a channel type and ID using name and server ID. Suggests the closest matches for misspelled names.")
     public String findChannel(@ToolParam(description = "Discord server ID", required = false) String guildId,
-                              @ToolParam(description = "Discord category name") String channelName) {
+                              @ToolParam(description = "Discord category name") String channelName,
+                              @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                              @ToolParam(description = RecordSchemas.CHANNEL_FIELDS_DESCRIPTION, required = false) String fields,
+                              @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
         guildId = resolveGuildId(guildId);
         if (guildId == null || guildId.isEmpty()) {
             throw new IllegalArgumentException("guildId cannot be null");
@@ -119,42 +141,80 @@ public class ChannelService {
             throw new IllegalArgumentException("channelName cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
-        List<GuildChannel> channels = guild.getChannels();
-        if (channels.isEmpty()) {
-            throw new IllegalArgumentException("No channels found by guildId");
+        ChannelNames names = channelNameIndex.get(guild.getIdLong());
+        List<GuildChannel> filteredChannels;
+        if (names != null) {
+            if (names.size() == 0) {
+                throw new IllegalArgumentException("No channels found by guildId");
+            }
+            filteredChannels = resolveChannels(guild, names.exact(channelName));
+        } else {
+            // Guild not indexed yet, e.g. while the gateway is still loading it
+            List<GuildChannel> channels = guild.getChannels();
+            if (channels.isEmpty()) {
+                throw new IllegalArgumentException("No channels found by guildId");
+            }
+            filteredChannels = channels.stream().filter(c -> c.getName().equalsIgnoreCase(channelName)).toList();
         }
-        List<GuildChannel> filteredChannels = channels.stream().filter(c -> c.getName().equalsIgnoreCase(channelName)).toList();
         if (filteredChannels.isEmpty()) {
-            throw new IllegalArgumentException("No channels found with name " + channelName);
+            String suggestions = names == null ? "" : suggestChannels(guild, names, channelName);
+            if (suggestions.isEmpty()) {
+                throw new IllegalArgumentException("No channels found with name " + channelName);
+            }
+            throw new IllegalArgumentException("No channels found with name " + channelName + ". Closest matches:\n" + suggestions);
         }
         if (filteredChannels.size() > 1) {
-            return "Retrieved " + channels.size() + " channels:\n" +
-                    channels.stream()
-                            .map(c -> "- " + c.getType().name() + " channel: " + c.getName() + " (ID: " + c.getId() + ")")
-                            .collect(Collectors.joining("\n"));
+            ResultWindow window = resultBudget.window("find_channel:" + guildId + ":" + channelName.toLowerCase(), cursor);
+            return ToolResultRenderer.render("Retrieved " + filteredChannels.size() + " channels named " + channelName + ":\n",
+                    filteredChannels, RecordSchemas.CHANNELS, OutputFormat.parse(format), fields, window);
         }
         GuildChannel channel = filteredChannels.get(0);
         return "Retrieved " + channel.getType().name() + " channel: " + channel.getName() + " (ID: " + channel.getId() + ")";
     }
 
+    private static List<GuildChannel> resolveChannels(Guild guild, long[] channelIds) {
+        List<GuildChannel> channels = new ArrayList<>(channelIds.length);
+        for (long channelId : channelIds) {
+            GuildChannel channel = guild.getGuildChannelById(channelId);
+            if (channel != null) {
+                channels.add(channel);
+            }
+        }
+        return channels;
+    }
+
+    private static String suggestChannels(Guild guild, ChannelNames names, String channelName) {
+        return names.search(channelName, MAX_NAME_SUGGESTIONS).stream()
+                .map(match -> guild.getGuildChannelById(match.id()))
+                .filter(Objects::nonNull)
+                .map(channel -> "- " + channel.getName() + " (" + channel.getType().name() + ", ID: " + channel.getId() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+
     /**
      * Lists all channels in a specified Discord server.
      *
      * @param guildId Optional ID of the Discord server (guild). If not provided, the default server will be used.
+     * @param format  Optional output format: markdown (default), tsv or jsonl.
+     * @param fields  Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor  Optional continuation cursor from a previous truncated response.
      * @return A formatted string listing all channels in the server, including their type, name, and ID.
      */
     @Tool(name = "list_channels", description = "List of all channels")
-    public String listChannels(@ToolParam(description = "Discord server ID", required = false) String guildId) {
+    public String listChannels(@ToolParam(description = "Discord server ID", required = false) String guildId,
+                               @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                               @ToolParam(description = RecordSchemas.CHANNEL_FIELDS_DESCRIPTION, required = false) String fields,
+                               @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
         guildId = resolveGuildId(guildId);
         if (guildId == null || guildId.isEmpty()) {
             throw new IllegalArgumentException("guildId cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
@@ -162,9 +222,8 @@ public class ChannelService {
         if (channels.isEmpty()) {
             throw new IllegalArgumentException("No channels found by guildId");
         }
-        return "Retrieved " + channels.size() + " channels:\n" +
-                channels.stream()
-                        .map(c -> "- " + c.getType().name() + " channel: " + c.getName() + " (ID: " + c.getId() + ")")
-                        .collect(Collectors.joining("\n"));
+        ResultWindow window = resultBudget.window("list_channels:" + guildId, cursor);
+        return ToolResultRenderer.render("Retrieved " + channels.size() + " channels:\n",
+                channels, RecordSchemas.CHANNELS, OutputFormat.parse(format), fields, window);
     }
 }
\ No newline at end of file
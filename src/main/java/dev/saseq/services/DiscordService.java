@@ -1,23 +1,68 @@
 package dev.saseq.services;
 
+import dev.saseq.caches.GuildOwnerCache;
+import dev.saseq.caches.GuildSnapshotCache;
+import dev.saseq.formatters.OutputFormat;
+import dev.saseq.formatters.RecordSchemas;
+import dev.saseq.formatters.ResultBudget;
+import dev.saseq.formatters.ResultWindow;
+import dev.saseq.formatters.ServerSummary;
+import dev.saseq.formatters.ToolResultRenderer;
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.gateway.ShardMetrics;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.PermissionOverride;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.attribute.IAgeRestrictedChannel;
+import net.dv8tion.jda.api.entities.channel.attribute.ICategorizableChannel;
+import net.dv8tion.jda.api.entities.channel.attribute.IPermissionContainer;
+import net.dv8tion.jda.api.entities.channel.attribute.ISlowmodeChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.LongStream;
+
 @Service
 public class DiscordService {
 
-    private final JDA jda;
+    private static final int MAX_TOPIC_CHARS = 100;
+    private static final long OWNER_LOOKUP_TIMEOUT_SECONDS = 10;
+    private static final long REST_PING_TIMEOUT_SECONDS = 5;
+
+    private final DiscordGateway gateway;
+    private final ShardMetrics shardMetrics;
+    private final GuildSnapshotCache snapshotCache;
+    private final GuildOwnerCache ownerCache;
+    private final ResultBudget resultBudget;
 
     @Value("${DISCORD_GUILD_ID:}")
     private String defaultGuildId;
 
-    public DiscordService(JDA jda) {
-        this.jda = jda;
+    public DiscordService(DiscordGateway gateway, ShardMetrics shardMetrics, GuildSnapshotCache snapshotCache,
+                          GuildOwnerCache ownerCache, ResultBudget resultBudget) {
+        this.gateway = gateway;
+        this.shardMetrics = shardMetrics;
+        this.snapshotCache = snapshotCache;
+        this.ownerCache = ownerCache;
+        this.resultBudget = resultBudget;
     }
 
     private String resolveGuildId(String guildId) {
@@ -40,24 +85,27 @@ public class DiscordService {
             throw new IllegalArgumentException("Discord server ID cannot be null");
         }
 
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
         String serverName = guild.getName();
         String serverId = guild.getId();
-        Member owner = guild.retrieveOwner().complete();
+        String owner = cachedOwnerName(guild);
+        if (owner == null) {
+            owner = ownerName(guild, guild.retrieveOwner().complete());
+        }
         int totalMembers = guild.getMemberCount();
-        int textChannelCount = guild.getTextChannels().size();
-        int voiceChannelCount = guild.getVoiceChannels().size();
-        int categoryCount = guild.getCategories().size();
+        long textChannelCount = guild.getTextChannelCache().size();
+        long voiceChannelCount = guild.getVoiceChannelCache().size();
+        long categoryCount = guild.getCategoryCache().size();
         String creationDate = guild.getTimeCreated().toLocalDate().toString();
         int boostCount = guild.getBoostCount();
         String boostTier = guild.getBoostTier().toString();
 
         return "Server Name: " + serverName + "\n" +
                 "Server ID: " + serverId + "\n" +
-                "Owner: " + owner.getUser().getName() + "\n" +
+                "Owner: " + owner + "\n" +
                 "Created On: " + creationDate + "\n" +
                 "Members: " + totalMembers + "\n" +
                 "Channels: " +
@@ -68,4 +116,237 @@ public class DiscordService {
                 " - Count: " + boostCount + "\n" +
                 " - Tier: " + boostTier;
     }
-}
\ No newline at end of file
+
+    /**
+     * Summarizes every Discord server the bot is in.
+     * Counts come from the gateway caches; owners missing from the owner cache are retrieved concurrently.
+     *
+     * @param format Optional output format: markdown (default), tsv or jsonl.
+     * @param fields Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor Optional continuation cursor from a previous truncated response.
+     * @return One line per server with its ID, name, owner, member count and channel counts.
+     */
+    @Tool(name = "list_servers_summary", description = "List all discord servers of the bot with owner, member and channel counts")
+    public String listServersSummary(@ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                                     @ToolParam(description = RecordSchemas.SERVER_FIELDS_DESCRIPTION, required = false) String fields,
+                                     @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
+        List<Guild> guilds = new ArrayList<>(gateway.getGuildCache().asList());
+        if (guilds.isEmpty()) {
+            throw new IllegalArgumentException("The bot is not in any server");
+        }
+        guilds.sort(Comparator.comparing(Guild::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Guild::getIdLong));
+
+        Map<Long, String> owners = new HashMap<>();
+        Map<Long, CompletableFuture<Member>> lookups = new HashMap<>();
+        for (Guild guild : guilds) {
+            String owner = cachedOwnerName(guild);
+            if (owner != null) {
+                owners.put(guild.getIdLong(), owner);
+            } else {
+                lookups.put(guild.getIdLong(), guild.retrieveOwner().submit());
+            }
+        }
+        boolean complete = awaitOwners(lookups);
+        for (Guild guild : guilds) {
+            CompletableFuture<Member> lookup = lookups.get(guild.getIdLong());
+            if (lookup != null && lookup.isDone() && !lookup.isCompletedExceptionally()) {
+                owners.put(guild.getIdLong(), ownerName(guild, lookup.join()));
+            }
+        }
+
+        List<ServerSummary> summaries = guilds.stream()
+                .map(guild -> new ServerSummary(guild.getId(), guild.getName(), guild.getOwnerId(),
+                        owners.get(guild.getIdLong()), guild.getMemberCount(),
+                        guild.getTextChannelCache().size(), guild.getVoiceChannelCache().size(), guild.getCategoryCache().size(),
+                        guild.getBoostCount(), guild.getBoostTier().toString(),
+                        guild.getTimeCreated().toLocalDate().toString()))
+                .toList();
+        ResultWindow window = resultBudget.window("list_servers_summary", cursor);
+        String title = "**Retrieved " + summaries.size() + " servers:** \n";
+        String result = ToolResultRenderer.render(title, summaries, RecordSchemas.SERVERS, OutputFormat.parse(format), fields, window);
+        return complete ? result : result + "\n[partial: some owners could not be retrieved in time and are shown by ID]";
+    }
+
+    /**
+     * Returns the owner name from the owner cache or the member cache, or null when neither has it.
+     */
+    private String cachedOwnerName(Guild guild) {
+        String cached = ownerCache.get(guild.getIdLong(), guild.getOwnerIdLong());
+        if (cached != null) {
+            return cached;
+        }
+        Member owner = guild.getOwner();
+        return owner != null ? ownerName(guild, owner) : null;
+    }
+
+    private String ownerName(Guild guild, Member owner) {
+        String name = owner.getUser().getName();
+        ownerCache.put(guild.getIdLong(), owner.getIdLong(), name);
+        return name;
+    }
+
+    private static boolean awaitOwners(Map<Long, CompletableFuture<Member>> lookups) {
+        if (lookups.isEmpty()) {
+            return true;
+        }
+        try {
+            CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0]))
+                    .get(OWNER_LOOKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            // Owners that failed or are still in flight are shown by ID
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the whole category and channel tree of a server with key channel metadata.
+     * Sections are cached per category and re-rendered only after a structure event touched them.
+     *
+     * @param guildId Optional ID of the Discord server (guild). If not provided, the default server will be used.
+     * @param cursor  Optional continuation cursor from a previous truncated response.
+     * @return The server summary followed by one section per category, listing its channels in display order.
+     */
+    @Tool(name = "get_guild_snapshot", description = "Get the full category and channel tree of a server (types, IDs, topics, flags) in one call")
+    public String getGuildSnapshot(@ToolParam(description = "Discord server ID", required = false) String guildId,
+                                   @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
+        guildId = resolveGuildId(guildId);
+        if (guildId == null || guildId.isEmpty()) {
+            throw new IllegalArgumentException("Discord server ID cannot be null");
+        }
+
+        Guild guild = gateway.getGuildById(guildId);
+        if (guild == null) {
+            throw new IllegalArgumentException("Discord server not found by guildId");
+        }
+        List<String> sections = snapshotCache.get(guild.getIdLong(),
+                () -> sectionIds(guild), sectionId -> renderSection(guild, sectionId));
+        String title = "Server **" + guild.getName() + "** (ID: " + guild.getId() + "): "
+                + guild.getMemberCount() + " members, "
+                + guild.getChannelCache().size() + " channels including "
+                + guild.getCategoryCache().size() + " categories\n";
+        ResultWindow window = resultBudget.window("get_guild_snapshot:" + guildId, cursor);
+        return ToolResultRenderer.render(title, sections, RecordSchemas.SECTIONS, OutputFormat.MARKDOWN, null, window);
+    }
+
+    /**
+     * Section 0 holds the channels outside any category and is only listed when there are some.
+     */
+    private static long[] sectionIds(Guild guild) {
+        boolean uncategorized = guild.getChannels().stream()
+                .anyMatch(channel -> channel instanceof ICategorizableChannel categorizable
+                        && categorizable.getParentCategoryIdLong() == 0);
+        LongStream categories = guild.getCategories().stream().mapToLong(Category::getIdLong);
+        return uncategorized ? LongStream.concat(LongStream.of(0), categories).toArray() : categories.toArray();
+    }
+
+    private static String renderSection(Guild guild, long sectionId) {
+        StringBuilder section = new StringBuilder();
+        List<GuildChannel> channels;
+        if (sectionId == 0) {
+            section.append("**No category**");
+            channels = guild.getChannels().stream()
+                    .filter(channel -> channel instanceof ICategorizableChannel categorizable
+                            && categorizable.getParentCategoryIdLong() == 0)
+                    .toList();
+        } else {
+            Category category = guild.getCategoryById(sectionId);
+            if (category == null) {
+                return "**Deleted category** (ID: " + sectionId + ")";
+            }
+            section.append("**").append(category.getName()).append("** (ID: ").append(category.getId());
+            if (isPrivate(guild, category)) {
+                section.append(", private");
+            }
+            section.append(')');
+            channels = category.getChannels();
+        }
+        if (channels.isEmpty()) {
+            section.append("\n- (no channels)");
+        }
+        for (GuildChannel channel : channels) {
+            section.append("\n- ").append(channel.getType().name()).append(' ');
+            if (channel.getType() != ChannelType.VOICE && channel.getType() != ChannelType.STAGE) {
+                section.append('#');
+            }
+            section.append(channel.getName()).append(" (ID: ").append(channel.getId());
+            if (channel instanceof IPermissionContainer container && isPrivate(guild, container)) {
+                section.append(", private");
+            }
+            if (channel instanceof IAgeRestrictedChannel ageRestricted && ageRestricted.isNSFW()) {
+                section.append(", nsfw");
+            }
+            if (channel instanceof ISlowmodeChannel slowmode && slowmode.getSlowmode() > 0) {
+                section.append(", slowmode ").append(slowmode.getSlowmode()).append('s');
+            }
+            if (channel instanceof AudioChannel audio && audio.getUserLimit() > 0) {
+                section.append(", limit ").append(audio.getUserLimit());
+            }
+            section.append(')');
+            if (channel instanceof StandardGuildMessageChannel messageChannel
+                    && messageChannel.getTopic() != null && !messageChannel.getTopic().isBlank()) {
+                String topic = messageChannel.getTopic().replace('\n', ' ');
+                section.append(": ").append(topic.length() > MAX_TOPIC_CHARS
+                        ? topic.substring(0, MAX_TOPIC_CHARS) + "..." : topic);
+            }
+        }
+        return section.toString();
+    }
+
+    /**
+     * Whether {@code @everyone} is denied viewing the channel.
+     */
+    private static boolean isPrivate(Guild guild, IPermissionContainer container) {
+        PermissionOverride everyone = container.getPermissionOverride(guild.getPublicRole());
+        return everyone != null && everyone.getDenied().contains(Permission.VIEW_CHANNEL);
+    }
+
+    /**
+     * Reports the state of every gateway shard run by this process.
+     *
+     * @return One line per shard with its status, guild count, gateway latency and event rates, plus the REST latency.
+     */
+    @Tool(name = "get_shard_metrics", description = "Get per-shard gateway status, latency and event rates")
+    public String getShardMetrics() {
+        long now = System.currentTimeMillis() / 1000;
+        StringBuilder result = new StringBuilder()
+                .append("Shards: ").append(gateway.getShards().size())
+                .append(" running of ").append(gateway.getShardsTotal()).append(" total\n")
+                .append("REST ping: ").append(restPing(gateway.anyShard())).append('\n');
+        for (JDA shard : gateway.getShards()) {
+            int shardId = shard.getShardInfo().getShardId();
+            long lastEvent = shardMetrics.lastEventSecond(shardId);
+            result.append("- Shard ").append(shardId)
+                    .append(": ").append(shard.getStatus())
+                    .append(", guilds: ").append(shard.getGuildCache().size())
+                    .append(", gateway ping: ").append(shard.getGatewayPing()).append(" ms")
+                    .append(", events: ").append(shardMetrics.totalEvents(shardId))
+                    .append(" (").append(shardMetrics.eventsLastMinute(shardId)).append(" in the last minute)")
+                    .append(", last event: ").append(lastEvent == 0 ? "never" : (now - lastEvent) + "s ago")
+                    .append("\n");
+        }
+        return result.toString().stripTrailing();
+    }
+
+    /**
+     * Measures the REST latency without waiting longer than {@link #REST_PING_TIMEOUT_SECONDS}, so a
+     * rate-limited or stalled REST queue does not hold the tool call.
+     */
+    private static String restPing(JDA shard) {
+        CompletableFuture<Long> ping = shard.getRestPing().submit();
+        try {
+            return ping.get(REST_PING_TIMEOUT_SECONDS, TimeUnit.SECONDS) + " ms";
+        } catch (TimeoutException e) {
+            ping.cancel(false);
+            return "no response within " + REST_PING_TIMEOUT_SECONDS + "s";
+        } catch (ExecutionException e) {
+            return "failed (" + e.getCause().getMessage() + ")";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package dev.saseq.services;
+
+import dev.saseq.gateway.DiscordGateway;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams channel history to NDJSON files on disk.
+ * History is fetched one page at a time and each page is written before the next one is
+ * requested, so memory use stays constant regardless of the channel size. A checkpoint file
+ * next to the export records the last committed message and file size, which lets an
+ * interrupted export resume where it stopped.
+ */
+@Service
+public class ExportService {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final DiscordGateway gateway;
+    private final JsonFactory jsonFactory;
+
+    @Value("${DISCORD_EXPORT_DIR:./exports}")
+    private String exportDir;
+
+    @Autowired
+    public ExportService(DiscordGateway gateway) {
+        this.gateway = gateway;
+        this.jsonFactory = new JsonFactory();
+    }
+
+    ExportService(DiscordGateway gateway, String exportDir) {
+        this(gateway);
+        this.exportDir = exportDir;
+    }
+
+    /**
+     * Exports the message history of a channel to a local NDJSON file, newest message first.
+     *
+     * @param channelId   The ID of the channel to export.
+     * @param fileName    Optional file name inside the export directory.
+     * @param compression Optional compression: none (default) or gzip.
+     * @param resume      Optional flag to continue an interrupted export from its checkpoint.
+     * @param maxMessages Optional maximum number of messages to write in this call; the export can be resumed afterwards.
+     * @return The path of the export file and statistics about the run.
+     */
+    @Tool(name = "export_channel_history", description = "Export the full message history of a channel to a local NDJSON file (optionally gzip-compressed)")
+    public String exportChannelHistory(@ToolParam(description = "Discord channel ID") String channelId,
+                                       @ToolParam(description = "File name inside the export directory", required = false) String fileName,
+                                       @ToolParam(description = "Compression: none (default) or gzip", required = false) String compression,
+                                       @ToolParam(description = "Resume an interrupted export (true/false)", required = false) String resume,
+                                       @ToolParam(description = "Maximum number of messages to write in this call", required = false) String maxMessages) {
+        if (channelId == null || channelId.isEmpty()) {
+            throw new IllegalArgumentException("channelId cannot be null");
+        }
+        TextChannel textChannel = gateway.getTextChannelById(channelId);
+        if (textChannel == null) {
+            throw new IllegalArgumentException("Channel not found by channelId");
+        }
+        boolean gzip = parseCompression(compression);
+        long limit = maxMessages == null || maxMessages.isEmpty() ? Long.MAX_VALUE : Long.parseLong(maxMessages);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("maxMessages must be positive");
+        }
+
+        Path target = resolveTarget(fileName != null && !fileName.isEmpty()
+                ? fileName
+                : channelId + (gzip ? ".ndjson.gz" : ".ndjson"));
+        Path checkpointFile = target.resolveSibling(target.getFileName() + ".checkpoint");
+        Checkpoint checkpoint = Boolean.parseBoolean(resume) && Files.exists(checkpointFile)
+                ? Checkpoint.load(checkpointFile)
+                : new Checkpoint(channelId, gzip);
+        if (!checkpoint.channelId.equals(channelId) || checkpoint.gzip != gzip) {
+            throw new IllegalArgumentException("Checkpoint belongs to a different export, use another fileName");
+        }
+        if (checkpoint.complete) {
+            return report(target, checkpoint, 0, 0, "already complete");
+        }
+
+        long started = System.nanoTime();
+        long written = 0;
+        String restarted = "";
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (file.size() < checkpoint.bytes) {
+                // The checkpoint claims bytes the file does not have (lost in a crash or the file was replaced),
+                // appending after it would leave a gap, so the export starts over.
+                checkpoint = new Checkpoint(channelId, gzip);
+                restarted = ", restarted because the file was shorter than its checkpoint";
+            }
+            // Drop anything written after the last checkpoint, e.g. a half-written page.
+            file.truncate(checkpoint.bytes);
+            file.position(checkpoint.bytes);
+            ByteArrayOutputStream page = new ByteArrayOutputStream(64 * 1024);
+            while (written < limit) {
+                int pageSize = (int) Math.min(PAGE_SIZE, limit - written);
+                List<Message> messages = fetchPage(textChannel, checkpoint.lastMessageId, pageSize);
+                if (messages.isEmpty()) {
+                    checkpoint.complete = true;
+                    break;
+                }
+                page.reset();
+                writePage(page, messages, gzip);
+                ByteBuffer buffer = ByteBuffer.wrap(page.toByteArray());
+                while (buffer.hasRemaining()) {
+                    file.write(buffer);
+                }
+                written += messages.size();
+                checkpoint.messages += messages.size();
+                checkpoint.pages++;
+                checkpoint.bytes = file.position();
+                checkpoint.lastMessageId = messages.get(messages.size() - 1).getId();
+                // The page must be on disk before a checkpoint may claim it
+                file.force(false);
+                checkpoint.store(checkpointFile);
+                if (messages.size() < pageSize) {
+                    checkpoint.complete = true;
+                    break;
+                }
+            }
+            file.force(false);
+            checkpoint.store(checkpointFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write export " + target, e);
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return report(target, checkpoint, written, elapsedMillis,
+                (checkpoint.complete ? "complete" : "partial, call again with resume=true to continue") + restarted);
+    }
+
+    /**
+     * Retrieves up to {@code pageSize} messages older than {@code beforeId}, or the newest messages when it is null.
+     */
+    List<Message> fetchPage(TextChannel textChannel, String beforeId, int pageSize) {
+        return beforeId == null
+                ? textChannel.getHistory().retrievePast(pageSize).complete()
+                : textChannel.getHistoryBefore(beforeId, pageSize).complete().getRetrievedHistory();
+    }
+
+    /**
+     * Serializes one page of messages as NDJSON. With gzip every page becomes its own gzip member,
+     * so the file is valid after each checkpoint and a resumed export simply appends more members.
+     */
+    private void writePage(ByteArrayOutputStream page, List<Message> messages, boolean gzip) throws IOException {
+        OutputStream sink = gzip ? new GZIPOutputStream(page, 8192) : page;
+        try (JsonGenerator json = jsonFactory.createGenerator(sink)) {
+            json.setRootValueSeparator(new SerializedString("\n"));
+            for (Message message : messages) {
+                json.writeStartObject();
+                json.writeStringField("id", message.getId());
+                json.writeStringField("channel_id", message.getChannelId());
+                json.writeStringField("author_id", message.getAuthor().getId());
+                json.writeStringField("author", message.getAuthor().getName());
+                json.writeStringField("timestamp", message.getTimeCreated().toString());
+                if (message.getTimeEdited() != null) {
+                    json.writeStringField("edited_timestamp", message.getTimeEdited().toString());
+                }
+                json.writeStringField("type", message.getType().name());
+                if (message.getMessageReference() != null) {
+                    json.writeStringField("reply_to", message.getMessageReference().getMessageId());
+                }
+                json.writeStringField("content", message.getContentRaw());
+                if (!message.getAttachments().isEmpty()) {
+                    json.writeArrayFieldStart("attachments");
+                    for (Message.Attachment attachment : message.getAttachments()) {
+                        json.writeString(attachment.getUrl());
+                    }
+                    json.writeEndArray();
+                }
+                json.writeEndObject();
+            }
+            json.writeRaw('\n');
+        }
+    }
+
+    private Path resolveTarget(String fileName) {
+        Path directory = Paths.get(exportDir).toAbsolutePath().normalize();
+        Path target = directory.resolve(fileName).normalize();
+        if (!target.startsWith(directory) || target.equals(directory)) {
+            throw new IllegalArgumentException("fileName must stay inside the export directory");
+        }
+        try {
+            Files.createDirectories(target.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create export directory " + directory, e);
+        }
+        return target;
+    }
+
+    private static boolean parseCompression(String compression) {
+        if (compression == null || compression.isEmpty()) {
+            return false;
+        }
+        return switch (compression.toLowerCase(Locale.ROOT)) {
+            case "none" -> false;
+            case "gzip", "gz" -> true;
+            default -> throw new IllegalArgumentException("Unsupported compression " + compression + ". Supported: none, gzip");
+        };
+    }
+
+    private static String report(Path target, Checkpoint checkpoint, long written, long elapsedMillis, String status) {
+        return "Export " + status + ": " + target + "\n" +
+                " - Messages written this run: " + written + "\n" +
+                " - Messages in file: " + checkpoint.messages + "\n" +
+                " - Pages: " + checkpoint.pages + "\n" +
+                " - File size: " + checkpoint.bytes + " bytes" + (checkpoint.gzip ? " (gzip)" : "") + "\n" +
+                " - Oldest exported message ID: " + checkpoint.lastMessageId + "\n" +
+                " - Duration: " + elapsedMillis + " ms";
+    }
+
+    private static final class Checkpoint {
+        private final String channelId;
+        private final boolean gzip;
+        private String lastMessageId;
+        private long messages;
+        private long pages;
+        private long bytes;
+        private boolean complete;
+
+        private Checkpoint(String channelId, boolean gzip) {
+            this.channelId = channelId;
+            this.gzip = gzip;
+        }
+
+        private static Checkpoint load(Path file) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read checkpoint " + file, e);
+            }
+            Checkpoint checkpoint = new Checkpoint(properties.getProperty("channelId", ""),
+                    Boolean.parseBoolean(properties.getProperty("gzip")));
+            checkpoint.lastMessageId = properties.getProperty("lastMessageId");
+            checkpoint.messages = Long.parseLong(properties.getProperty("messages", "0"));
+            checkpoint.pages = Long.parseLong(properties.getProperty("pages", "0"));
+            checkpoint.bytes = Long.parseLong(properties.getProperty("bytes", "0"));
+            checkpoint.complete = Boolean.parseBoolean(properties.getProperty("complete"));
+            return checkpoint;
+        }
+
+        private void store(Path file) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("channelId", channelId);
+            properties.setProperty("gzip", Boolean.toString(gzip));
+            if (lastMessageId != null) {
+                properties.setProperty("lastMessageId", lastMessageId);
+            }
+            properties.setProperty("messages", Long.toString(messages));
+            properties.setProperty("pages", Long.toString(pages));
+            properties.setProperty("bytes", Long.toString(bytes));
+            properties.setProperty("complete", Boolean.toString(complete));
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+                properties.store(writer, null);
+                writer.flush();
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
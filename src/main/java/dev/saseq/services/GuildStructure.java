@@ -0,0 +1,191 @@
+package dev.saseq.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Declarative channel layout for {@code provision_structure}: categories with their channels, plus
+ * channels outside any category, each with optional topic and permission overwrites.
+ * <pre>
+ * {"categories": [{"name": "Event", "permissions": [{"role": "@everyone", "deny": ["VIEW_CHANNEL"]}],
+ *                  "channels": [{"name": "general", "topic": "Chat"}, {"name": "Stage", "type": "voice"}]}],
+ *  "channels": [{"name": "rules", "type": "announcement"}]}
+ * </pre>
+ *
+ * @param categories declared categories
+ * @param channels   declared channels outside any category
+ */
+public record GuildStructure(List<CategorySpec> categories, List<ChannelSpec> channels) {
+
+    static final int MAX_CHANNELS = 500;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * A permission overwrite for a role (by name or ID) or a member (by ID).
+     *
+     * @param role     role name, {@code @everyone} for the public role
+     * @param roleId   role ID
+     * @param memberId member ID
+     * @param allow    raw allowed permissions
+     * @param deny     raw denied permissions
+     */
+    public record Overwrite(String role, Long roleId, Long memberId, long allow, long deny) {
+
+        String label() {
+            if (role != null) {
+                return role;
+            }
+            return roleId != null ? "role " + roleId : "member " + memberId;
+        }
+    }
+
+    /**
+     * @param name       channel name, normalized the way Discord stores it for the channel type
+     * @param type       TEXT, VOICE or NEWS
+     * @param topic      channel topic, null to leave it unmanaged
+     * @param overwrites permission overwrites
+     */
+    public record ChannelSpec(String name, ChannelType type, String topic, List<Overwrite> overwrites) {
+    }
+
+    /**
+     * @param name       category name
+     * @param overwrites permission overwrites of the category
+     * @param channels   channels inside the category
+     */
+    public record CategorySpec(String name, List<Overwrite> overwrites, List<ChannelSpec> channels) {
+    }
+
+    public int channelCount() {
+        return channels.size() + categories.stream().mapToInt(category -> category.channels().size() + 1).sum();
+    }
+
+    public static GuildStructure parse(String json) {
+        JsonNode root;
+        try {
+            root = OBJECT_MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("structure is not valid JSON: " + e.getOriginalMessage());
+        }
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("structure must be a JSON object with categories and/or channels");
+        }
+        List<CategorySpec> categories = new ArrayList<>();
+        Set<String> categoryNames = new HashSet<>();
+        for (JsonNode node : array(root, "categories", "structure")) {
+            String path = "categories[" + categories.size() + "]";
+            String name = text(node, "name", path);
+            if (!categoryNames.add(name.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Duplicate category " + name);
+            }
+            categories.add(new CategorySpec(name, overwrites(node, path),
+                    channels(array(node, "channels", path), path + ".channels")));
+        }
+        GuildStructure structure = new GuildStructure(categories, channels(array(root, "channels", "structure"), "channels"));
+        if (structure.channelCount() == 0) {
+            throw new IllegalArgumentException("structure declares no categories or channels");
+        }
+        if (structure.channelCount() > MAX_CHANNELS) {
+            throw new IllegalArgumentException("Too many channels, the limit is " + MAX_CHANNELS);
+        }
+        return structure;
+    }
+
+    /**
+     * Text and announcement channel names are stored lowercase with dashes instead of spaces.
+     */
+    static String normalizeName(ChannelType type, String name) {
+        if (type == ChannelType.VOICE) {
+            return name.trim();
+        }
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", "-");
+    }
+
+    private static List<ChannelSpec> channels(Iterable<JsonNode> nodes, String parentPath) {
+        List<ChannelSpec> channels = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (JsonNode node : nodes) {
+            String path = parentPath + "[" + channels.size() + "]";
+            ChannelType type = channelType(node.path("type").asText("text"), path);
+            String name = normalizeName(type, text(node, "name", path));
+            if (!names.add(type + ":" + name.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Duplicate " + type.name().toLowerCase(Locale.ROOT) + " channel " + name + " in " + parentPath);
+            }
+            String topic = node.hasNonNull("topic") ? node.get("topic").asText() : null;
+            if (topic != null && type == ChannelType.VOICE) {
+                throw new IllegalArgumentException(path + ".topic is not supported for voice channels");
+            }
+            channels.add(new ChannelSpec(name, type, topic, overwrites(node, path)));
+        }
+        return channels;
+    }
+
+    private static List<Overwrite> overwrites(JsonNode parent, String parentPath) {
+        List<Overwrite> overwrites = new ArrayList<>();
+        for (JsonNode node : array(parent, "permissions", parentPath)) {
+            String path = parentPath + ".permissions[" + overwrites.size() + "]";
+            String role = node.hasNonNull("role") ? node.get("role").asText() : null;
+            Long roleId = node.hasNonNull("roleId") ? Long.parseLong(node.get("roleId").asText()) : null;
+            Long memberId = node.hasNonNull("memberId") ? Long.parseLong(node.get("memberId").asText()) : null;
+            int targets = (role != null ? 1 : 0) + (roleId != null ? 1 : 0) + (memberId != null ? 1 : 0);
+            if (targets != 1) {
+                throw new IllegalArgumentException(path + " needs exactly one of role, roleId or memberId");
+            }
+            overwrites.add(new Overwrite(role, roleId, memberId,
+                    permissions(node, "allow", path), permissions(node, "deny", path)));
+        }
+        return overwrites;
+    }
+
+    private static long permissions(JsonNode node, String field, String path) {
+        EnumSet<Permission> permissions = EnumSet.noneOf(Permission.class);
+        for (JsonNode value : array(node, field, path)) {
+            try {
+                permissions.add(Permission.valueOf(value.asText().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown permission " + value.asText() + " in " + path + "." + field);
+            }
+        }
+        return Permission.getRaw(permissions);
+    }
+
+    private static ChannelType channelType(String type, String path) {
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "text" -> ChannelType.TEXT;
+            case "voice" -> ChannelType.VOICE;
+            case "announcement", "news" -> ChannelType.NEWS;
+            default -> throw new IllegalArgumentException("Unsupported channel type " + type + " in " + path
+                    + ". Supported: text, voice, announcement");
+        };
+    }
+
+    private static Iterable<JsonNode> array(JsonNode parent, String field, String path) {
+        JsonNode node = parent.get(field);
+        if (node == null || node.isNull()) {
+            return List.of();
+        }
+        if (!node.isArray()) {
+            throw new IllegalArgumentException(path + "." + field + " must be an array");
+        }
+        return node;
+    }
+
+    private static String text(JsonNode node, String field, String path) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull() || value.asText().isBlank()) {
+            throw new IllegalArgumentException(path + "." + field + " cannot be null");
+        }
+        return value.asText().trim();
+    }
+}
@@ -1,23 +1,40 @@
 package dev.saseq.services;
 
-import net.dv8tion.jda.api.JDA;
+import dev.saseq.formatters.OutputFormat;
+import dev.saseq.formatters.RecordSchemas;
+import dev.saseq.formatters.ResultBudget;
+import dev.saseq.formatters.ResultWindow;
+import dev.saseq.formatters.ToolResultRenderer;
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.subscriptions.MessageFilter;
+import dev.saseq.subscriptions.MessageSubscriptions;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 @Service
 public class MessageService {
 
-    private final JDA jda;
+    private static final int DEFAULT_WAIT_SECONDS = 30;
+    private static final int MAX_WAIT_SECONDS = 300;
+    private static final int DEFAULT_WAIT_MESSAGES = 10;
 
-    public MessageService(JDA jda) {
-        this.jda = jda;
+    private final DiscordGateway gateway;
+    private final ResultBudget resultBudget;
+    private final MessageSubscriptions messageSubscriptions;
+
+    public MessageService(DiscordGateway gateway, ResultBudget resultBudget, MessageSubscriptions messageSubscriptions) {
+        this.gateway = gateway;
+        this.resultBudget = resultBudget;
+        this.messageSubscriptions = messageSubscriptions;
     }
 
     /**
@@ -37,7 +54,7 @@ public class MessageService {
             throw new IllegalArgumentException("message cannot be null");
         }
 
-        TextChannel textChannelById = jda.getTextChannelById(channelId);
+        TextChannel textChannelById = gateway.getTextChannelById(channelId);
         if (textChannelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
@@ -67,7 +84,7 @@ public class MessageService {
             throw new IllegalArgumentException("newMessage cannot be null");
         }
 
-        TextChannel textChannelById = jda.getTextChannelById(channelId);
+        TextChannel textChannelById = gateway.getTextChannelById(channelId);
         if (textChannelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
@@ -96,7 +113,7 @@ public class MessageService {
             throw new IllegalArgumentException("messageId cannot be null");
         }
 
-        TextChannel textChannelById = jda.getTextChannelById(channelId);
+        TextChannel textChannelById = gateway.getTextChannelById(channelId);
         if (textChannelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
@@ -113,11 +130,17 @@ public class MessageService {
      *
      * @param channelId The ID of the channel from which to read messages.
      * @param count     Optional number of messages to retrieve (default is 100).
+     * @param format    Optional output format: markdown (default), tsv or jsonl.
+     * @param fields    Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor    Optional continuation cursor from a previous truncated response; continues with older messages.
      * @return A formatted string containing the retrieved messages.
      */
     @Tool(name = "read_messages", description = "Read recent message history from a specific channel")
     public String readMessages(@ToolParam(description = "Discord channel ID") String channelId,
-                               @ToolParam(description = "Number of messages to retrieve", required = false) String count) {
+                               @ToolParam(description = "Number of messages to retrieve", required = false) String count,
+                               @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                               @ToolParam(description = RecordSchemas.MESSAGE_FIELDS_DESCRIPTION, required = false) String fields,
+                               @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
         if (channelId == null || channelId.isEmpty()) {
             throw new IllegalArgumentException("channelId cannot be null");
         }
@@ -126,13 +149,85 @@ public class MessageService {
             limit = Integer.parseInt(count);
         }
 
-        TextChannel textChannelById = jda.getTextChannelById(channelId);
+        TextChannel textChannelById = gateway.getTextChannelById(channelId);
         if (textChannelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
-        List<Message> messages = textChannelById.getHistory().retrievePast(limit).complete();
-        List<String> formatedMessages = formatMessages(messages);
-        return "**Retrieved " + messages.size() + " messages:** \n" + String.join("\n", formatedMessages);
+        ResultWindow window = resultBudget.window("read_messages:" + channelId, cursor);
+        List<Message> messages;
+        if (window.after() != null) {
+            messages = textChannelById.getHistoryBefore(window.after(), limit).complete().getRetrievedHistory();
+            window = window.fromStart();
+        } else {
+            messages = textChannelById.getHistory().retrievePast(limit).complete();
+        }
+        return ToolResultRenderer.render("**Retrieved " + messages.size() + " messages:** \n",
+                messages, RecordSchemas.MESSAGES, OutputFormat.parse(format), fields, window);
+    }
+
+    /**
+     * Waits for new messages matching a filter, as they arrive through the gateway.
+     *
+     * @param guildId     Optional ID of the Discord server the messages must be sent in.
+     * @param channelId   Optional ID of the channel the messages must be sent in.
+     * @param authorId    Optional ID of the user who must author the messages.
+     * @param mentionId   Optional ID of a user the messages must mention, or {@code me} for this bot.
+     * @param pattern     Optional regular expression that must occur in the message content.
+     * @param timeout     Optional number of seconds to wait (default 30, at most 300).
+     * @param maxMessages Optional maximum number of messages to return (default 10).
+     * @param format      Optional output format: markdown (default), tsv or jsonl.
+     * @param fields      Optional comma-separated fields to include in tsv/jsonl output.
+     * @return The matching messages received after the call started, or a note that none arrived in time.
+     */
+    @Tool(name = "wait_for_messages", description = "Wait until new messages matching a filter (server, channel, author, mention, regex) arrive, up to a timeout, and return them")
+    public String waitForMessages(@ToolParam(description = "Discord server ID", required = false) String guildId,
+                                  @ToolParam(description = "Discord channel ID", required = false) String channelId,
+                                  @ToolParam(description = "Author user ID", required = false) String authorId,
+                                  @ToolParam(description = "User ID the message must mention, or 'me' for this bot", required = false) String mentionId,
+                                  @ToolParam(description = "Regular expression that must occur in the message content", required = false) String pattern,
+                                  @ToolParam(description = "Seconds to wait (default 30, max 300)", required = false) String timeout,
+                                  @ToolParam(description = "Maximum number of messages to return (default 10)", required = false) String maxMessages,
+                                  @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                                  @ToolParam(description = RecordSchemas.MESSAGE_FIELDS_DESCRIPTION, required = false) String fields) {
+        int seconds = timeout == null || timeout.isEmpty() ? DEFAULT_WAIT_SECONDS : Integer.parseInt(timeout);
+        if (seconds <= 0 || seconds > MAX_WAIT_SECONDS) {
+            throw new IllegalArgumentException("timeout must be between 1 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+        int max = maxMessages == null || maxMessages.isEmpty() ? DEFAULT_WAIT_MESSAGES : Integer.parseInt(maxMessages);
+        if (max <= 0) {
+            throw new IllegalArgumentException("maxMessages must be positive");
+        }
+        Pattern contentPattern;
+        try {
+            contentPattern = pattern == null || pattern.isEmpty() ? null : Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid pattern: " + e.getDescription());
+        }
+        if (mentionId != null && mentionId.equalsIgnoreCase("me")) {
+            mentionId = gateway.anyShard().getSelfUser().getId();
+        }
+        MessageFilter filter = new MessageFilter(emptyToNull(guildId), emptyToNull(channelId), emptyToNull(authorId),
+                emptyToNull(mentionId), contentPattern);
+
+        List<Message> messages;
+        boolean dropped;
+        try (MessageSubscriptions.Subscription subscription = messageSubscriptions.subscribe(filter)) {
+            messages = subscription.await(Duration.ofSeconds(seconds), max);
+            dropped = subscription.hasDropped();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for messages");
+        }
+        if (messages.isEmpty()) {
+            return "No matching messages arrived within " + seconds + " seconds";
+        }
+        return ToolResultRenderer.render("**Received " + messages.size() + " messages:** \n",
+                messages, RecordSchemas.MESSAGES, OutputFormat.parse(format), fields)
+                + (dropped ? "\n[some matching messages were dropped because they arrived faster than they were collected]" : "");
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
     }
 
     /**
@@ -157,7 +252,7 @@ public class MessageService {
             throw new IllegalArgumentException("emoji cannot be null");
         }
 
-        TextChannel textChannelById = jda.getTextChannelById(channelId);
+        TextChannel textChannelById = gateway.getTextChannelById(channelId);
         if (textChannelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
@@ -191,7 +286,7 @@ public class MessageService {
             throw new IllegalArgumentException("emoji cannot be null");
         }
 
-        TextChannel textChannelById = jda.getTextChannelById(channelId);
+        TextChannel textChannelById = gateway.getTextChannelById(channelId);
         if (textChannelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
@@ -202,16 +297,4 @@ public class MessageService {
         message.removeReaction(Emoji.fromUnicode(emoji)).queue();
         return "Added reaction successfully. Message link: " + message.getJumpUrl();
     }
-
-    private List<String> formatMessages(List<Message> messages) {
-        return messages.stream()
-                .map(m -> {
-                    String authorName = m.getAuthor().getName();
-                    String timestamp = m.getTimeCreated().toString();
-                    String content = m.getContentDisplay();
-                    String messageId = m.getId();
-
-                    return String.format("- (ID: %s) **[%s]** `%s`: ```%s```", messageId, authorName, timestamp, content);
-                }).toList();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,371 @@
+package dev.saseq.services;
+
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.services.GuildStructure.CategorySpec;
+import dev.saseq.services.GuildStructure.ChannelSpec;
+import dev.saseq.services.GuildStructure.Overwrite;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.PermissionOverride;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.attribute.ICategorizableChannel;
+import net.dv8tion.jda.api.entities.channel.attribute.IPermissionContainer;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
+import net.dv8tion.jda.api.managers.channel.attribute.IPermissionContainerManager;
+import net.dv8tion.jda.api.managers.channel.middleman.StandardGuildMessageChannelManager;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.ChannelAction;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Brings a guild's categories and channels in line with a declarative {@link GuildStructure}.
+ * The layout is diffed against the channel cache first, so only missing or different channels cause
+ * requests. When applied, every request is submitted at once: channels of a new category wait only
+ * for that category, and JDA's requester schedules the rest across Discord's rate-limit buckets.
+ */
+@Service
+public class ProvisioningService {
+
+    private static final long APPLY_TIMEOUT_SECONDS = 120;
+
+    private final DiscordGateway gateway;
+
+    @Value("${DISCORD_GUILD_ID:}")
+    private String defaultGuildId;
+
+    public ProvisioningService(DiscordGateway gateway) {
+        this.gateway = gateway;
+    }
+
+    private String resolveGuildId(String guildId) {
+        if ((guildId == null || guildId.isEmpty()) && defaultGuildId != null && !defaultGuildId.isEmpty()) {
+            return defaultGuildId;
+        }
+        return guildId;
+    }
+
+    /**
+     * Plans, and optionally applies, the changes needed for a server to match a declared channel layout.
+     *
+     * @param guildId   Optional ID of the Discord server (guild). If not provided, the default server will be used.
+     * @param structure The declared layout as JSON: categories with channels, topics and permission overwrites.
+     * @param apply     Optional flag to execute the plan; by default only the plan is returned.
+     * @param prune     Optional flag to also delete channels inside declared categories that are not declared.
+     * @return The plan, or the per-change outcome when applied.
+     */
+    @Tool(name = "provision_structure", description = "Create or update many categories and channels (topics, permission overwrites) from one declarative JSON layout. Returns the plan; call with apply=true to execute it")
+    public String provisionStructure(@ToolParam(description = "Discord server ID", required = false) String guildId,
+                                     @ToolParam(description = "JSON layout, e.g. {\"categories\":[{\"name\":\"Event\",\"permissions\":[{\"role\":\"@everyone\",\"deny\":[\"VIEW_CHANNEL\"]}],\"channels\":[{\"name\":\"general\",\"topic\":\"Chat\"},{\"name\":\"Stage\",\"type\":\"voice\"}]}],\"channels\":[{\"name\":\"rules\",\"type\":\"announcement\"}]}. Channel types: text (default), voice, announcement. Permission targets: role (name), roleId or memberId, with allow/deny lists of permission names") String structure,
+                                     @ToolParam(description = "Apply the plan (true/false, default false)", required = false) String apply,
+                                     @ToolParam(description = "Delete undeclared channels inside declared categories (true/false, default false)", required = false) String prune) {
+        guildId = resolveGuildId(guildId);
+        if (guildId == null || guildId.isEmpty()) {
+            throw new IllegalArgumentException("guildId cannot be null");
+        }
+        if (structure == null || structure.isEmpty()) {
+            throw new IllegalArgumentException("structure cannot be null");
+        }
+
+        Guild guild = gateway.getGuildById(guildId);
+        if (guild == null) {
+            throw new IllegalArgumentException("Discord server not found by guildId");
+        }
+        GuildStructure layout = GuildStructure.parse(structure);
+        List<Group> plan = plan(guild, layout, Boolean.parseBoolean(prune));
+        long changes = plan.stream().mapToLong(Group::changes).sum();
+        if (changes == 0 || !Boolean.parseBoolean(apply)) {
+            return report("Plan for " + guild.getName(), plan, false)
+                    + (changes == 0 ? "\nNothing to do, the server already matches the layout."
+                    : "\nNothing applied yet, call again with apply=true to apply this plan.");
+        }
+        long started = System.nanoTime();
+        execute(plan);
+        return report("Applied to " + guild.getName() + " in " + (System.nanoTime() - started) / 1_000_000 + " ms", plan, true);
+    }
+
+    private List<Group> plan(Guild guild, GuildStructure layout, boolean prune) {
+        List<Group> plan = new ArrayList<>();
+        for (CategorySpec spec : layout.categories()) {
+            List<Category> matches = guild.getCategoriesByName(spec.name(), true);
+            if (matches.size() > 1) {
+                throw new IllegalArgumentException("Multiple categories found with name " + spec.name() + ", rename them first");
+            }
+            List<Target> overwrites = resolve(guild, spec.overwrites());
+            Category category = matches.isEmpty() ? null : matches.get(0);
+            Group group = new Group(spec.name(), category);
+            if (category == null) {
+                group.createCategory = new Step(Change.CREATE, "category **" + spec.name() + "**",
+                        parent -> withOverwrites(guild.createCategory(spec.name()), overwrites));
+            } else {
+                List<String> differences = differences(category, null, null, overwrites);
+                if (!differences.isEmpty()) {
+                    group.steps.add(new Step(Change.UPDATE, "category **" + category.getName() + "** (" + String.join(", ", differences) + ")",
+                            parent -> update(category, null, overwrites)));
+                } else {
+                    group.unchanged++;
+                }
+            }
+            planChannels(guild, group, category == null ? List.of() : category.getChannels(), spec.channels(), prune);
+            plan.add(group);
+        }
+        if (!layout.channels().isEmpty()) {
+            Group topLevel = new Group(null, null);
+            List<GuildChannel> uncategorized = guild.getChannels().stream()
+                    .filter(channel -> channel.getType() != ChannelType.CATEGORY)
+                    .filter(channel -> !(channel instanceof ICategorizableChannel categorizable)
+                            || categorizable.getParentCategoryIdLong() == 0)
+                    .toList();
+            planChannels(guild, topLevel, uncategorized, layout.channels(), false);
+            plan.add(topLevel);
+        }
+        return plan;
+    }
+
+    private void planChannels(Guild guild, Group group, List<GuildChannel> existing, List<ChannelSpec> specs, boolean prune) {
+        List<GuildChannel> matched = new ArrayList<>();
+        String location = group.name == null ? "" : " in " + group.name;
+        for (ChannelSpec spec : specs) {
+            List<Target> overwrites = resolve(guild, spec.overwrites());
+            String label = typeName(spec.type()) + " channel #" + spec.name() + location;
+            GuildChannel channel = existing.stream()
+                    .filter(candidate -> candidate.getType() == spec.type() && candidate.getName().equalsIgnoreCase(spec.name()))
+                    .findFirst()
+                    .orElse(null);
+            if (channel == null) {
+                group.steps.add(new Step(Change.CREATE, label, parent -> create(guild, parent, spec, overwrites)));
+                continue;
+            }
+            matched.add(channel);
+            List<String> differences = differences((IPermissionContainer) channel, channel, spec.topic(), overwrites);
+            if (differences.isEmpty()) {
+                group.unchanged++;
+            } else {
+                group.steps.add(new Step(Change.UPDATE, label + " (" + String.join(", ", differences) + ")",
+                        parent -> update((IPermissionContainer) channel, spec.topic(), overwrites)));
+            }
+        }
+        if (prune) {
+            for (GuildChannel channel : existing) {
+                if (!matched.contains(channel)) {
+                    group.steps.add(new Step(Change.DELETE, typeName(channel.getType()) + " channel #" + channel.getName() + location,
+                            parent -> channel.delete()));
+                }
+            }
+        }
+    }
+
+    private static RestAction<?> create(Guild guild, Category parent, ChannelSpec spec, List<Target> overwrites) {
+        ChannelAction<? extends GuildChannel> action = switch (spec.type()) {
+            case VOICE -> guild.createVoiceChannel(spec.name(), parent);
+            case NEWS -> guild.createNewsChannel(spec.name(), parent);
+            default -> guild.createTextChannel(spec.name(), parent);
+        };
+        if (spec.topic() != null) {
+            action.setTopic(spec.topic());
+        }
+        return withOverwrites(action, overwrites);
+    }
+
+    private static <T extends GuildChannel> ChannelAction<T> withOverwrites(ChannelAction<T> action, List<Target> overwrites) {
+        for (Target target : overwrites) {
+            if (target.role()) {
+                action.addRolePermissionOverride(target.id(), target.allow(), target.deny());
+            } else {
+                action.addMemberPermissionOverride(target.id(), target.allow(), target.deny());
+            }
+        }
+        return action;
+    }
+
+    private static RestAction<?> update(IPermissionContainer container, String topic, List<Target> overwrites) {
+        IPermissionContainerManager<?, ?> manager = container.getManager();
+        if (topic != null && manager instanceof StandardGuildMessageChannelManager<?, ?> messageManager) {
+            messageManager.setTopic(topic);
+        }
+        for (Target target : overwrites) {
+            if (target.role()) {
+                manager.putRolePermissionOverride(target.id(), target.allow(), target.deny());
+            } else {
+                manager.putMemberPermissionOverride(target.id(), target.allow(), target.deny());
+            }
+        }
+        return manager;
+    }
+
+    private static List<String> differences(IPermissionContainer container, GuildChannel channel, String topic, List<Target> overwrites) {
+        List<String> differences = new ArrayList<>();
+        if (topic != null && channel instanceof StandardGuildMessageChannel messageChannel
+                && !topic.equals(Objects.requireNonNullElse(messageChannel.getTopic(), ""))) {
+            differences.add("topic");
+        }
+        for (Target target : overwrites) {
+            PermissionOverride current = container.getPermissionOverrides().stream()
+                    .filter(override -> override.getIdLong() == target.id())
+                    .findFirst()
+                    .orElse(null);
+            if (current == null || current.getAllowedRaw() != target.allow() || current.getDeniedRaw() != target.deny()) {
+                differences.add("permissions for " + target.label());
+            }
+        }
+        return differences;
+    }
+
+    private static List<Target> resolve(Guild guild, List<Overwrite> overwrites) {
+        List<Target> targets = new ArrayList<>(overwrites.size());
+        for (Overwrite overwrite : overwrites) {
+            if (overwrite.memberId() != null) {
+                targets.add(new Target(overwrite.memberId(), false, overwrite.label(), overwrite.allow(), overwrite.deny()));
+                continue;
+            }
+            Role role;
+            if (overwrite.roleId() != null) {
+                role = guild.getRoleById(overwrite.roleId());
+            } else if (overwrite.role().equalsIgnoreCase("@everyone") || overwrite.role().equalsIgnoreCase("everyone")) {
+                role = guild.getPublicRole();
+            } else {
+                List<Role> roles = guild.getRolesByName(overwrite.role(), true);
+                if (roles.size() > 1) {
+                    throw new IllegalArgumentException("Multiple roles found with name " + overwrite.role() + ", use roleId instead");
+                }
+                role = roles.isEmpty() ? null : roles.get(0);
+            }
+            if (role == null) {
+                throw new IllegalArgumentException("Role " + overwrite.label() + " not found");
+            }
+            targets.add(new Target(role.getIdLong(), true, overwrite.label(), overwrite.allow(), overwrite.deny()));
+        }
+        return targets;
+    }
+
+    /**
+     * Submits every step at once; channel steps of a new category start as soon as that category exists.
+     * Waits for the stages that record the outcomes, so the report never sees a finished step as pending.
+     */
+    private void execute(List<Group> plan) {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (Group group : plan) {
+            CompletableFuture<Category> parent = group.createCategory == null
+                    ? CompletableFuture.completedFuture(group.existing)
+                    : submit(group.createCategory, CompletableFuture.completedFuture(null)).thenApply(Category.class::cast);
+            futures.add(parent);
+            for (Step step : group.steps) {
+                futures.add(submit(step, parent));
+            }
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(APPLY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Individual outcomes are recorded per step; steps still in flight stay pending.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<?> submit(Step step, CompletableFuture<Category> parent) {
+        return parent.thenCompose(category -> send(step.action.apply(category)))
+                .whenComplete((result, error) -> step.outcome = error == null ? "done" : "failed: " + describe(error));
+    }
+
+    /**
+     * Queues one request; tests override this instead of talking to Discord.
+     */
+    CompletableFuture<?> send(RestAction<?> action) {
+        return action.submit();
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static String report(String title, List<Group> plan, boolean applied) {
+        int[] counts = new int[Change.values().length];
+        int unchanged = 0;
+        int failed = 0;
+        StringBuilder lines = new StringBuilder();
+        for (Group group : plan) {
+            unchanged += group.unchanged;
+            List<Step> steps = new ArrayList<>(group.steps);
+            if (group.createCategory != null) {
+                steps.add(0, group.createCategory);
+            }
+            for (Step step : steps) {
+                counts[step.change.ordinal()]++;
+                lines.append("\n- ").append(step.change.name().toLowerCase(Locale.ROOT)).append(' ').append(step.description);
+                if (applied) {
+                    String outcome = step.outcome == null ? "pending" : step.outcome;
+                    if (outcome.startsWith("failed")) {
+                        failed++;
+                    }
+                    lines.append(": ").append(outcome);
+                }
+            }
+        }
+        return title + ": " + counts[Change.CREATE.ordinal()] + " to create, "
+                + counts[Change.UPDATE.ordinal()] + " to update, "
+                + counts[Change.DELETE.ordinal()] + " to delete, "
+                + unchanged + " unchanged"
+                + (applied ? ", " + failed + " failed" : "")
+                + lines;
+    }
+
+    private static String typeName(ChannelType type) {
+        return type == ChannelType.NEWS ? "announcement" : type.name().toLowerCase(Locale.ROOT);
+    }
+
+    private enum Change {
+        CREATE, UPDATE, DELETE
+    }
+
+    private record Target(long id, boolean role, String label, long allow, long deny) {
+    }
+
+    private static final class Step {
+        private final Change change;
+        private final String description;
+        private final Function<Category, RestAction<?>> action;
+        private volatile String outcome;
+
+        private Step(Change change, String description, Function<Category, RestAction<?>> action) {
+            this.change = change;
+            this.description = description;
+            this.action = action;
+        }
+    }
+
+    /**
+     * The steps of one declared category, or of the uncategorized channels when {@code name} is null.
+     */
+    private static final class Group {
+        private final String name;
+        private final Category existing;
+        private final List<Step> steps = new ArrayList<>();
+        private Step createCategory;
+        private int unchanged;
+
+        private Group(String name, Category existing) {
+            this.name = name;
+            this.existing = existing;
+        }
+
+        private long changes() {
+            return steps.size() + (createCategory == null ? 0 : 1);
+        }
+    }
+}
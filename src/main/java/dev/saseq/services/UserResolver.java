@@ -0,0 +1,68 @@
+package dev.saseq.services;
+
+import dev.saseq.caches.TtlCache;
+import dev.saseq.gateway.DiscordGateway;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Resolves Discord users by ID with at most one REST call per lookup.
+ * The JDA user cache is consulted first, then a single {@code retrieveUserById}; both found and
+ * unknown users are remembered for a while so repeated DM tool calls cost no REST requests.
+ */
+@Service
+public class UserResolver {
+
+    private static final int MAX_CACHED_USERS = 10_000;
+    private static final Duration FOUND_TTL = Duration.ofMinutes(10);
+    private static final Duration NOT_FOUND_TTL = Duration.ofMinutes(1);
+
+    private final DiscordGateway gateway;
+    private final TtlCache<String, Optional<User>> users = new TtlCache<>(MAX_CACHED_USERS);
+
+    public UserResolver(DiscordGateway gateway) {
+        this.gateway = gateway;
+    }
+
+    /**
+     * Resolves a user by ID.
+     *
+     * @param userId the Discord user ID
+     * @return the user, or null if Discord does not know the user
+     */
+    public User resolve(String userId) {
+        Optional<User> cached = users.get(userId);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        User user;
+        try {
+            user = gateway.getUserById(userId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("userId is not a valid Discord ID");
+        }
+        if (user == null) {
+            try {
+                user = gateway.retrieveUserById(userId).complete();
+            } catch (ErrorResponseException e) {
+                if (e.getErrorResponse() != ErrorResponse.UNKNOWN_USER) {
+                    throw e;
+                }
+            }
+        }
+        users.put(userId, Optional.ofNullable(user), user != null ? FOUND_TTL : NOT_FOUND_TTL);
+        return user;
+    }
+
+    /**
+     * Forgets a cached lookup, e.g. after the user changed.
+     */
+    public void invalidate(String userId) {
+        users.invalidate(userId);
+    }
+}
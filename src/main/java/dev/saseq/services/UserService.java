@@ -1,29 +1,81 @@
 package dev.saseq.services;
 
-import net.dv8tion.jda.api.JDA;
+import dev.saseq.caches.PrivateChannelCache;
+import dev.saseq.configs.CacheProfile;
+import dev.saseq.formatters.OutputFormat;
+import dev.saseq.formatters.RecordSchemas;
+import dev.saseq.formatters.ResultBudget;
+import dev.saseq.formatters.ResultWindow;
+import dev.saseq.formatters.ToolResultRenderer;
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.indexes.FuzzyNameIndex;
+import dev.saseq.indexes.MemberBitmapIndex;
+import dev.saseq.indexes.MemberFilterIndex;
+import dev.saseq.indexes.MemberNameIndex;
+import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
-    private final JDA jda;
+    private static final int MAX_NAME_SUGGESTIONS = 5;
+    private static final int MAX_RESOLVE_INPUTS = 100;
+    private static final int MAX_PREFIX_RESULTS = 100;
+    // Members materialised per list_members call; the response budget usually cuts the page shorter
+    private static final int MAX_MEMBER_PAGE = 250;
+    private static final Pattern USER_MENTION = Pattern.compile("<@!?(\\d+)>|(\\d{15,20})");
+    private static final Pattern RELATIVE_TIME = Pattern.compile("(\\d+)([mhdw])");
+
+    private final DiscordGateway gateway;
+    private final ResultBudget resultBudget;
+    private final UserResolver userResolver;
+    private final PrivateChannelCache privateChannelCache;
+    private final MemberNameIndex memberNameIndex;
+    private final MemberFilterIndex memberFilterIndex;
+    private final CacheProfile cacheProfile;
 
     @Value("${DISCORD_GUILD_ID:}")
     private String defaultGuildId;
 
-    public UserService(JDA jda) {
-        this.jda = jda;
+    public UserService(DiscordGateway gateway, ResultBudget resultBudget, UserResolver userResolver,
+                       PrivateChannelCache privateChannelCache, MemberNameIndex memberNameIndex,
+                       MemberFilterIndex memberFilterIndex, CacheProfile cacheProfile) {
+        this.gateway = gateway;
+        this.resultBudget = resultBudget;
+        this.userResolver = userResolver;
+        this.privateChannelCache = privateChannelCache;
+        this.memberNameIndex = memberNameIndex;
+        this.memberFilterIndex = memberFilterIndex;
+        this.cacheProfile = cacheProfile;
     }
 
     private String resolveGuildId(String guildId) {
@@ -35,13 +87,15 @@ public class UserService {
 
     /**
      * Public tool to retrieve a Discord user's ID by their username (optionally with discriminator) in a guild.
+     * Usernames, global display names and nicknames are matched case-insensitively; when nothing matches
+     * exactly, the error lists the closest fuzzy and prefix matches.
      * @param username Username (optionally in the format username#discriminator)
      * @param guildId Optional guild/server ID; uses default if not provided
      * @return User ID string if found, or error message
      */
-    @Tool(name = "get_user_id_by_name", description = "Get a Discord user's ID by username in a guild for ping usage <@id>.")
+    @Tool(name = "get_user_id_by_name", description = "Get a Discord user's ID by username, display name or nickname in a guild for ping usage <@id>. Suggests the closest matches for misspelled names.")
     public String getUserIdByName(
-            @ToolParam(description = "Discord username (optionally username#discriminator)") String username,
+            @ToolParam(description = "Discord username, display name or nickname (optionally username#discriminator)") String username,
             @ToolParam(description = "Discord server ID", required = false) String guildId) {
         if (username == null || username.isEmpty()) {
             throw new IllegalArgumentException("username cannot be null");
@@ -50,26 +104,19 @@ public class UserService {
         if (guildId == null || guildId.isEmpty()) {
             throw new IllegalArgumentException("guildId cannot be null");
         }
-        Guild guild = jda.getGuildById(guildId);
+        Guild guild = gateway.getGuildById(guildId);
         if (guild == null) {
             throw new IllegalArgumentException("Discord server not found by guildId");
         }
-        String name = username;
-        String discriminatorLocal = null;
-        if (username.contains("#")) {
-            int idx = username.lastIndexOf('#');
-            name = username.substring(0, idx);
-            discriminatorLocal = username.substring(idx + 1);
-        }
-        List<Member> members = guild.getMemberCache().getElementsByUsername(name, true);
-        if (discriminatorLocal != null) {
-            final String finalDiscriminator = discriminatorLocal;
-            members = members.stream()
-                    .filter(m -> m.getUser().getDiscriminator().equals(finalDiscriminator))
-                    .toList();
-        }
+        String[] tag = splitTag(username);
+        String name = tag[0];
+        List<Member> members = withDiscriminator(findMembersByName(guild, name), tag[1]);
         if (members.isEmpty()) {
-            throw new IllegalArgumentException("No user found with username " + username);
+            String suggestions = suggestMembers(guild, name);
+            if (suggestions.isEmpty()) {
+                throw new IllegalArgumentException("No user found with username " + username);
+            }
+            throw new IllegalArgumentException("No user found with username " + username + ". Closest matches:\n" + suggestions);
         }
         if (members.size() > 1) {
             String userList = members.stream()
@@ -80,6 +127,251 @@ public class UserService {
         return members.get(0).getUser().getId();
     }
 
+    /**
+     * Resolves many usernames, nicknames, name#discriminator tags, mentions or IDs to user IDs in one call.
+     * Names are looked up in the member cache, in one pass for all distinct names; for profiles that do not cache
+     * every member, names missing from the cache are then searched through the Discord API concurrently, and the
+     * search results also provide the suggestions for names that are not found.
+     * IDs missing from the member cache are fetched with a single batched member request.
+     *
+     * @param names   Comma-separated names, name#discriminator tags, user mentions or user IDs
+     * @param guildId Optional guild/server ID; uses default if not provided
+     * @return A compact name to ID map followed by ambiguous and unresolved entries
+     */
+    @Tool(name = "resolve_users", description = "Resolve many usernames, nicknames, username#discriminator tags, mentions or IDs to Discord user IDs in one call")
+    public String resolveUsers(
+            @ToolParam(description = "Comma-separated usernames, nicknames, username#discriminator tags, mentions (<@id>) or user IDs") String names,
+            @ToolParam(description = "Discord server ID", required = false) String guildId) {
+        if (names == null || names.isEmpty()) {
+            throw new IllegalArgumentException("names cannot be null");
+        }
+        guildId = resolveGuildId(guildId);
+        if (guildId == null || guildId.isEmpty()) {
+            throw new IllegalArgumentException("guildId cannot be null");
+        }
+        Guild guild = gateway.getGuildById(guildId);
+        if (guild == null) {
+            throw new IllegalArgumentException("Discord server not found by guildId");
+        }
+        List<String> inputs = Arrays.stream(names.split(","))
+                .map(String::trim)
+                .filter(input -> !input.isEmpty())
+                .distinct()
+                .toList();
+        if (inputs.size() > MAX_RESOLVE_INPUTS) {
+            throw new IllegalArgumentException("Too many names, the limit is " + MAX_RESOLVE_INPUTS);
+        }
+
+        Map<String, Long> idInputs = new LinkedHashMap<>();
+        List<String> nameInputs = new ArrayList<>();
+        for (String input : inputs) {
+            Matcher mention = USER_MENTION.matcher(input);
+            if (mention.matches()) {
+                idInputs.put(input, Long.parseLong(mention.group(1) != null ? mention.group(1) : mention.group(2)));
+            } else {
+                nameInputs.add(input);
+            }
+        }
+
+        // Inputs sharing a name (e.g. different name#discriminator tags) share one lookup. Every name is
+        // looked up in the member cache first; only misses are searched through the Discord API, all at once
+        Map<String, String> distinctNames = new LinkedHashMap<>();
+        for (String input : nameInputs) {
+            String name = splitTag(input)[0];
+            distinctNames.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+        }
+        Map<String, List<Member>> byName = findCachedMembersByNames(guild, distinctNames);
+        Map<String, List<Member>> prefixMatches = new HashMap<>();
+        if (!cacheProfile.cachesAllMembers()) {
+            Map<String, CompletableFuture<List<Member>>> searches = new LinkedHashMap<>();
+            distinctNames.forEach((key, name) -> {
+                if (byName.get(key).isEmpty()) {
+                    searches.put(key, searchMembersByPrefix(guild, name, MAX_PREFIX_RESULTS));
+                }
+            });
+            CompletableFuture.allOf(searches.values().toArray(CompletableFuture[]::new)).join();
+            searches.forEach((key, search) -> {
+                String name = distinctNames.get(key);
+                prefixMatches.put(key, search.join());
+                byName.put(key, search.join().stream().filter(member -> hasName(member, name)).toList());
+            });
+        }
+        Map<String, List<Member>> exactByName = new HashMap<>();
+        for (String input : nameInputs) {
+            String[] tag = splitTag(input);
+            exactByName.put(input, withDiscriminator(byName.get(tag[0].toLowerCase(Locale.ROOT)), tag[1]));
+        }
+
+        // IDs not in the member cache are fetched with one batched member chunk request
+        Map<Long, Member> membersById = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (long id : idInputs.values()) {
+            Member member = guild.getMemberById(id);
+            if (member != null) {
+                membersById.put(id, member);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            long[] ids = missingIds.stream().mapToLong(Long::longValue).toArray();
+            for (Member member : guild.retrieveMembersByIds(ids).get()) {
+                membersById.put(member.getIdLong(), member);
+            }
+        }
+
+        StringBuilder resolved = new StringBuilder();
+        StringBuilder ambiguous = new StringBuilder();
+        StringBuilder unresolved = new StringBuilder();
+        int resolvedCount = 0;
+        for (String input : inputs) {
+            if (idInputs.containsKey(input)) {
+                Member member = membersById.get(idInputs.get(input));
+                if (member == null) {
+                    unresolved.append("\n").append(input);
+                } else {
+                    resolved.append("\n").append(input).append('\t').append(member.getId());
+                    resolvedCount++;
+                }
+                continue;
+            }
+            List<Member> members = exactByName.get(input);
+            if (members.size() == 1) {
+                resolved.append("\n").append(input).append('\t').append(members.get(0).getId());
+                resolvedCount++;
+            } else if (members.size() > 1) {
+                ambiguous.append("\n").append(input).append(": ").append(members.stream()
+                        .map(m -> m.getUser().getName() + " (ID: " + m.getId() + ")")
+                        .collect(Collectors.joining(", ")));
+            } else {
+                String name = splitTag(input)[0];
+                // Members sharing the prefix of the name were searched already; reuse them instead of asking again
+                List<Member> similar = prefixMatches.get(name.toLowerCase(Locale.ROOT));
+                String suggestions = similar != null ? formatSuggestions(similar) : suggestMembers(guild, name);
+                unresolved.append("\n").append(input);
+                if (!suggestions.isEmpty()) {
+                    unresolved.append(" - closest matches:\n").append(suggestions);
+                }
+            }
+        }
+
+        StringBuilder result = new StringBuilder()
+                .append("Resolved ").append(resolvedCount).append('/').append(inputs.size()).append(":")
+                .append(resolved);
+        if (!ambiguous.isEmpty()) {
+            result.append("\nAmbiguous:").append(ambiguous);
+        }
+        if (!unresolved.isEmpty()) {
+            result.append("\nNot found:").append(unresolved);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Lists the members of a guild matching a compound filter, most recently joined first.
+     * Filters are answered from per-guild role, status and join-time indexes kept current by member events,
+     * and only the members of the returned page are materialised. Pages continue after the last listed member.
+     *
+     * @param guildId      Optional guild/server ID; uses default if not provided
+     * @param roleIds      Optional comma-separated role IDs; members must have all of them
+     * @param joinedAfter  Optional lower bound of the join time: ISO date/time or relative age such as 7d, 12h
+     * @param joinedBefore Optional upper bound of the join time: ISO date/time or relative age such as 7d, 12h
+     * @param status       Optional online status: online, idle, dnd or offline
+     * @param bots         Optional bot filter: include (default), exclude or only
+     * @param format       Optional output format: markdown (default), tsv or jsonl.
+     * @param fields       Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor       Optional continuation cursor from a previous truncated response.
+     * @return A formatted list of the matching members
+     */
+    @Tool(name = "list_members", description = "List server members filtered by roles, join date, online status and bot flag")
+    public String listMembers(
+            @ToolParam(description = "Discord server ID", required = false) String guildId,
+            @ToolParam(description = "Comma-separated role IDs; members must have all of them", required = false) String roleIds,
+            @ToolParam(description = "Joined at or after: ISO date/time or relative age such as 7d, 12h, 30m", required = false) String joinedAfter,
+            @ToolParam(description = "Joined before: ISO date/time or relative age such as 7d, 12h, 30m", required = false) String joinedBefore,
+            @ToolParam(description = "Online status: online, idle, dnd or offline (requires presence updates)", required = false) String status,
+            @ToolParam(description = "Bots: include (default), exclude or only", required = false) String bots,
+            @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+            @ToolParam(description = RecordSchemas.MEMBER_FIELDS_DESCRIPTION, required = false) String fields,
+            @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
+        guildId = resolveGuildId(guildId);
+        if (guildId == null || guildId.isEmpty()) {
+            throw new IllegalArgumentException("guildId cannot be null");
+        }
+        Guild guild = gateway.getGuildById(guildId);
+        if (guild == null) {
+            throw new IllegalArgumentException("Discord server not found by guildId");
+        }
+        MemberBitmapIndex.Filter filter = new MemberBitmapIndex.Filter(
+                parseRoleIds(roleIds),
+                parseJoinTime(joinedAfter, "joinedAfter"),
+                parseJoinTime(joinedBefore, "joinedBefore"),
+                parseStatus(status),
+                parseBots(bots));
+
+        String scope = String.join(":", "list_members", guildId, String.valueOf(roleIds), String.valueOf(joinedAfter),
+                String.valueOf(joinedBefore), String.valueOf(status), String.valueOf(bots));
+        ResultWindow window = resultBudget.window(scope, cursor);
+        Long afterId = parseMemberCursor(window);
+
+        MemberBitmapIndex index;
+        if (cacheProfile.cachesAllMembers()) {
+            index = memberFilterIndex.get(guild.getIdLong());
+            if (index == null) {
+                memberFilterIndex.rebuild(guild);
+                index = memberFilterIndex.get(guild.getIdLong());
+            }
+        } else {
+            // A partial member cache cannot be filtered; the member list is loaded from Discord once per guild
+            index = memberFilterIndex.load(guild);
+        }
+        // Only the IDs of this page come out of the index
+        MemberBitmapIndex.Page page = index.query(filter, afterId, MAX_MEMBER_PAGE);
+        List<Member> members = pageMembers(guild, page.ids());
+        if (page.total() == 0) {
+            return "No members match the filter";
+        }
+        return ToolResultRenderer.renderPage("**Retrieved " + page.total() + " members:** \n",
+                members, page.skipped(), page.total(), RecordSchemas.MEMBERS, OutputFormat.parse(format), fields, window);
+    }
+
+    /**
+     * Materialises the members of a page in page order: cached members directly, the others with one
+     * batched member request. Members that left meanwhile are skipped.
+     */
+    private static List<Member> pageMembers(Guild guild, long[] ids) {
+        Map<Long, Member> members = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (long id : ids) {
+            Member member = guild.getMemberById(id);
+            if (member != null) {
+                members.put(id, member);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (Member member : guild.retrieveMembersByIds(missingIds.stream().mapToLong(Long::longValue).toArray()).get()) {
+                members.put(member.getIdLong(), member);
+            }
+        }
+        return Arrays.stream(ids)
+                .mapToObj(members::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static Long parseMemberCursor(ResultWindow window) {
+        if (window.after() == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(window.after());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     /**
      * Sends a private message to a specified Discord user.
      *
@@ -97,11 +389,7 @@ public class UserService {
             throw new IllegalArgumentException("message cannot be null");
         }
 
-        User user = getUserById(userId);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found by userId");
-        }
-        Message sentMessage = user.openPrivateChannel().complete().sendMessage(message).complete();
+        Message sentMessage = openPrivateChannel(userId).sendMessage(message).complete();
         return "Message sent successfully. Message link: " + sentMessage.getJumpUrl();
     }
 
@@ -127,11 +415,7 @@ public class UserService {
             throw new IllegalArgumentException("newMessage cannot be null");
         }
 
-        User user = getUserById(userId);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found by userId");
-        }
-        Message messageById = user.openPrivateChannel().complete().retrieveMessageById(messageId).complete();
+        Message messageById = openPrivateChannel(userId).retrieveMessageById(messageId).complete();
         if (messageById == null) {
             throw new IllegalArgumentException("Message not found by messageId");
         }
@@ -156,11 +440,7 @@ public class UserService {
             throw new IllegalArgumentException("messageId cannot be null");
         }
 
-        User user = getUserById(userId);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found by userId");
-        }
-        Message messageById = user.openPrivateChannel().complete().retrieveMessageById(messageId).complete();
+        Message messageById = openPrivateChannel(userId).retrieveMessageById(messageId).complete();
         if (messageById == null) {
             throw new IllegalArgumentException("Message not found by messageId");
         }
@@ -173,11 +453,17 @@ public class UserService {
      *
      * @param userId The ID of the user from whom to read the private messages.
      * @param count  Optional number of messages to retrieve (default is 100).
+     * @param format Optional output format: markdown (default), tsv or jsonl.
+     * @param fields Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor Optional continuation cursor from a previous truncated response; continues with older messages.
      * @return A formatted string containing the retrieved private messages.
      */
     @Tool(name = "read_private_messages", description = "Read recent message history from a specific user")
     public String readPrivateMessages(@ToolParam(description = "Discord user ID") String userId,
-                                      @ToolParam(description = "Number of messages to retrieve", required = false) String count) {
+                                      @ToolParam(description = "Number of messages to retrieve", required = false) String count,
+                                      @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                                      @ToolParam(description = RecordSchemas.MESSAGE_FIELDS_DESCRIPTION, required = false) String fields,
+                                      @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
         if (userId == null || userId.isEmpty()) {
             throw new IllegalArgumentException("userId cannot be null");
         }
@@ -186,33 +472,224 @@ public class UserService {
             limit = Integer.parseInt(count);
         }
 
-        User user = getUserById(userId);
+        ResultWindow window = resultBudget.window("read_private_messages:" + userId, cursor);
+        PrivateChannel privateChannel = openPrivateChannel(userId);
+        List<Message> messages;
+        if (window.after() != null) {
+            messages = privateChannel.getHistoryBefore(window.after(), limit).complete().getRetrievedHistory();
+            window = window.fromStart();
+        } else {
+            messages = privateChannel.getHistory().retrievePast(limit).complete();
+        }
+        return ToolResultRenderer.render("**Retrieved " + messages.size() + " messages:** \n",
+                messages, RecordSchemas.MESSAGES, OutputFormat.parse(format), fields, window);
+    }
+
+    private PrivateChannel openPrivateChannel(String userId) {
+        PrivateChannel cached = privateChannelCache.get(userId, gateway::getPrivateChannelById);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userResolver.resolve(userId);
         if (user == null) {
             throw new IllegalArgumentException("User not found by userId");
         }
-        List<Message> messages = user.openPrivateChannel().complete().getHistory().retrievePast(limit).complete();
-        List<String> formatedMessages = formatMessages(messages);
-        return "**Retrieved " + messages.size() + " messages:** \n" + String.join("\n", formatedMessages);
+        PrivateChannel privateChannel = user.openPrivateChannel().complete();
+        privateChannelCache.put(userId, privateChannel);
+        return privateChannel;
     }
 
-    private User getUserById(String userId) {
-        return jda.getGuilds().stream()
-                .map(guild -> guild.retrieveMemberById(userId).complete())
-                .filter(Objects::nonNull)
-                .map(Member::getUser)
-                .findFirst()
-                .orElse(null);
+    /**
+     * Finds members whose username, global name or nickname equals the name in the member cache,
+     * then, for profiles that do not cache every member, through the Discord API.
+     */
+    private List<Member> findMembersByName(Guild guild, String name) {
+        List<Member> cached = findCachedMembersByName(guild, name);
+        if (!cached.isEmpty() || cacheProfile.cachesAllMembers()) {
+            return cached;
+        }
+        return retrieveMembersByName(guild, name);
+    }
+
+    /**
+     * Looks the name up in the guild's name index when the profile caches every member and the index
+     * covers the whole member cache, and scans the member cache otherwise.
+     */
+    private List<Member> findCachedMembersByName(Guild guild, String name) {
+        FuzzyNameIndex index = cacheProfile.cachesAllMembers() ? memberNameIndex.authoritative(guild) : null;
+        if (index == null) {
+            return guild.getMemberCache().stream()
+                    .filter(member -> hasName(member, name))
+                    .toList();
+        }
+        List<Member> members = new ArrayList<>();
+        for (long id : index.exact(name)) {
+            Member member = guild.getMemberById(id);
+            if (member != null) {
+                members.add(member);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Looks up many distinct names, keyed by their lower-cased form: through the name index when it can replace
+     * a member cache scan, and otherwise in a single pass over the member cache.
+     */
+    private Map<String, List<Member>> findCachedMembersByNames(Guild guild, Map<String, String> names) {
+        Map<String, List<Member>> found = new HashMap<>();
+        FuzzyNameIndex index = cacheProfile.cachesAllMembers() ? memberNameIndex.authoritative(guild) : null;
+        if (index != null || names.size() == 1) {
+            names.forEach((key, name) -> found.put(key, findCachedMembersByName(guild, name)));
+            return found;
+        }
+        names.keySet().forEach(key -> found.put(key, new ArrayList<>()));
+        guild.getMemberCache().forEach(member -> {
+            Set<String> matched = new HashSet<>();
+            for (String memberName : new String[]{member.getUser().getName(), member.getUser().getGlobalName(), member.getNickname()}) {
+                String key = memberName != null ? memberName.toLowerCase(Locale.ROOT) : null;
+                if (key != null && found.containsKey(key) && matched.add(key)) {
+                    found.get(key).add(member);
+                }
+            }
+        });
+        return found;
     }
 
-    private List<String> formatMessages(List<Message> messages) {
-        return messages.stream()
-                .map(m -> {
-                    String authorName = m.getAuthor().getName();
-                    String timestamp = m.getTimeCreated().toString();
-                    String content = m.getContentDisplay();
-                    String messageId = m.getId();
+    /**
+     * Splits a {@code username#discriminator} tag into the name and the discriminator, which is null for plain names.
+     */
+    private static String[] splitTag(String input) {
+        int idx = input.lastIndexOf('#');
+        if (idx <= 0) {
+            return new String[]{input, null};
+        }
+        return new String[]{input.substring(0, idx), input.substring(idx + 1)};
+    }
 
-                    return String.format("- (ID: %s) **[%s]** `%s`: ```%s```", messageId, authorName, timestamp, content);
-                }).toList();
+    private static List<Member> withDiscriminator(List<Member> members, String discriminator) {
+        if (discriminator == null) {
+            return members;
+        }
+        return members.stream()
+                .filter(m -> m.getUser().getDiscriminator().equals(discriminator))
+                .toList();
+    }
+
+    private static boolean hasName(Member member, String name) {
+        return name.equalsIgnoreCase(member.getUser().getName())
+                || name.equalsIgnoreCase(member.getUser().getGlobalName())
+                || name.equalsIgnoreCase(member.getNickname());
+    }
+
+    /**
+     * Searches members by name prefix through the Discord API, for profiles that do not cache every member,
+     * and keeps the ones whose username, global name or nickname equals the name.
+     */
+    private List<Member> retrieveMembersByName(Guild guild, String name) {
+        return guild.retrieveMembersByPrefix(name, MAX_PREFIX_RESULTS).get().stream()
+                .filter(member -> hasName(member, name))
+                .toList();
+    }
+
+    /**
+     * Starts a member search by name prefix through the Discord API without waiting for it,
+     * so searches started together run concurrently.
+     */
+    private static CompletableFuture<List<Member>> searchMembersByPrefix(Guild guild, String prefix, int limit) {
+        CompletableFuture<List<Member>> result = new CompletableFuture<>();
+        guild.retrieveMembersByPrefix(prefix, limit)
+                .onSuccess(result::complete)
+                .onError(result::completeExceptionally);
+        return result;
+    }
+
+    private static String formatSuggestions(List<Member> members) {
+        return members.stream()
+                .limit(MAX_NAME_SUGGESTIONS)
+                .map(member -> "- " + member.getUser().getName() + " (ID: " + member.getId() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+
+    private String suggestMembers(Guild guild, String name) {
+        FuzzyNameIndex index = memberNameIndex.get(guild.getIdLong());
+        if (!cacheProfile.cachesAllMembers()) {
+            // Partial caches make the index incomplete; suggest members sharing the first characters instead
+            String prefix = name.substring(0, Math.min(name.length(), 3));
+            return formatSuggestions(guild.retrieveMembersByPrefix(prefix, MAX_NAME_SUGGESTIONS).get());
+        }
+        if (index == null) {
+            return "";
+        }
+        return index.search(name, MAX_NAME_SUGGESTIONS).stream()
+                .map(match -> {
+                    Member member = guild.getMemberById(match.id());
+                    String username = member != null ? member.getUser().getName() : match.name();
+                    return "- " + username + " (matched: " + match.name() + ", ID: " + match.id() + ")";
+                })
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static long[] parseRoleIds(String roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return null;
+        }
+        try {
+            return Arrays.stream(roleIds.split(","))
+                    .map(String::trim)
+                    .filter(id -> !id.isEmpty())
+                    .mapToLong(Long::parseLong)
+                    .toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("roleIds must be comma-separated role IDs");
+        }
+    }
+
+    private static Long parseJoinTime(String value, String paramName) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        Matcher relative = RELATIVE_TIME.matcher(value.trim().toLowerCase(Locale.ROOT));
+        if (relative.matches()) {
+            long amount = Long.parseLong(relative.group(1));
+            Duration age = switch (relative.group(2)) {
+                case "m" -> Duration.ofMinutes(amount);
+                case "h" -> Duration.ofHours(amount);
+                case "d" -> Duration.ofDays(amount);
+                default -> Duration.ofDays(amount * 7);
+            };
+            return Instant.now().minus(age).toEpochMilli();
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(paramName + " must be an ISO date/time or a relative age such as 7d");
+        }
+    }
+
+    private static String parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        OnlineStatus onlineStatus = OnlineStatus.fromKey(status.trim().toLowerCase(Locale.ROOT));
+        if (onlineStatus == OnlineStatus.UNKNOWN) {
+            throw new IllegalArgumentException("Unsupported status " + status + ". Supported: online, idle, dnd, offline");
+        }
+        return onlineStatus.name();
+    }
+
+    private static Boolean parseBots(String bots) {
+        if (bots == null || bots.isEmpty()) {
+            return null;
+        }
+        return switch (bots.toLowerCase(Locale.ROOT)) {
+            case "include" -> null;
+            case "exclude" -> Boolean.FALSE;
+            case "only" -> Boolean.TRUE;
+            default -> throw new IllegalArgumentException("Unsupported bots filter " + bots + ". Supported: include, exclude, only");
+        };
     }
 }
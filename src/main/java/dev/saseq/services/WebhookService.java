@@ -1,24 +1,53 @@
 package dev.saseq.services;
 
-import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.entities.IncomingWebhookClient;
-import net.dv8tion.jda.api.entities.Message;
-import net.dv8tion.jda.api.entities.WebhookClient;
+import dev.saseq.caches.WebhookCache;
+import dev.saseq.formatters.OutputFormat;
+import dev.saseq.formatters.RecordSchemas;
+import dev.saseq.formatters.ResultBudget;
+import dev.saseq.formatters.ResultWindow;
+import dev.saseq.formatters.ToolResultRenderer;
+import dev.saseq.gateway.DiscordGateway;
+import dev.saseq.webhooks.Delivery;
+import dev.saseq.webhooks.WebhookDeliveryQueue;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.Webhook;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class WebhookService {
 
-    private final JDA jda;
+    private static final long SEND_TIMEOUT_SECONDS = 60;
 
-    public WebhookService(JDA jda) {
-        this.jda = jda;
+    private final DiscordGateway gateway;
+    private final ResultBudget resultBudget;
+    private final WebhookDeliveryQueue deliveryQueue;
+    private final WebhookCache webhookCache;
+
+    @Value("${DISCORD_GUILD_ID:}")
+    private String defaultGuildId;
+
+    public WebhookService(DiscordGateway gateway, ResultBudget resultBudget, WebhookDeliveryQueue deliveryQueue,
+                          WebhookCache webhookCache) {
+        this.gateway = gateway;
+        this.resultBudget = resultBudget;
+        this.deliveryQueue = deliveryQueue;
+        this.webhookCache = webhookCache;
+    }
+
+    private String resolveGuildId(String guildId) {
+        if ((guildId == null || guildId.isEmpty()) && defaultGuildId != null && !defaultGuildId.isEmpty()) {
+            return defaultGuildId;
+        }
+        return guildId;
     }
 
     /**
@@ -38,11 +67,12 @@ public class WebhookService {
             throw new IllegalArgumentException("webhook name cannot be null");
         }
 
-        TextChannel channelById = jda.getTextChannelById(channelId);
+        TextChannel channelById = gateway.getTextChannelById(channelId);
         if (channelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
         Webhook webhook = channelById.createWebhook(name).complete();
+        webhookCache.invalidate(channelById.getGuild().getIdLong(), channelById.getIdLong());
         return "Created " + name + " webhook: " + webhook.getUrl();
     }
 
@@ -58,11 +88,15 @@ public class WebhookService {
             throw new IllegalArgumentException("webhookId cannot be null");
         }
 
-        Webhook webhook = jda.retrieveWebhookById(webhookId).complete();
+        Webhook webhook = webhookCache.find(Long.parseLong(webhookId));
+        if (webhook == null) {
+            webhook = gateway.retrieveWebhookById(webhookId).complete();
+        }
         if (webhook == null) {
             throw new IllegalArgumentException("Webhook not found by webhookId");
         }
-        webhook.delete().queue();
+        Webhook deleted = webhook;
+        webhook.delete().queue(success -> webhookCache.invalidate(deleted.getGuild().getIdLong(), deleted.getChannel().getIdLong()));
         return "Deleted " + webhook.getName() + " webhook";
     }
 
@@ -70,42 +104,82 @@ public class WebhookService {
      * Lists all webhooks for a specified Discord channel.
      *
      * @param channelId The ID of the channel from which to list webhooks.
+     * @param format    Optional output format: markdown (default), tsv or jsonl.
+     * @param fields    Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor    Optional continuation cursor from a previous truncated response.
      * @return A formatted string listing the webhooks, including their ID, name, and URL.
      */
     @Tool(name = "list_webhooks", description = "List of webhooks on a specific channel")
-    public String listWebhooks(@ToolParam(description = "Discord channel ID") String channelId) {
+    public String listWebhooks(@ToolParam(description = "Discord channel ID") String channelId,
+                               @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                               @ToolParam(description = RecordSchemas.WEBHOOK_FIELDS_DESCRIPTION, required = false) String fields,
+                               @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
         if (channelId == null || channelId.isEmpty()) {
             throw new IllegalArgumentException("channelId cannot be null");
         }
 
-        TextChannel channelById = jda.getTextChannelById(channelId);
+        TextChannel channelById = gateway.getTextChannelById(channelId);
         if (channelById == null) {
             throw new IllegalArgumentException("Channel not found by channelId");
         }
-        List<Webhook> webhooks = channelById.retrieveWebhooks().complete();
+        List<Webhook> webhooks = webhookCache.channel(channelById.getGuild().getIdLong(), channelById.getIdLong(),
+                () -> channelById.retrieveWebhooks().complete());
         if (webhooks.isEmpty()) {
             throw new IllegalArgumentException("No webhooks found");
         }
-        List<String> formattedWebhooks = formatWebhooks(webhooks);
-        return "**Retrieved " + formattedWebhooks.size() + " messages:** \n" + String.join("\n", formattedWebhooks);
+        ResultWindow window = resultBudget.window("list_webhooks:" + channelId, cursor);
+        return ToolResultRenderer.render("**Retrieved " + webhooks.size() + " webhooks:** \n",
+                webhooks, RecordSchemas.WEBHOOKS, OutputFormat.parse(format), fields, window);
     }
 
-    private List<String> formatWebhooks(List<Webhook> webhooks) {
-        return webhooks.stream()
-                .map(w -> String.format("- (ID: %s) **[%s]** ```%s```", w.getId(), w.getName(), w.getUrl()))
-                .toList();
+    /**
+     * Lists the webhooks of every channel in a Discord server with a single request.
+     *
+     * @param guildId Optional ID of the Discord server (guild). If not provided, the default server will be used.
+     * @param format  Optional output format: markdown (default), tsv or jsonl.
+     * @param fields  Optional comma-separated fields to include in tsv/jsonl output.
+     * @param cursor  Optional continuation cursor from a previous truncated response.
+     * @return A formatted string listing the webhooks, including their ID, name, channel, and URL.
+     */
+    @Tool(name = "list_guild_webhooks", description = "List of webhooks on all channels of a server")
+    public String listGuildWebhooks(@ToolParam(description = "Discord server ID", required = false) String guildId,
+                                    @ToolParam(description = RecordSchemas.FORMAT_DESCRIPTION, required = false) String format,
+                                    @ToolParam(description = RecordSchemas.GUILD_WEBHOOK_FIELDS_DESCRIPTION, required = false) String fields,
+                                    @ToolParam(description = ResultBudget.CURSOR_DESCRIPTION, required = false) String cursor) {
+        guildId = resolveGuildId(guildId);
+        if (guildId == null || guildId.isEmpty()) {
+            throw new IllegalArgumentException("guildId cannot be null");
+        }
+
+        Guild guild = gateway.getGuildById(guildId);
+        if (guild == null) {
+            throw new IllegalArgumentException("Discord server not found by guildId");
+        }
+        List<Webhook> webhooks = webhookCache.guild(guild.getIdLong(), () -> guild.retrieveWebhooks().complete());
+        if (webhooks.isEmpty()) {
+            throw new IllegalArgumentException("No webhooks found");
+        }
+        ResultWindow window = resultBudget.window("list_guild_webhooks:" + guildId, cursor);
+        return ToolResultRenderer.render("**Retrieved " + webhooks.size() + " webhooks:** \n",
+                webhooks, RecordSchemas.GUILD_WEBHOOKS, OutputFormat.parse(format), fields, window);
     }
 
     /**
      * Sends a message to a Discord channel using a webhook.
+     * The message is journaled and queued first; messages sent through the same webhook are delivered
+     * in call order and retried on transient errors.
      *
-     * @param webhookUrl The URL of the webhook to use for sending the message.
-     * @param message    The content of the message to be sent.
-     * @return A confirmation message with a link to the sent message.
+     * @param webhookUrl     The URL of the webhook to use for sending the message.
+     * @param message        The content of the message to be sent.
+     * @param wait           Optional flag; false queues the message and returns without waiting for Discord.
+     * @param idempotencyKey Optional key; a message with a key that was used before is not sent again.
+     * @return A confirmation message with a link to the sent message, or the ID of the queued delivery.
      */
     @Tool(name = "send_webhook_message", description = "Send a message via webhook")
     public String sendWebhookMessage(@ToolParam(description = "Discord webhook link") String webhookUrl,
-                                     @ToolParam(description = "Message content") String message) {
+                                     @ToolParam(description = "Message content") String message,
+                                     @ToolParam(description = "Wait until the message is sent (true/false, default true)", required = false) String wait,
+                                     @ToolParam(description = "Idempotency key; a retried call with the same key does not send the message twice", required = false) String idempotencyKey) {
         if (webhookUrl == null || webhookUrl.isEmpty()) {
             throw new IllegalArgumentException("webhookUrl cannot be null");
         }
@@ -113,11 +187,67 @@ public class WebhookService {
             throw new IllegalArgumentException("message cannot be null");
         }
 
-        IncomingWebhookClient webhookClient = WebhookClient.createClient(jda, webhookUrl);
-        if (webhookClient == null) {
-            throw new IllegalArgumentException("Webhook not found by webhookUrl");
+        Delivery delivery = deliveryQueue.enqueue(webhookUrl, message,
+                idempotencyKey == null || idempotencyKey.isEmpty() ? null : idempotencyKey);
+        if (wait != null && wait.equalsIgnoreCase("false")) {
+            return "Message queued for delivery. Delivery ID: " + delivery.getId();
+        }
+        try {
+            delivery.settled().get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            return "Message is still queued (attempt " + delivery.getAttempts() + "). Delivery ID: " + delivery.getId()
+                    + "; check it with get_webhook_delivery";
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Webhook delivery failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending the webhook message");
+        }
+        if (delivery.getStatus() == Delivery.Status.FAILED) {
+            throw new IllegalStateException("Webhook message could not be sent after " + delivery.getAttempts()
+                    + " attempts: " + delivery.getError() + ". Delivery ID: " + delivery.getId());
+        }
+        return "Message sent successfully. Message link: " + delivery.getMessageUrl();
+    }
+
+    /**
+     * Looks up the delivery receipt of a message sent through {@code send_webhook_message}.
+     *
+     * @param deliveryId     The delivery ID returned by send_webhook_message.
+     * @param idempotencyKey The idempotency key the message was sent with, instead of the delivery ID.
+     * @return The status, attempts, timestamps and message link or last error of the delivery.
+     */
+    @Tool(name = "get_webhook_delivery", description = "Get the delivery status of a webhook message by delivery ID or idempotency key")
+    public String getWebhookDelivery(@ToolParam(description = "Delivery ID", required = false) String deliveryId,
+                                     @ToolParam(description = "Idempotency key", required = false) String idempotencyKey) {
+        Delivery delivery;
+        if (deliveryId != null && !deliveryId.isEmpty()) {
+            delivery = deliveryQueue.get(deliveryId);
+        } else if (idempotencyKey != null && !idempotencyKey.isEmpty()) {
+            delivery = deliveryQueue.getByIdempotencyKey(idempotencyKey);
+        } else {
+            throw new IllegalArgumentException("deliveryId or idempotencyKey cannot be null");
+        }
+        if (delivery == null) {
+            throw new IllegalArgumentException("Delivery not found, it may be older than the kept delivery receipts");
+        }
+        StringBuilder receipt = new StringBuilder("Delivery " + delivery.getId() + ": " + delivery.getStatus() + "\n");
+        if (delivery.getIdempotencyKey() != null) {
+            receipt.append(" - Idempotency key: ").append(delivery.getIdempotencyKey()).append("\n");
+        }
+        receipt.append(" - Queued: ").append(delivery.getCreatedAt()).append("\n");
+        receipt.append(" - Updated: ").append(delivery.getUpdatedAt()).append("\n");
+        receipt.append(" - Attempts: ").append(delivery.getAttempts()).append("\n");
+        int position = deliveryQueue.position(delivery);
+        if (position >= 0) {
+            receipt.append(" - Messages ahead on this webhook: ").append(position).append("\n");
+        }
+        if (delivery.getMessageUrl() != null) {
+            receipt.append(" - Message link: ").append(delivery.getMessageUrl()).append("\n");
+        }
+        if (delivery.getError() != null) {
+            receipt.append(" - Last error: ").append(delivery.getError()).append("\n");
         }
-        Message sentMessage = webhookClient.sendMessage(message).complete();
-        return "Message sent successfully. Message link: " + sentMessage.getJumpUrl();
+        return receipt.toString().trim();
     }
 }
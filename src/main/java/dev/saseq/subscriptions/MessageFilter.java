@@ -0,0 +1,43 @@
+package dev.saseq.subscriptions;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+
+import java.util.regex.Pattern;
+
+/**
+ * Criteria a received message must meet to be delivered to a subscription. Null criteria match anything.
+ *
+ * @param guildId         the server the message was sent in
+ * @param channelId       the channel the message was sent in
+ * @param authorId        the author of the message
+ * @param mentionedUserId a user the message must mention
+ * @param pattern         a regular expression that must occur in the raw message content
+ */
+public record MessageFilter(String guildId, String channelId, String authorId, String mentionedUserId, Pattern pattern) {
+
+    public boolean matches(Message message) {
+        if (guildId != null && (!message.isFromGuild() || !guildId.equals(message.getGuild().getId()))) {
+            return false;
+        }
+        if (channelId != null && !channelId.equals(message.getChannelId())) {
+            return false;
+        }
+        if (authorId != null && !authorId.equals(message.getAuthor().getId())) {
+            return false;
+        }
+        if (mentionedUserId != null && !isMentioned(message)) {
+            return false;
+        }
+        return pattern == null || pattern.matcher(message.getContentRaw()).find();
+    }
+
+    private boolean isMentioned(Message message) {
+        for (User user : message.getMentions().getUsers()) {
+            if (user.getId().equals(mentionedUserId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
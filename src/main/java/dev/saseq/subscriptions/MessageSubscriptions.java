@@ -0,0 +1,90 @@
+package dev.saseq.subscriptions;
+
+import net.dv8tion.jda.api.entities.Message;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans messages received from the gateway out to waiting tool calls.
+ * Each subscription owns a bounded queue: publishing offers the message without blocking the
+ * gateway thread, and the waiting call blocks on its queue until a message arrives or the timeout
+ * elapses, so no thread spins while nothing happens.
+ */
+@Component
+public class MessageSubscriptions {
+
+    static final int QUEUE_CAPACITY = 100;
+    private static final int MAX_SUBSCRIPTIONS = 100;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public boolean isEmpty() {
+        return subscriptions.isEmpty();
+    }
+
+    /**
+     * Delivers a message to every subscription whose filter matches it.
+     */
+    public void publish(Message message) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.filter.matches(message) && !subscription.queue.offer(message)) {
+                subscription.dropped = true;
+            }
+        }
+    }
+
+    /**
+     * Opens a subscription; it receives messages published from now on until it is closed.
+     */
+    public Subscription subscribe(MessageFilter filter) {
+        if (subscriptions.size() >= MAX_SUBSCRIPTIONS) {
+            throw new IllegalArgumentException("Too many concurrent waits, the limit is " + MAX_SUBSCRIPTIONS);
+        }
+        Subscription subscription = new Subscription(filter);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final MessageFilter filter;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean dropped;
+
+        private Subscription(MessageFilter filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * Blocks until at least one message arrived or the timeout elapsed, then returns every
+         * message queued so far, up to {@code max}.
+         */
+        public List<Message> await(Duration timeout, int max) throws InterruptedException {
+            List<Message> messages = new ArrayList<>();
+            Message first = queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (first != null) {
+                messages.add(first);
+                queue.drainTo(messages, max - 1);
+            }
+            return messages;
+        }
+
+        /**
+         * Whether messages were dropped because the queue was full.
+         */
+        public boolean hasDropped() {
+            return dropped;
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
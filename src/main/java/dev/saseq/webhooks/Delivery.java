@@ -0,0 +1,163 @@
+package dev.saseq.webhooks;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One message queued for a webhook, with the receipt of its delivery.
+ * The webhook is kept as its ID and token; the token is dropped once the delivery settles.
+ * The line journaled when the delivery was queued keeps the token until compaction rewrites the journal,
+ * after which the journal only holds the tokens of messages still to be sent.
+ * State changes are made by {@link WebhookDeliveryQueue} while holding its lock.
+ */
+public final class Delivery {
+
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+
+    private final String id;
+    private final String idempotencyKey;
+    private final String webhookId;
+    private final String content;
+    private final Instant createdAt;
+    private final CompletableFuture<Delivery> settled = new CompletableFuture<>();
+    private volatile String token;
+    private volatile Status status = Status.PENDING;
+    private volatile int attempts;
+    private volatile Instant updatedAt;
+    private volatile String messageUrl;
+    private volatile String error;
+
+    Delivery(String id, String idempotencyKey, String webhookId, String token, String content, Instant createdAt) {
+        this.id = id;
+        this.idempotencyKey = idempotencyKey;
+        this.webhookId = webhookId;
+        this.token = token;
+        this.content = content;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    static Delivery fromRecord(ObjectNode record) {
+        Delivery delivery = new Delivery(record.get("id").asText(),
+                record.hasNonNull("key") ? record.get("key").asText() : null,
+                record.path("webhook").asText(), record.hasNonNull("token") ? record.get("token").asText() : null,
+                record.path("content").asText(),
+                Instant.ofEpochMilli(record.path("created").asLong()));
+        delivery.status = Status.valueOf(record.path("status").asText(Status.PENDING.name()));
+        delivery.attempts = record.path("attempts").asInt();
+        delivery.updatedAt = Instant.ofEpochMilli(record.path("updated").asLong(record.path("created").asLong()));
+        delivery.messageUrl = record.hasNonNull("message") ? record.get("message").asText() : null;
+        delivery.error = record.hasNonNull("error") ? record.get("error").asText() : null;
+        if (delivery.status != Status.PENDING) {
+            delivery.token = null;
+            delivery.settled.complete(delivery);
+        }
+        return delivery;
+    }
+
+    /**
+     * The full record, as written when the delivery is queued or the journal is compacted.
+     * The webhook token is only written while the delivery is pending.
+     */
+    ObjectNode toRecord() {
+        ObjectNode record = statusRecord();
+        if (idempotencyKey != null) {
+            record.put("key", idempotencyKey);
+        }
+        record.put("webhook", webhookId);
+        if (token != null) {
+            record.put("token", token);
+        }
+        record.put("content", content);
+        record.put("created", createdAt.toEpochMilli());
+        return record;
+    }
+
+    /**
+     * The fields that change while the delivery is processed.
+     */
+    ObjectNode statusRecord() {
+        ObjectNode record = DeliveryJournal.record(id);
+        record.put("status", status.name());
+        record.put("attempts", attempts);
+        record.put("updated", updatedAt.toEpochMilli());
+        if (messageUrl != null) {
+            record.put("message", messageUrl);
+        }
+        if (error != null) {
+            record.put("error", error);
+        }
+        return record;
+    }
+
+    void attempted(String error, Instant now) {
+        this.attempts++;
+        this.error = error;
+        this.updatedAt = now;
+    }
+
+    void settle(Status status, String messageUrl, Instant now) {
+        this.status = status;
+        this.messageUrl = messageUrl;
+        this.updatedAt = now;
+        this.token = null;
+        settled.complete(this);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * The URL to send to; only available while the delivery is pending.
+     */
+    String getWebhookUrl() {
+        return "https://discord.com/api/webhooks/" + webhookId + "/" + token;
+    }
+
+    String getContent() {
+        return content;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getMessageUrl() {
+        return messageUrl;
+    }
+
+    /**
+     * The error of the last failed attempt, or null.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Completes once the delivery is {@link Status#SENT} or {@link Status#FAILED}.
+     */
+    public CompletableFuture<Delivery> settled() {
+        return settled;
+    }
+}
@@ -0,0 +1,229 @@
+package dev.saseq.webhooks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only NDJSON file of webhook delivery records. Every line carries a delivery {@code id};
+ * later lines for the same ID override the fields of earlier ones, so a status change is a small
+ * line rather than a rewrite. Each append is forced to disk before it returns.
+ * {@link #rewrite} replaces the file with one line per live delivery to keep it from growing.
+ * Journals hold webhook tokens, so their files and any directory created for them are readable by
+ * the owner only where the file system supports POSIX permissions.
+ */
+final class DeliveryJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryJournal.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path file;
+    private FileChannel channel;
+    private long appended;
+    // Held until close when the journal was claimed, null otherwise
+    private FileLock claim;
+
+    DeliveryJournal(Path file) {
+        this.file = file;
+        try {
+            createDirectories(file.toAbsolutePath().getParent());
+            this.channel = open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open webhook delivery journal " + file, e);
+        }
+    }
+
+    /**
+     * Opens the first journal in the directory that no other process holds, and holds it until closed.
+     * Processes sharing the directory, such as cluster members on one host, each write their own journal;
+     * a journal left behind by a process that stopped is picked up, with its pending deliveries, by the
+     * next process to start.
+     */
+    static DeliveryJournal claim(Path directory) {
+        try {
+            createDirectories(directory.toAbsolutePath());
+            for (int slot = 0; ; slot++) {
+                String name = slot == 0 ? "deliveries" : "deliveries-" + slot;
+                FileChannel lockFile = open(directory.resolve(name + ".lock"));
+                FileLock lock;
+                try {
+                    lock = lockFile.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    // Held by another journal of this process
+                    lock = null;
+                }
+                if (lock == null) {
+                    lockFile.close();
+                    continue;
+                }
+                try {
+                    DeliveryJournal journal = new DeliveryJournal(directory.resolve(name + ".ndjson"));
+                    journal.claim = lock;
+                    return journal;
+                } catch (RuntimeException e) {
+                    lockFile.close();
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to claim a webhook delivery journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Replays the journal into the latest state of every delivery, in the order they were first recorded.
+     * A line that cannot be parsed, such as one cut short by a crash, is skipped.
+     */
+    synchronized Map<String, ObjectNode> load() {
+        Map<String, ObjectNode> records = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = OBJECT_MAPPER.readTree(line);
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping unreadable line in webhook delivery journal {}", file);
+                    continue;
+                }
+                if (!(node instanceof ObjectNode record) || !record.hasNonNull("id")) {
+                    continue;
+                }
+                ObjectNode existing = records.get(record.get("id").asText());
+                if (existing == null) {
+                    records.put(record.get("id").asText(), record);
+                } else {
+                    existing.setAll(record);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read webhook delivery journal " + file, e);
+        }
+        return records;
+    }
+
+    synchronized void append(ObjectNode record) {
+        try {
+            ByteBuffer line = ByteBuffer.wrap((OBJECT_MAPPER.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            channel.force(false);
+            appended++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write webhook delivery journal " + file, e);
+        }
+    }
+
+    /**
+     * Atomically replaces the journal with the given records.
+     */
+    synchronized void rewrite(Collection<ObjectNode> records) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            StringBuilder content = new StringBuilder();
+            for (ObjectNode record : records) {
+                content.append(OBJECT_MAPPER.writeValueAsString(record)).append('\n');
+            }
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                restrictToOwner(temporary, "rw-------");
+                ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+            }
+            channel.close();
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                appended = 0;
+            } finally {
+                channel = open(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact webhook delivery journal " + file, e);
+        }
+    }
+
+    /**
+     * Number of lines appended since the journal was opened or last rewritten.
+     */
+    synchronized long appended() {
+        return appended;
+    }
+
+    static ObjectNode record(String id) {
+        return OBJECT_MAPPER.createObjectNode().put("id", id);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+            if (claim != null) {
+                claim.channel().close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close webhook delivery journal {}", file, e);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        restrictToOwner(file, "rw-------");
+        return channel;
+    }
+
+    /**
+     * Creates the directory and its missing parents; only the directories created here are restricted,
+     * so pointing the journal at a shared directory leaves that directory's permissions alone.
+     */
+    private static void createDirectories(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        Path parent = directory.getParent();
+        if (parent != null) {
+            createDirectories(parent);
+        }
+        try {
+            Files.createDirectory(directory);
+        } catch (FileAlreadyExistsException e) {
+            // Created by another process starting at the same time
+            return;
+        }
+        restrictToOwner(directory, "rwx------");
+    }
+
+    private static void restrictToOwner(Path path, String permissions) throws IOException {
+        if (Files.getFileAttributeView(path, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(permissions));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package dev.saseq.webhooks;
+
+import dev.saseq.gateway.DiscordGateway;
+import net.dv8tion.jda.api.entities.IncomingWebhookClient;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.WebhookClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reuses webhook clients across {@code send_webhook_message} calls, keyed by webhook ID and token.
+ * Sends are submitted asynchronously; sends through the same webhook are chained so they are
+ * delivered in call order, while different webhooks send in parallel.
+ * When the pool is full, the least recently used idle clients are evicted. Clients with sends in
+ * flight are kept, so an eviction never breaks the order of a webhook's queue.
+ */
+@Component
+public class WebhookClientPool {
+
+    private static final Pattern WEBHOOK_URL = Pattern.compile(
+            "https://(?:[\\w-]+\\.)?discord(?:app)?\\.com/api(?:/v\\d+)?/webhooks/(\\d+)/([\\w-]+)/?(?:\\?.*)?");
+
+    private final Function<String, IncomingWebhookClient> clientFactory;
+    private final Map<String, PooledClient> clients;
+
+    @Autowired
+    public WebhookClientPool(DiscordGateway gateway,
+                             @Value("${DISCORD_WEBHOOK_POOL_SIZE:64}") int maxClients) {
+        this(maxClients, url -> WebhookClient.createClient(gateway.anyShard(), url));
+    }
+
+    WebhookClientPool(int maxClients, Function<String, IncomingWebhookClient> clientFactory) {
+        if (maxClients <= 0) {
+            throw new IllegalArgumentException("DISCORD_WEBHOOK_POOL_SIZE must be positive");
+        }
+        this.clientFactory = clientFactory;
+        this.clients = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PooledClient> eldest) {
+                // Walk from the least recently used entry, never evicting the one just added
+                int candidates = size() - 1;
+                Iterator<PooledClient> iterator = values().iterator();
+                while (size() > maxClients && candidates-- > 0) {
+                    if (iterator.next().isIdle()) {
+                        iterator.remove();
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Queues a message behind the earlier sends of the same webhook.
+     * The client is looked up and the send queued under the pool lock, so an eviction cannot drop the
+     * client in between and let a later send start on a new client ahead of this one.
+     *
+     * @return a future completed with the sent message, or failed with the send error
+     */
+    public synchronized CompletableFuture<Message> send(String webhookUrl, String content) {
+        PooledClient client = clients.computeIfAbsent(webhookKey(webhookUrl),
+                key -> new PooledClient(clientFactory.apply(webhookUrl.trim())));
+        return client.enqueue(content);
+    }
+
+    public synchronized int size() {
+        return clients.size();
+    }
+
+    /**
+     * Returns the webhook ID and token of a webhook URL, the identity its clients are pooled by.
+     */
+    static String webhookKey(String webhookUrl) {
+        Matcher matcher = WEBHOOK_URL.matcher(webhookUrl.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid webhook URL, expected https://discord.com/api/webhooks/<id>/<token>");
+        }
+        return matcher.group(1) + ":" + matcher.group(2);
+    }
+
+    private static final class PooledClient {
+        private final IncomingWebhookClient client;
+        private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+        private PooledClient(IncomingWebhookClient client) {
+            this.client = client;
+        }
+
+        synchronized CompletableFuture<Message> enqueue(String content) {
+            // Run after the previous send settles, whether it succeeded or not
+            CompletableFuture<Message> sent = tail.handle((previous, error) -> null)
+                    .thenCompose(ignored -> client.sendMessage(content).submit());
+            tail = sent;
+            return sent;
+        }
+
+        synchronized boolean isIdle() {
+            return tail.isDone();
+        }
+    }
+}
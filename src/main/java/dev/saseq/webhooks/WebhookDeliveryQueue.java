@@ -0,0 +1,298 @@
+package dev.saseq.webhooks;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.saseq.gateway.GatewayReadiness;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.exceptions.RateLimitedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Durable queue behind {@code send_webhook_message}. Every message is journaled to
+ * {@code DISCORD_WEBHOOK_QUEUE_DIR} before it is sent, so messages still pending when the process
+ * stops are sent after the next start. Each process claims a journal of its own in that directory,
+ * so cluster members sharing it never write the same file.
+ * <p>
+ * Each webhook has its own lane with one request in flight at a time, which keeps its messages in
+ * order; lanes of different webhooks send in parallel. JDA schedules every request in the rate-limit
+ * bucket Discord reports for the webhook, so a lane waits for its bucket instead of running into 429s.
+ * Server errors, timeouts and rate limits JDA gives up on are retried with jittered exponential
+ * backoff while the lane waits; any other error fails the message.
+ * Delivery is at least once: a crash between Discord accepting a message and the journal recording
+ * it sends the message again after the restart.
+ */
+@Component
+public class WebhookDeliveryQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookDeliveryQueue.class);
+
+    static final int MAX_ATTEMPTS = 6;
+    private static final long BASE_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+    private static final int MAX_PENDING = 10_000;
+    private static final int MAX_RECEIPTS = 10_000;
+    private static final int COMPACT_AFTER_LINES = 50_000;
+
+    private final WebhookClientPool clientPool;
+    private final DeliveryJournal journal;
+    private final Clock clock;
+    private final ScheduledExecutorService retries;
+    private final Map<String, Delivery> deliveries = new LinkedHashMap<>();
+    private final Map<String, Delivery> byIdempotencyKey = new HashMap<>();
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private int pending;
+    private boolean started;
+
+    public WebhookDeliveryQueue(WebhookClientPool clientPool,
+                                GatewayReadiness readiness,
+                                @Value("${DISCORD_WEBHOOK_QUEUE_DIR:./webhook-queue}") String queueDir) {
+        this(clientPool, DeliveryJournal.claim(Paths.get(queueDir)), Clock.systemUTC());
+        readiness.whenReady(this::start);
+    }
+
+    WebhookDeliveryQueue(WebhookClientPool clientPool, DeliveryJournal journal, Clock clock) {
+        this.clientPool = clientPool;
+        this.journal = journal;
+        this.clock = clock;
+        this.retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-retries");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (ObjectNode record : journal.load().values()) {
+            Delivery delivery = Delivery.fromRecord(record);
+            track(delivery);
+            if (delivery.getStatus() == Delivery.Status.PENDING) {
+                lane(delivery.getWebhookUrl()).queue.add(delivery);
+            }
+        }
+        trimReceipts();
+        compact();
+        if (pending > 0) {
+            logger.info("Resuming {} pending webhook messages from the delivery journal", pending);
+        }
+    }
+
+    /**
+     * Starts sending; messages queued before the gateway was ready wait until then.
+     */
+    synchronized void start() {
+        started = true;
+        for (Lane lane : new ArrayList<>(lanes.values())) {
+            pump(lane);
+        }
+    }
+
+    /**
+     * Journals a message and queues it behind the earlier messages of the same webhook.
+     * A message with an idempotency key that was queued before is not queued again; the earlier
+     * delivery is returned instead.
+     */
+    public synchronized Delivery enqueue(String webhookUrl, String content, String idempotencyKey) {
+        String webhookKey = WebhookClientPool.webhookKey(webhookUrl);
+        if (idempotencyKey != null) {
+            Delivery existing = byIdempotencyKey.get(idempotencyKey);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        if (pending >= MAX_PENDING) {
+            throw new IllegalArgumentException("Webhook delivery queue is full (" + MAX_PENDING + " pending messages), try again later");
+        }
+        String[] webhook = webhookKey.split(":", 2);
+        Delivery delivery = new Delivery(UUID.randomUUID().toString(), idempotencyKey, webhook[0], webhook[1], content, clock.instant());
+        journal.append(delivery.toRecord());
+        track(delivery);
+        Lane lane = lanes.computeIfAbsent(webhookKey, Lane::new);
+        lane.queue.add(delivery);
+        pump(lane);
+        trimReceipts();
+        if (journal.appended() > COMPACT_AFTER_LINES) {
+            compact();
+        }
+        return delivery;
+    }
+
+    public synchronized Delivery get(String deliveryId) {
+        return deliveries.get(deliveryId);
+    }
+
+    public synchronized Delivery getByIdempotencyKey(String idempotencyKey) {
+        return byIdempotencyKey.get(idempotencyKey);
+    }
+
+    /**
+     * Number of messages queued ahead of a pending delivery on its webhook, or -1 when it is not pending.
+     */
+    public synchronized int position(Delivery delivery) {
+        if (delivery.getStatus() != Delivery.Status.PENDING) {
+            return -1;
+        }
+        Lane lane = lanes.get(WebhookClientPool.webhookKey(delivery.getWebhookUrl()));
+        if (lane == null) {
+            return -1;
+        }
+        int position = 0;
+        for (Delivery queued : lane.queue) {
+            if (queued == delivery) {
+                return position;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    public synchronized int pendingCount() {
+        return pending;
+    }
+
+    @Override
+    public void close() {
+        retries.shutdownNow();
+        journal.close();
+    }
+
+    private void pump(Lane lane) {
+        if (!started || lane.busy) {
+            return;
+        }
+        Delivery delivery = lane.queue.peek();
+        if (delivery == null) {
+            lanes.remove(lane.webhookKey);
+            return;
+        }
+        lane.busy = true;
+        try {
+            clientPool.send(delivery.getWebhookUrl(), delivery.getContent())
+                    .whenComplete((message, error) -> completed(lane, delivery, message, error));
+        } catch (RuntimeException e) {
+            completed(lane, delivery, null, e);
+        }
+    }
+
+    private synchronized void completed(Lane lane, Delivery delivery, Message message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        delivery.attempted(cause == null ? null : describe(cause), clock.instant());
+        if (cause == null) {
+            settle(lane, delivery, Delivery.Status.SENT, message.getJumpUrl());
+            return;
+        }
+        long delay = retryDelayMillis(cause, delivery.getAttempts());
+        if (delay < 0) {
+            logger.warn("Webhook message {} failed after {} attempts: {}", delivery.getId(), delivery.getAttempts(), delivery.getError());
+            settle(lane, delivery, Delivery.Status.FAILED, null);
+            return;
+        }
+        journal.append(delivery.statusRecord());
+        retries.schedule(() -> retry(lane), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void retry(Lane lane) {
+        lane.busy = false;
+        pump(lane);
+    }
+
+    private void settle(Lane lane, Delivery delivery, Delivery.Status status, String messageUrl) {
+        delivery.settle(status, messageUrl, clock.instant());
+        journal.append(delivery.statusRecord());
+        pending--;
+        lane.queue.poll();
+        lane.busy = false;
+        pump(lane);
+    }
+
+    /**
+     * Milliseconds to wait before the next attempt, or -1 when the error is permanent or the attempts are used up.
+     */
+    static long retryDelayMillis(Throwable cause, int attempts) {
+        if (attempts >= MAX_ATTEMPTS) {
+            return -1;
+        }
+        if (cause instanceof RateLimitedException rateLimited) {
+            return rateLimited.getRetryAfter();
+        }
+        boolean transientError = cause instanceof ErrorResponseException response ? response.isServerError()
+                : cause instanceof IOException || cause instanceof TimeoutException;
+        if (!transientError) {
+            return -1;
+        }
+        // Equal jitter: half of the exponential delay is fixed, the other half random
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempts - 1, 16));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private void track(Delivery delivery) {
+        deliveries.put(delivery.getId(), delivery);
+        if (delivery.getIdempotencyKey() != null) {
+            byIdempotencyKey.put(delivery.getIdempotencyKey(), delivery);
+        }
+        if (delivery.getStatus() == Delivery.Status.PENDING) {
+            pending++;
+        }
+    }
+
+    private Lane lane(String webhookUrl) {
+        return lanes.computeIfAbsent(WebhookClientPool.webhookKey(webhookUrl), Lane::new);
+    }
+
+    /**
+     * Forgets the oldest settled deliveries beyond {@link #MAX_RECEIPTS}.
+     */
+    private void trimReceipts() {
+        int excess = deliveries.size() - pending - MAX_RECEIPTS;
+        Iterator<Delivery> iterator = deliveries.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            Delivery delivery = iterator.next();
+            if (delivery.getStatus() != Delivery.Status.PENDING) {
+                iterator.remove();
+                if (delivery.getIdempotencyKey() != null) {
+                    byIdempotencyKey.remove(delivery.getIdempotencyKey(), delivery);
+                }
+                excess--;
+            }
+        }
+    }
+
+    private void compact() {
+        List<ObjectNode> records = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries.values()) {
+            records.add(delivery.toRecord());
+        }
+        journal.rewrite(records);
+    }
+
+    private static String describe(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    private static final class Lane {
+        private final String webhookKey;
+        private final ArrayDeque<Delivery> queue = new ArrayDeque<>();
+        private boolean busy;
+
+        private Lane(String webhookKey) {
+            this.webhookKey = webhookKey;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package dev.saseq.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityStatsTest {
+
+    private static final long GUILD = 1;
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(Duration.ofDays(20_000).toMillis());
+
+    private ActivityStats stats(int maxChannels) {
+        return new ActivityStats(directory, false, maxChannels, now::get);
+    }
+
+    @Test
+    void reportsBusiestChannelsTopAuthorsAndUniqueAuthors() {
+        ActivityStats stats = stats(10);
+        for (int i = 0; i < 30; i++) {
+            stats.record(GUILD, 100, 7, now.get());
+        }
+        for (int i = 0; i < 10; i++) {
+            stats.record(GUILD, 200, 8, now.get());
+            stats.record(GUILD, 100, 9, now.get());
+        }
+        stats.record(GUILD, 200, 0, now.get());
+
+        ActivityStats.Report report = stats.report(GUILD, null, 24, 2);
+
+        assertEquals(51, report.messages());
+        assertEquals(List.of(new ActivityStats.Count(100, 40), new ActivityStats.Count(200, 11)), report.busiest());
+        assertEquals(7, report.topAuthors().get(0).id());
+        assertTrue(report.topAuthors().get(0).count() >= 30);
+        assertEquals(3, report.uniqueAuthors());
+        assertEquals(40, stats.report(GUILD, 100L, 24, 2).messages());
+    }
+
+    @Test
+    void hourlyBucketsRollOverWithTime() {
+        ActivityStats stats = stats(10);
+        stats.record(GUILD, 100, 7, now.get() - 2 * HOUR);
+        stats.record(GUILD, 100, 7, now.get());
+        stats.record(GUILD, 100, 7, now.get());
+
+        assertArrayEquals(new int[]{1, 0, 2}, stats.report(GUILD, null, 3, 5).hourly());
+        assertEquals(2, stats.report(GUILD, null, 1, 5).messages());
+
+        now.addAndGet(Duration.ofDays(8).toMillis());
+        stats.record(GUILD, 100, 8, now.get());
+
+        ActivityStats.Report report = stats.report(GUILD, null, 168, 5);
+        assertEquals(1, report.messages());
+        assertEquals(1, report.uniqueAuthors());
+        assertEquals(List.of(new ActivityStats.Count(8, 1)), report.topAuthors());
+    }
+
+    @Test
+    void snapshotsRestoreTheSketches() throws Exception {
+        ActivityStats stats = stats(10);
+        stats.record(GUILD, 100, 7, now.get());
+        stats.record(GUILD, 200, 8, now.get());
+        stats.snapshot();
+
+        ActivityStats.Report report = stats(10).report(GUILD, null, 24, 5);
+
+        assertEquals(2, report.messages());
+        assertEquals(2, report.uniqueAuthors());
+    }
+
+    @Test
+    void dropsTheLeastRecentlyActiveChannelWhenFull() {
+        ActivityStats stats = stats(2);
+        stats.record(GUILD, 100, 7, now.get() - 5 * HOUR);
+        stats.record(GUILD, 200, 7, now.get() - HOUR);
+        stats.record(GUILD, 300, 7, now.get());
+
+        List<ActivityStats.Count> busiest = stats.report(GUILD, null, 24, 5).busiest();
+
+        assertEquals(List.of(200L, 300L), busiest.stream().map(ActivityStats.Count::id).sorted().toList());
+    }
+
+    @Test
+    void clusterMembersKeepOneSnapshotPerShardRange() throws Exception {
+        ActivityStats first = new ActivityStats(directory, true, 10, now::get);
+        first.useShardRange(0);
+        first.record(GUILD, 100, 7, now.get());
+        first.snapshot();
+        ActivityStats second = new ActivityStats(directory, true, 10, now::get);
+        second.useShardRange(1);
+        second.snapshot();
+
+        ActivityStats takeover = new ActivityStats(directory, true, 10, now::get);
+        assertEquals(0, takeover.report(GUILD, null, 24, 5).messages());
+        takeover.useShardRange(0);
+
+        assertEquals(1, takeover.report(GUILD, null, 24, 5).messages());
+    }
+
+    @Test
+    void authorStatisticsCoverWholeUtcDays() {
+        ActivityStats stats = stats(10);
+        long midnight = now.get() / Duration.ofDays(1).toMillis() * Duration.ofDays(1).toMillis();
+        now.set(midnight + 5 * HOUR);
+        stats.record(GUILD, 100, 7, midnight + HOUR);
+        stats.record(GUILD, 100, 8, now.get());
+
+        ActivityStats.Report report = stats.report(GUILD, null, 1, 5);
+
+        assertEquals(1, report.messages());
+        assertEquals(2, report.uniqueAuthors());
+        assertEquals(midnight, report.authorsSince());
+    }
+}
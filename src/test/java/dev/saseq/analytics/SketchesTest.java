@@ -0,0 +1,58 @@
+package dev.saseq.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SketchesTest {
+
+    @Test
+    void hyperLogLogEstimatesDistinctSnowflakes() {
+        HyperLogLog sketch = new HyperLogLog(ChannelActivity.HLL_PRECISION);
+        long snowflake = 1_100_000_000_000_000_000L;
+        for (int i = 0; i < 20_000; i++) {
+            // Each author posts twice; duplicates must not be counted
+            sketch.add(Hashing.mix(snowflake + i % 10_000));
+        }
+
+        assertEquals(10_000, sketch.estimate(), 1_500);
+    }
+
+    @Test
+    void hyperLogLogIsExactEnoughForSmallCounts() {
+        HyperLogLog sketch = new HyperLogLog(ChannelActivity.HLL_PRECISION);
+        for (long author = 1; author <= 20; author++) {
+            sketch.add(Hashing.mix(author));
+        }
+
+        assertEquals(20, sketch.estimate(), 1);
+    }
+
+    @Test
+    void mergedHyperLogLogsEstimateTheUnion() {
+        HyperLogLog first = new HyperLogLog(ChannelActivity.HLL_PRECISION);
+        HyperLogLog second = new HyperLogLog(ChannelActivity.HLL_PRECISION);
+        for (long author = 0; author < 3_000; author++) {
+            first.add(Hashing.mix(author));
+            second.add(Hashing.mix(author + 1_000));
+        }
+
+        first.merge(second);
+
+        assertEquals(4_000, first.estimate(), 600);
+    }
+
+    @Test
+    void countMinNeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (long item = 0; item < 1_000; item++) {
+            for (int i = 0; i <= item % 5; i++) {
+                sketch.increment(item);
+            }
+        }
+
+        for (long item = 0; item < 1_000; item++) {
+            assertTrue(sketch.estimate(item) >= item % 5 + 1);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package dev.saseq.caches;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuildOwnerCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final GuildOwnerCache cache = new GuildOwnerCache(now::get);
+
+    @Test
+    void returnsTheNameOnlyForTheCurrentOwner() {
+        cache.put(1, 10, "alice");
+
+        assertEquals("alice", cache.get(1, 10));
+        assertNull(cache.get(1, 11));
+        assertNull(cache.get(2, 10));
+    }
+
+    @Test
+    void renameUpdatesEveryGuildOfTheOwner() {
+        cache.put(1, 10, "alice");
+        cache.put(2, 10, "alice");
+        cache.put(3, 11, "bob");
+
+        cache.rename(10, "alicia");
+
+        assertEquals("alicia", cache.get(1, 10));
+        assertEquals("alicia", cache.get(2, 10));
+        assertEquals("bob", cache.get(3, 11));
+    }
+
+    @Test
+    void entriesExpireAfterTheTimeToLive() {
+        cache.put(1, 10, "alice");
+
+        now.addAndGet(Duration.ofHours(7).toNanos());
+
+        assertNull(cache.get(1, 10));
+    }
+}
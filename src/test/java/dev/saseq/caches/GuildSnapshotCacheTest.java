@@ -0,0 +1,67 @@
+package dev.saseq.caches;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuildSnapshotCacheTest {
+
+    private final GuildSnapshotCache cache = new GuildSnapshotCache();
+    private final List<Long> rendered = new ArrayList<>();
+
+    private List<String> snapshot(long... sectionIds) {
+        return cache.get(1L, () -> sectionIds, id -> {
+            rendered.add(id);
+            return "section " + id;
+        });
+    }
+
+    @Test
+    void repeatedSnapshotsRenderNothing() {
+        List<String> first = snapshot(0, 10, 20);
+        List<String> second = snapshot(0, 10, 20);
+
+        assertEquals(List.of("section 0", "section 10", "section 20"), first);
+        assertSame(first, second);
+        assertEquals(List.of(0L, 10L, 20L), rendered);
+    }
+
+    @Test
+    void invalidationRerendersOnlyTheAffectedSection() {
+        snapshot(0, 10, 20);
+        rendered.clear();
+
+        cache.invalidateSection(1L, 10);
+        List<String> sections = snapshot(0, 10, 20);
+
+        assertEquals(3, sections.size());
+        assertEquals(List.of(10L), rendered);
+    }
+
+    @Test
+    void layoutChangesReuseRenderedSections() {
+        snapshot(10, 20);
+        rendered.clear();
+
+        cache.invalidateLayout(1L);
+        List<String> sections = snapshot(20, 10, 30);
+
+        assertEquals(List.of("section 20", "section 10", "section 30"), sections);
+        assertEquals(List.of(30L), rendered);
+    }
+
+    @Test
+    void renderRacingAnInvalidationIsNotCached() {
+        cache.get(1L, () -> new long[]{10}, id -> {
+            cache.invalidateSection(1L, id);
+            return "stale";
+        });
+
+        List<String> sections = snapshot(10);
+
+        assertEquals(List.of("section 10"), sections);
+    }
+}
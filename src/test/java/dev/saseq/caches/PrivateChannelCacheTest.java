@@ -0,0 +1,46 @@
+package dev.saseq.caches;
+
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PrivateChannelCacheTest {
+
+    private final PrivateChannelCache cache = new PrivateChannelCache();
+    // Private channels known to the current JDA session, by channel ID
+    private final Map<String, PrivateChannel> session = new HashMap<>();
+
+    @Test
+    void resolvesTheCachedIdAgainstTheCurrentSession() {
+        cache.put("10", channel("500"));
+        // After a reconnect the session holds a new entity for the same channel
+        PrivateChannel reconnected = channel("500");
+        session.put("500", reconnected);
+
+        assertSame(reconnected, cache.get("10", session::get));
+        assertNull(cache.get("11", session::get));
+    }
+
+    @Test
+    void channelUnknownToTheSessionIsDropped() {
+        cache.put("10", channel("500"));
+
+        assertNull(cache.get("10", session::get));
+
+        // The entry is gone, so the channel is not looked up again once the session learns it
+        session.put("500", channel("500"));
+        assertNull(cache.get("10", session::get));
+    }
+
+    private static PrivateChannel channel(String id) {
+        PrivateChannel channel = mock(PrivateChannel.class);
+        when(channel.getId()).thenReturn(id);
+        return channel;
+    }
+}
@@ -0,0 +1,48 @@
+package dev.saseq.caches;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final TtlCache<String, String> cache = new TtlCache<>(2, now::get);
+
+    @Test
+    void returnsValueUntilItExpires() {
+        cache.put("a", "alpha", Duration.ofSeconds(10));
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals("alpha", cache.get("a"));
+
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        cache.put("a", "alpha", Duration.ofMinutes(1));
+        cache.put("b", "beta", Duration.ofMinutes(1));
+        cache.get("a");
+
+        cache.put("c", "gamma", Duration.ofMinutes(1));
+
+        assertEquals("alpha", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("gamma", cache.get("c"));
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        cache.put("a", "alpha", Duration.ofMinutes(1));
+
+        cache.invalidate("a");
+
+        assertNull(cache.get("a"));
+    }
+}
@@ -0,0 +1,92 @@
+package dev.saseq.caches;
+
+import net.dv8tion.jda.api.entities.Webhook;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WebhookCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final WebhookCache cache = new WebhookCache(true, now::get);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private static Webhook webhook(long id, long channelId) {
+        Webhook webhook = mock(Webhook.class, RETURNS_DEEP_STUBS);
+        when(webhook.getIdLong()).thenReturn(id);
+        when(webhook.getChannel().getIdLong()).thenReturn(channelId);
+        return webhook;
+    }
+
+    private List<Webhook> load(Webhook... webhooks) {
+        loads.incrementAndGet();
+        return List.of(webhooks);
+    }
+
+    @Test
+    void channelInventoryIsCachedUntilAWebhookUpdate() {
+        Webhook webhook = webhook(1, 10);
+
+        cache.channel(100, 10, () -> load(webhook));
+        assertEquals(List.of(webhook), cache.channel(100, 10, () -> load(webhook)));
+        assertEquals(1, loads.get());
+
+        cache.invalidate(100, 10);
+        cache.channel(100, 10, () -> load(webhook));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void guildListingAnswersChannelLookups() {
+        Webhook first = webhook(1, 10);
+        Webhook second = webhook(2, 20);
+        cache.guild(100, () -> load(first, second));
+
+        assertEquals(List.of(second), cache.channel(100, 20, () -> load()));
+        assertEquals(List.of(), cache.channel(100, 30, () -> load()));
+        assertSame(first, cache.find(1));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void listingRacingAnUpdateIsNotStored() {
+        Webhook webhook = webhook(1, 10);
+
+        cache.guild(100, () -> {
+            cache.invalidate(100, 10);
+            return load(webhook);
+        });
+        cache.guild(100, () -> load(webhook));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void inventoriesExpireAfterTheTimeToLive() {
+        cache.channel(100, 10, () -> load(webhook(1, 10)));
+
+        now.addAndGet(Duration.ofHours(1).toNanos());
+
+        assertNull(cache.find(1));
+        cache.channel(100, 10, () -> load());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void disabledCacheListsEveryTime() {
+        WebhookCache disabled = new WebhookCache(false, now::get);
+        Webhook webhook = webhook(1, 10);
+
+        disabled.guild(100, () -> load(webhook));
+        disabled.channel(100, 10, () -> load(webhook));
+
+        assertEquals(2, loads.get());
+        assertNull(disabled.find(1));
+    }
+}
@@ -0,0 +1,72 @@
+package dev.saseq.changes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeJournalTest {
+
+    @Test
+    void returnsOnlyChangesAfterTheCursor() {
+        ChangeJournal journal = new ChangeJournal(10);
+        journal.record(1L, "message_create", "10", "100", "first");
+        ChangeJournal.Page first = journal.since(null, null, null, 10);
+        journal.record(1L, "message_create", "10", "101", "second");
+
+        ChangeJournal.Page second = journal.since(first.cursor(), null, null, 10);
+
+        assertEquals(1, first.changes().size());
+        assertEquals(1, second.changes().size());
+        assertEquals("second", second.changes().get(0).summary());
+        assertFalse(second.overflow());
+        assertEquals(0, journal.since(second.cursor(), null, null, 10).changes().size());
+    }
+
+    @Test
+    void filtersByGuildAndTypeAndPagesWithTheLimit() {
+        ChangeJournal journal = new ChangeJournal(10);
+        journal.record(1L, "member_join", null, "200", "a joined");
+        journal.record(2L, "member_join", null, "201", "b joined");
+        journal.record(1L, "message_create", "10", "100", "hello");
+        journal.record(1L, "member_join", null, "202", "c joined");
+
+        ChangeJournal.Page page = journal.since(null, 1L, Set.of("member_join"), 1);
+        ChangeJournal.Page next = journal.since(page.cursor(), 1L, Set.of("member_join"), 1);
+
+        assertEquals("a joined", page.changes().get(0).summary());
+        assertTrue(page.more());
+        assertEquals("c joined", next.changes().get(0).summary());
+        assertFalse(next.more());
+    }
+
+    @Test
+    void signalsOverflowWhenTheCursorFellOutOfTheRing() {
+        ChangeJournal journal = new ChangeJournal(3);
+        journal.record(1L, "message_create", "10", "100", "m0");
+        String cursor = journal.since(null, null, null, 10).cursor();
+        for (int i = 1; i <= 5; i++) {
+            journal.record(1L, "message_create", "10", "10" + i, "m" + i);
+        }
+
+        ChangeJournal.Page page = journal.since(cursor, null, null, 10);
+
+        assertTrue(page.overflow());
+        assertEquals(3, page.changes().size());
+        assertEquals("m3", page.changes().get(0).summary());
+    }
+
+    @Test
+    void cursorsFromAnotherJournalOverflow() {
+        ChangeJournal previous = new ChangeJournal(3);
+        ChangeJournal journal = new ChangeJournal(3);
+        journal.record(1L, "channel_create", "10", "10", "created");
+
+        ChangeJournal.Page page = journal.since(previous.latestCursor(), null, null, 10);
+
+        assertTrue(page.overflow());
+        assertEquals(1, page.changes().size());
+        assertThrows(IllegalArgumentException.class, () -> journal.since("not a cursor!", null, null, 10));
+    }
+}
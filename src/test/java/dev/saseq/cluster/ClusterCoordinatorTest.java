@@ -0,0 +1,60 @@
+package dev.saseq.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClusterCoordinatorTest {
+
+    @TempDir
+    Path clusterDir;
+
+    @Test
+    void standbyStartsWithoutWaitingForALease() throws Exception {
+        ClusterCoordinator owner = coordinator(1);
+        owner.start().get();
+        ClusterCoordinator standby = coordinator(1);
+
+        CompletableFuture<ShardLease> claim = standby.start();
+
+        assertFalse(claim.isDone());
+        assertFalse(standby.isLocal(0));
+    }
+
+    @Test
+    void membersLocateChannelsAndForwardCalls() throws Exception {
+        ClusterCoordinator first = coordinator(2);
+        first.start().get();
+        ClusterCoordinator second = coordinator(2);
+        second.start().get();
+        long guildId = 1L << 22;
+        second.serve(new ToolCallback[]{tool("send_message", "sent")}, channelId -> channelId.equals("55") ? guildId : 0);
+        first.serve(new ToolCallback[0], channelId -> 0);
+
+        assertEquals(guildId, first.guildOfChannel("55"));
+        assertEquals(0, first.guildOfChannel("56"));
+        assertEquals("sent", first.forward(first.shardOf(guildId), "send_message", "{}", Duration.ZERO));
+    }
+
+    private ClusterCoordinator coordinator(int shards) {
+        return new ClusterCoordinator(clusterDir.toString(), String.valueOf(shards), 1, 0);
+    }
+
+    private static ToolCallback tool(String name, String result) {
+        ToolDefinition definition = mock(ToolDefinition.class);
+        when(definition.name()).thenReturn(name);
+        ToolCallback tool = mock(ToolCallback.class);
+        when(tool.getToolDefinition()).thenReturn(definition);
+        when(tool.call("{}")).thenReturn(result);
+        return tool;
+    }
+}
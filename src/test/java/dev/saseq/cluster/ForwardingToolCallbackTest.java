@@ -0,0 +1,105 @@
+package dev.saseq.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ForwardingToolCallbackTest {
+
+    // (guildId >> 22) % 2 puts these guilds on shards 0 and 1; this process runs shard 0
+    private static final long LOCAL_GUILD = 2L << 22;
+    private static final long REMOTE_GUILD = 1L << 22;
+
+    private final Map<String, Long> channelGuilds = Map.of("55", REMOTE_GUILD);
+    private final List<String> forwarded = new ArrayList<>();
+    private boolean runsShardZero = true;
+
+    private final ClusterCoordinator coordinator = new ClusterCoordinator("", "0", 1, 0) {
+        @Override
+        public int shardOf(long guildId) {
+            return (int) ((guildId >>> 22) % 2);
+        }
+
+        @Override
+        public boolean isLocal(int shardId) {
+            return shardId == 0 && runsShardZero;
+        }
+
+        @Override
+        public long guildOfChannel(String channelId) {
+            return channelGuilds.getOrDefault(channelId, 0L);
+        }
+
+        @Override
+        public String forward(int shardId, String toolName, String toolInput, Duration callTime) {
+            forwarded.add(toolName + " to shard " + shardId + " for " + callTime.toSeconds() + "s");
+            return "forwarded";
+        }
+    };
+
+    @Test
+    void callForALocalGuildRunsHere() {
+        String result = forwarding("list_members", "{\"guildId\":\"" + LOCAL_GUILD + "\"}", null, "guildId");
+
+        assertEquals("local", result);
+        assertEquals(List.of(), forwarded);
+    }
+
+    @Test
+    void channelCallIsForwardedToTheOwnerOfTheChannelsGuild() {
+        String result = forwarding("send_message", "{\"channelId\":\"55\",\"message\":\"hi\"}",
+                String.valueOf(LOCAL_GUILD), "channelId", "message");
+
+        assertEquals("forwarded", result);
+        assertEquals(List.of("send_message to shard 1 for 0s"), forwarded);
+    }
+
+    @Test
+    void channelTakesPrecedenceOverTheDefaultGuildAndTheWaitExtendsTheTimeout() {
+        forwarding("wait_for_messages", "{\"channelId\":\"55\",\"timeout\":\"300\"}",
+                String.valueOf(LOCAL_GUILD), "guildId", "channelId", "timeout");
+
+        assertEquals(List.of("wait_for_messages to shard 1 for 300s"), forwarded);
+    }
+
+    @Test
+    void unknownChannelRunsHere() {
+        String result = forwarding("read_messages", "{\"channelId\":\"56\"}", null, "channelId");
+
+        assertEquals("local", result);
+    }
+
+    @Test
+    void directMessageCallIsForwardedToShardZero() {
+        runsShardZero = false;
+
+        String result = forwarding("send_private_message", "{\"userId\":\"7\",\"message\":\"hi\"}", null,
+                "userId", "message");
+
+        assertEquals("forwarded", result);
+        assertEquals(List.of("send_private_message to shard 0 for 0s"), forwarded);
+    }
+
+    private String forwarding(String name, String input, String defaultGuildId, String... parameters) {
+        StringBuilder schema = new StringBuilder("{\"type\":\"object\",\"properties\":{");
+        for (int i = 0; i < parameters.length; i++) {
+            schema.append(i == 0 ? "" : ",").append('"').append(parameters[i]).append("\":{\"type\":\"string\"}");
+        }
+        ToolDefinition definition = mock(ToolDefinition.class);
+        when(definition.name()).thenReturn(name);
+        when(definition.inputSchema()).thenReturn(schema.append("}}").toString());
+        ToolCallback tool = mock(ToolCallback.class);
+        when(tool.getToolDefinition()).thenReturn(definition);
+        when(tool.call(input)).thenReturn("local");
+        return new ForwardingToolCallback(tool, coordinator, defaultGuildId).call(input);
+    }
+}
@@ -0,0 +1,63 @@
+package dev.saseq.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardLeaseManagerTest {
+
+    @TempDir
+    Path leaseDir;
+
+    @Test
+    void processesClaimDistinctRanges() {
+        ShardLeaseManager first = new ShardLeaseManager(leaseDir, 5, 2);
+        ShardLeaseManager second = new ShardLeaseManager(leaseDir, 5, 2);
+        ShardLeaseManager third = new ShardLeaseManager(leaseDir, 5, 2);
+
+        ShardLease a = first.tryClaim(4001).orElseThrow();
+        ShardLease b = second.tryClaim(4002).orElseThrow();
+        ShardLease c = third.tryClaim(4003).orElseThrow();
+
+        assertEquals(3, first.rangeCount());
+        assertEquals(0, a.firstShard());
+        assertEquals(1, a.lastShard());
+        assertEquals(2, b.firstShard());
+        assertEquals(3, b.lastShard());
+        assertEquals(4, c.firstShard());
+        assertEquals(4, c.lastShard());
+        assertEquals(4002, first.ownerPort(1));
+        a.release();
+        b.release();
+        c.release();
+    }
+
+    @Test
+    void standbyTakesOverReleasedRange() {
+        ShardLeaseManager owner = new ShardLeaseManager(leaseDir, 2, 2);
+        ShardLeaseManager standby = new ShardLeaseManager(leaseDir, 2, 2);
+
+        ShardLease lease = owner.tryClaim(4001).orElseThrow();
+        Optional<ShardLease> whileHeld = standby.tryClaim(4002);
+        lease.release();
+        Optional<ShardLease> afterRelease = standby.tryClaim(4002);
+
+        assertTrue(whileHeld.isEmpty());
+        assertTrue(afterRelease.isPresent());
+        assertEquals(0, afterRelease.get().range());
+        assertEquals(4002, owner.ownerPort(0));
+        afterRelease.get().release();
+    }
+
+    @Test
+    void unclaimedRangeHasNoOwner() {
+        ShardLeaseManager manager = new ShardLeaseManager(leaseDir, 4, 1);
+
+        assertEquals(-1, manager.ownerPort(3));
+        assertEquals(2, manager.rangeOf(2));
+    }
+}
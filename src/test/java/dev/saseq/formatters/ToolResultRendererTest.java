@@ -0,0 +1,149 @@
+package dev.saseq.formatters;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolResultRendererTest {
+
+    private record Item(String id, String name, OffsetDateTime time) {
+    }
+
+    private static final RecordSchema<Item> SCHEMA = RecordSchema.<Item>builder()
+            .key(Item::id)
+            .field("id", Item::id)
+            .field("name", Item::name)
+            .optionalField("time", Item::time)
+            .markdown((out, item) -> out.append("- ").append(item.name()).append(" (ID: ").append(item.id()).append(')'))
+            .build();
+
+    private final List<Item> items = List.of(
+            new Item("1", "general", OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(5)),
+            new Item("2", "off\ttopic \"chat\"", OffsetDateTime.now(ZoneOffset.UTC).minusDays(3)));
+
+    @Test
+    void markdownUsesTitleAndSchemaLines() {
+        String result = ToolResultRenderer.render("Retrieved 2 items:\n", items, SCHEMA, OutputFormat.MARKDOWN, null);
+
+        assertEquals("Retrieved 2 items:\n- general (ID: 1)\n- off\ttopic \"chat\" (ID: 2)", result);
+    }
+
+    @Test
+    void tsvWritesHeaderAndEscapesTabs() {
+        String result = ToolResultRenderer.render("ignored", items, SCHEMA, OutputFormat.TSV, null);
+
+        assertEquals("id\tname\n1\tgeneral\n2\toff\\ttopic \"chat\"", result);
+    }
+
+    @Test
+    void jsonLinesProjectsFieldsAndUsesRelativeTimestamps() {
+        String result = ToolResultRenderer.render("ignored", items, SCHEMA, OutputFormat.JSONL, "name, time");
+
+        assertEquals("{\"name\":\"general\",\"time\":\"5m\"}\n{\"name\":\"off\\ttopic \\\"chat\\\"\",\"time\":\"3d\"}", result);
+    }
+
+    @Test
+    void unknownFieldIsRejected() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> ToolResultRenderer.render("ignored", items, SCHEMA, OutputFormat.TSV, "id,owner"));
+
+        assertTrue(error.getMessage().contains("owner"));
+        assertTrue(error.getMessage().contains("id, name, time"));
+    }
+
+    @Test
+    void formatParsingDefaultsToMarkdown() {
+        assertEquals(OutputFormat.MARKDOWN, OutputFormat.parse(null));
+        assertEquals(OutputFormat.MARKDOWN, OutputFormat.parse(""));
+        assertEquals(OutputFormat.JSONL, OutputFormat.parse("JsonL"));
+        assertThrows(IllegalArgumentException.class, () -> OutputFormat.parse("xml"));
+    }
+
+    @Test
+    void appendAgeUsesLargestWholeUnit() {
+        OffsetDateTime epoch = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        long base = epoch.toEpochSecond();
+
+        assertEquals("45s", age(epoch, base + 45));
+        assertEquals("2m", age(epoch, base + 150));
+        assertEquals("3h", age(epoch, base + 3 * 3600 + 59));
+        assertEquals("9d", age(epoch, base + 9 * 86400));
+        assertEquals("0s", age(epoch, base - 10));
+    }
+
+    private static String age(OffsetDateTime time, long now) {
+        StringBuilder out = new StringBuilder();
+        ToolResultRenderer.appendAge(out, time, now);
+        return out.toString();
+    }
+
+    @Test
+    void budgetTruncatesAtRecordBoundaryAndContinuesFromCursor() {
+        ResultBudget budget = new ResultBudget(40);
+        ResultWindow first = budget.window("list:1", null);
+
+        String page = ToolResultRenderer.render("Retrieved 2 items:\n", items, SCHEMA, OutputFormat.MARKDOWN, null, first);
+
+        assertTrue(page.startsWith("Retrieved 2 items:\n- general (ID: 1)\n[truncated: showing 1-1 of 2; continue with cursor="));
+        String cursor = page.substring(page.indexOf("cursor=") + 7, page.length() - 1);
+
+        ResultWindow next = budget.window("list:1", cursor);
+        assertEquals(1, next.offset());
+        assertEquals("1", next.after());
+
+        String rest = ToolResultRenderer.render("Retrieved 2 items:\n", items, SCHEMA, OutputFormat.TSV, null, next);
+        assertEquals("id\tname\n2\toff\\ttopic \"chat\"", rest);
+    }
+
+    @Test
+    void budgetAlwaysWritesAtLeastOneRecord() {
+        ResultWindow window = new ResultBudget(1).window("list:1", null);
+
+        String page = ToolResultRenderer.render("", items, SCHEMA, OutputFormat.JSONL, "id", window);
+
+        assertTrue(page.startsWith("{\"id\":\"1\"}\n[truncated: showing 1-1 of 2;"));
+    }
+
+    @Test
+    void truncationMarkerFitsInsideTheBudget() {
+        List<Item> many = IntStream.range(0, 200)
+                .mapToObj(i -> new Item(String.valueOf(i), "channel-" + i, null))
+                .toList();
+        ResultBudget budget = new ResultBudget(300);
+
+        String page = ToolResultRenderer.render("", many, SCHEMA, OutputFormat.JSONL, "id,name", budget.window("list:1", null));
+
+        assertTrue(page.contains("[truncated: showing 1-"));
+        assertTrue(page.length() <= 300, "page of " + page.length() + " chars exceeds the budget");
+        assertTrue(page.lines().count() > 2, "the budget should still be used for several records");
+    }
+
+    @Test
+    void pageOfAKeyedListingContinuesWhenTheWholePageFits() {
+        ResultWindow window = new ResultBudget(16_000).window("list:1", null);
+
+        String page = ToolResultRenderer.renderPage("", items, 10, 30, SCHEMA, OutputFormat.JSONL, "id", window);
+
+        assertTrue(page.startsWith("{\"id\":\"1\"}\n{\"id\":\"2\"}\n[truncated: showing 11-12 of 30;"), page);
+        String cursor = page.substring(page.indexOf("cursor=") + 7, page.length() - 1);
+        assertEquals("2", new ResultBudget(16_000).window("list:1", cursor).after());
+
+        String last = ToolResultRenderer.renderPage("", items, 28, 30, SCHEMA, OutputFormat.JSONL, "id", window);
+        assertEquals("{\"id\":\"1\"}\n{\"id\":\"2\"}", last);
+    }
+
+    @Test
+    void cursorFromAnotherListingIsRejected() {
+        ResultBudget budget = new ResultBudget(40);
+        String page = ToolResultRenderer.render("", items, SCHEMA, OutputFormat.JSONL, null, budget.window("list:1", null));
+        String cursor = page.substring(page.indexOf("cursor=") + 7, page.length() - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> budget.window("list:2", cursor));
+        assertThrows(IllegalArgumentException.class, () -> budget.window("list:1", "not a cursor"));
+    }
+}
@@ -0,0 +1,46 @@
+package dev.saseq.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayReadinessTest {
+
+    @Test
+    void readyOnceEveryExpectedShardIsReady() {
+        GatewayReadiness readiness = new GatewayReadiness();
+        readiness.expectShards(2);
+
+        readiness.markReady(0);
+        boolean readyAfterFirst = readiness.isReady();
+        readiness.markReady(1);
+
+        assertFalse(readyAfterFirst);
+        assertTrue(readiness.isReady());
+        assertTrue(readiness.awaitReady(Duration.ZERO));
+    }
+
+    @Test
+    void shardsReadyBeforeTheCountIsKnownAreCounted() {
+        GatewayReadiness readiness = new GatewayReadiness();
+
+        readiness.markReady(0);
+        boolean readyBeforeCount = readiness.isReady();
+        readiness.expectShards(1);
+
+        assertFalse(readyBeforeCount);
+        assertTrue(readiness.isReady());
+    }
+
+    @Test
+    void boundedWaitTimesOutWhileConnecting() {
+        GatewayReadiness readiness = new GatewayReadiness();
+        readiness.expectShards(1);
+
+        assertFalse(readiness.awaitReady(Duration.ofMillis(20)));
+        assertEquals(0, readiness.readyShards());
+        assertEquals(1, readiness.expectedShards());
+    }
+}
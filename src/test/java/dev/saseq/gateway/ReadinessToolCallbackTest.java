@@ -0,0 +1,42 @@
+package dev.saseq.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadinessToolCallbackTest {
+
+    private final GatewayReadiness readiness = new GatewayReadiness();
+
+    @Test
+    void markdownResultIsFlaggedWhileConnecting() {
+        String result = callWhileConnecting("{\"format\":\"markdown\"}", "- general");
+
+        assertTrue(result.startsWith("- general\n[partial: "), result);
+    }
+
+    @Test
+    void callWithoutFormatIsFlaggedAsMarkdown() {
+        String result = callWhileConnecting("{}", "- general");
+
+        assertTrue(result.contains("[partial: "), result);
+    }
+
+    @Test
+    void jsonlAndTsvResultsAreLeftParseable() {
+        assertEquals("{\"id\":\"1\"}", callWhileConnecting("{\"format\":\"jsonl\"}", "{\"id\":\"1\"}"));
+        assertEquals("id\n1", callWhileConnecting("{\"format\":\"TSV\"}", "id\n1"));
+    }
+
+    private String callWhileConnecting(String input, String result) {
+        readiness.expectShards(1);
+        ToolCallback tool = mock(ToolCallback.class);
+        when(tool.call(input)).thenReturn(result);
+        return new ReadinessToolCallback(tool, readiness, Duration.ZERO).call(input);
+    }
+}
@@ -0,0 +1,31 @@
+package dev.saseq.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardMetricsTest {
+
+    @Test
+    void countsEventsPerShard() {
+        ShardMetrics metrics = new ShardMetrics();
+
+        metrics.recordEvent(0);
+        metrics.recordEvent(0);
+        metrics.recordEvent(3);
+
+        assertEquals(2, metrics.totalEvents(0));
+        assertEquals(2, metrics.eventsLastMinute(0));
+        assertEquals(1, metrics.totalEvents(3));
+        assertTrue(metrics.lastEventSecond(3) > 0);
+    }
+
+    @Test
+    void unknownShardHasNoEvents() {
+        ShardMetrics metrics = new ShardMetrics();
+
+        assertEquals(0, metrics.totalEvents(7));
+        assertEquals(0, metrics.eventsLastMinute(7));
+        assertEquals(0, metrics.lastEventSecond(7));
+    }
+}
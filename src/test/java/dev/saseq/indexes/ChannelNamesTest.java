@@ -0,0 +1,52 @@
+package dev.saseq.indexes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelNamesTest {
+
+    private ChannelNames names;
+
+    @BeforeEach
+    void setUp() {
+        names = new ChannelNames(Map.of(
+                10L, "general",
+                11L, "General",
+                12L, "announcements",
+                13L, "Übersicht"));
+    }
+
+    @Test
+    void exactLookupIgnoresCaseAndReturnsOnlyMatchingChannels() {
+        assertArrayEquals(new long[]{10L, 11L}, names.exact("GENERAL"));
+        assertArrayEquals(new long[]{13L}, names.exact("übersicht"));
+        assertEquals(0, names.exact("random").length);
+    }
+
+    @Test
+    void repeatedExactLookupsReturnTheSameArray() {
+        assertSame(names.exact("general"), names.exact("General"));
+    }
+
+    @Test
+    void updatesReplaceRenamedAndDeletedChannels() {
+        names.put(12L, "news");
+        names.remove(11L);
+        names.put(14L, "general");
+
+        assertEquals(0, names.exact("announcements").length);
+        assertArrayEquals(new long[]{12L}, names.exact("news"));
+        assertArrayEquals(new long[]{10L, 14L}, names.exact("general"));
+        assertEquals(4, names.size());
+    }
+
+    @Test
+    void misspelledNamesAreFoundByFuzzySearch() {
+        assertEquals(12L, names.search("anouncements", 1).get(0).id());
+        assertEquals(12L, names.prefix("ann", 5).get(0).id());
+    }
+}
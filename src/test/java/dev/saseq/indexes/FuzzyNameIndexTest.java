@@ -0,0 +1,89 @@
+package dev.saseq.indexes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyNameIndexTest {
+
+    private FuzzyNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyNameIndex(100);
+        index.put(1L, "johnsmith", "John", "Johnny S");
+        index.put(2L, "johnny_b", null, "");
+        index.put(3L, "alice", "Alice W.", "ally");
+    }
+
+    @Test
+    void exactLookupIsCaseInsensitiveAcrossAllNames() {
+        assertArrayEquals(new long[]{1L}, index.exact("JOHN"));
+        assertArrayEquals(new long[]{3L}, index.exact("ally"));
+        assertEquals(0, index.exact("bob").length);
+    }
+
+    @Test
+    void prefixLookupRanksShorterNamesFirst() {
+        List<FuzzyNameIndex.Match> matches = index.prefix("john", 10);
+
+        assertEquals(2, matches.size());
+        assertEquals(1L, matches.get(0).id());
+        assertEquals("john", matches.get(0).name());
+        assertEquals(2L, matches.get(1).id());
+    }
+
+    @Test
+    void fuzzySearchFindsMisspelledNames() {
+        List<FuzzyNameIndex.Match> matches = index.search("alcie", 5);
+
+        assertFalse(matches.isEmpty());
+        assertEquals(3L, matches.get(0).id());
+    }
+
+    @Test
+    void fuzzySearchRanksExactMatchFirst() {
+        List<FuzzyNameIndex.Match> matches = index.search("johnny_b", 5);
+
+        assertEquals(2L, matches.get(0).id());
+        assertEquals(1.0, matches.get(0).score(), 0.0);
+    }
+
+    @Test
+    void putReplacesPreviousNamesAndRemoveForgetsEntity() {
+        index.put(3L, "alicia");
+
+        assertEquals(0, index.exact("ally").length);
+        assertArrayEquals(new long[]{3L}, index.exact("alicia"));
+
+        index.remove(3L);
+
+        assertEquals(0, index.exact("alicia").length);
+        assertTrue(index.search("alicia", 5).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void removedOrdinalsAreReused() {
+        index.remove(2L);
+        index.put(4L, "bob");
+
+        assertArrayEquals(new long[]{4L}, index.exact("bob"));
+        assertArrayEquals(new long[]{1L}, index.exact("johnsmith"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void nameBudgetMarksIndexIncomplete() {
+        FuzzyNameIndex small = new FuzzyNameIndex(2);
+        small.put(1L, "a", "b");
+        small.put(2L, "c");
+
+        assertFalse(small.isComplete());
+        assertEquals(1, small.size());
+        assertEquals(0, small.exact("c").length);
+    }
+}
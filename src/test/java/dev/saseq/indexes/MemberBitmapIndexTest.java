@@ -0,0 +1,100 @@
+package dev.saseq.indexes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberBitmapIndexTest {
+
+    private static final long ADMIN = 100L;
+    private static final long MOD = 200L;
+
+    private MemberBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MemberBitmapIndex();
+        index.put(1L, 1_000L, new long[]{ADMIN, MOD}, "ONLINE", false);
+        index.put(2L, 2_000L, new long[]{MOD}, "OFFLINE", false);
+        index.put(3L, 3_000L, new long[]{}, "ONLINE", true);
+        index.put(4L, 4_000L, new long[]{MOD}, "IDLE", false);
+    }
+
+    @Test
+    void unfilteredQueryReturnsNewestMembersFirst() {
+        assertArrayEquals(new long[]{4L, 3L, 2L, 1L}, index.query(filter(null, null, null, null, null)));
+    }
+
+    @Test
+    void compoundFilterIntersectsRolesStatusAndJoinRange() {
+        assertArrayEquals(new long[]{4L, 2L}, index.query(filter(new long[]{MOD}, 1_500L, null, null, null)));
+        assertArrayEquals(new long[]{1L}, index.query(filter(new long[]{MOD, ADMIN}, null, null, "ONLINE", null)));
+        assertArrayEquals(new long[]{2L}, index.query(filter(new long[]{MOD}, 2_000L, 3_000L, null, null)));
+        assertEquals(0, index.query(filter(new long[]{999L}, null, null, null, null)).length);
+    }
+
+    @Test
+    void botFilterIncludesOrExcludesBots() {
+        assertArrayEquals(new long[]{3L}, index.query(filter(null, null, null, null, true)));
+        assertArrayEquals(new long[]{4L, 2L, 1L}, index.query(filter(null, null, null, null, false)));
+    }
+
+    @Test
+    void roleAndStatusUpdatesAreReflected() {
+        index.setRole(2L, ADMIN, true);
+        index.setRole(1L, ADMIN, false);
+        index.setStatus(2L, "ONLINE");
+
+        assertArrayEquals(new long[]{2L}, index.query(filter(new long[]{ADMIN}, null, null, "ONLINE", null)));
+    }
+
+    @Test
+    void removedMembersAndDeletedRolesDisappear() {
+        index.remove(4L);
+        index.removeRole(ADMIN);
+        index.put(5L, 500L, new long[]{MOD}, "ONLINE", false);
+
+        assertEquals(4, index.size());
+        assertArrayEquals(new long[]{2L, 1L, 5L}, index.query(filter(new long[]{MOD}, null, null, null, null)));
+        assertEquals(0, index.query(filter(new long[]{ADMIN}, null, null, null, null)).length);
+    }
+
+    @Test
+    void pagesContinueAfterTheLastMemberWhenMembersJoinAndLeave() {
+        MemberBitmapIndex.Filter all = filter(null, null, null, null, null);
+        MemberBitmapIndex.Page first = index.query(all, null, 2);
+        assertArrayEquals(new long[]{4L, 3L}, first.ids());
+        assertEquals(0, first.skipped());
+        assertEquals(4, first.total());
+
+        // A newer member joins and an already listed member leaves between the pages
+        index.put(6L, 6_000L, new long[]{}, "ONLINE", false);
+        index.remove(4L);
+
+        MemberBitmapIndex.Page second = index.query(all, 3L, 2);
+        assertArrayEquals(new long[]{2L, 1L}, second.ids());
+        assertEquals(2, second.skipped());
+        assertEquals(4, second.total());
+    }
+
+    @Test
+    void membersJoiningAtTheSameTimeAreOrderedById() {
+        index.put(7L, 2_000L, new long[]{MOD}, "OFFLINE", false);
+        MemberBitmapIndex.Filter mods = filter(new long[]{MOD}, null, null, null, null);
+
+        assertArrayEquals(new long[]{4L, 7L}, index.query(mods, null, 2).ids());
+        assertArrayEquals(new long[]{2L, 1L}, index.query(mods, 7L, 2).ids());
+    }
+
+    @Test
+    void cursorOfAMemberWhoLeftIsRejected() {
+        index.remove(3L);
+
+        assertThrows(IllegalArgumentException.class, () -> index.query(filter(null, null, null, null, null), 3L, 2));
+    }
+
+    private static MemberBitmapIndex.Filter filter(long[] roles, Long after, Long before, String status, Boolean bots) {
+        return new MemberBitmapIndex.Filter(roles, after, before, status, bots);
+    }
+}
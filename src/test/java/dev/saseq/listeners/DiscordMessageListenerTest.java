@@ -2,6 +2,7 @@ package dev.saseq.listeners;
 
 import dev.saseq.mcp.SamplingResponse;
 import dev.saseq.services.MessageResponseService;
+import dev.saseq.subscriptions.MessageSubscriptions;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
@@ -61,13 +62,14 @@ class DiscordMessageListenerTest {
     @Mock
     private Guild guild;
 
+    private final MessageSubscriptions messageSubscriptions = new MessageSubscriptions();
     private DiscordMessageListener listener;
     private boolean messageProcessed;
 
     @BeforeEach
     void setUp() {
         messageProcessed = false;
-        listener = new DiscordMessageListener(true, messageResponseService) {
+        listener = new DiscordMessageListener(true, messageResponseService, messageSubscriptions) {
             @Override
             protected void processMessage(MessageReceivedEvent event) {
                 messageProcessed = true;
@@ -133,7 +135,7 @@ class DiscordMessageListenerTest {
     @Test
     void configDisablesMentionFilter() {
         // Given: mention filter is disabled via config
-        listener = new DiscordMessageListener(false, messageResponseService) {
+        listener = new DiscordMessageListener(false, messageResponseService, messageSubscriptions) {
             @Override
             protected void processMessage(MessageReceivedEvent event) {
                 messageProcessed = true;
@@ -167,7 +169,7 @@ class DiscordMessageListenerTest {
     @Test
     void listenerInvokesMessageResponseServiceWithCorrectContext() {
         // Given: a real listener (not overridden) that calls the service
-        DiscordMessageListener realListener = new DiscordMessageListener(true, messageResponseService);
+        DiscordMessageListener realListener = new DiscordMessageListener(true, messageResponseService, messageSubscriptions);
 
         setupCommonMocks();
         when(event.getChannelType()).thenReturn(ChannelType.TEXT);
@@ -204,7 +206,7 @@ class DiscordMessageListenerTest {
     @Test
     void listenerHandlesDmContext() {
         // Given: a DM message
-        DiscordMessageListener realListener = new DiscordMessageListener(true, messageResponseService);
+        DiscordMessageListener realListener = new DiscordMessageListener(true, messageResponseService, messageSubscriptions);
 
         setupCommonMocks();
         when(event.getChannelType()).thenReturn(ChannelType.PRIVATE);
@@ -238,7 +240,7 @@ class DiscordMessageListenerTest {
     @Test
     void listenerHandlesServiceException() {
         // Given: a real listener with a failing service
-        DiscordMessageListener realListener = new DiscordMessageListener(true, messageResponseService);
+        DiscordMessageListener realListener = new DiscordMessageListener(true, messageResponseService, messageSubscriptions);
 
         setupCommonMocks();
         when(event.getChannelType()).thenReturn(ChannelType.TEXT);
@@ -0,0 +1,39 @@
+package dev.saseq.listeners;
+
+import dev.saseq.caches.GuildSnapshotCache;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.unions.ChannelUnion;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateParentEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+
+class GuildSnapshotListenerTest {
+
+    private static final long GUILD = 1;
+    private static final long CATEGORY = 20;
+
+    private final GuildSnapshotCache snapshotCache = mock(GuildSnapshotCache.class);
+    private final GuildSnapshotListener listener = new GuildSnapshotListener(snapshotCache);
+
+    @Test
+    void movingAnUncategorizedChannelIntoACategoryInvalidatesBothSections() {
+        Guild guild = mock(Guild.class);
+        when(guild.getIdLong()).thenReturn(GUILD);
+        ChannelUnion channel = mock(ChannelUnion.class, withSettings().extraInterfaces(TextChannel.class));
+        when(channel.getType()).thenReturn(ChannelType.TEXT);
+        when(((TextChannel) channel).getGuild()).thenReturn(guild);
+        when(((TextChannel) channel).getParentCategoryIdLong()).thenReturn(CATEGORY);
+        ChannelUpdateParentEvent event = mock(ChannelUpdateParentEvent.class);
+        when(event.getChannel()).thenReturn(channel);
+        when(event.getOldValue()).thenReturn((Category) null);
+
+        listener.onGenericChannelUpdate(event);
+
+        verify(snapshotCache).invalidateSection(GUILD, CATEGORY);
+        verify(snapshotCache).invalidateSection(GUILD, 0);
+    }
+}
@@ -0,0 +1,165 @@
+package dev.saseq.processor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.saseq.processor.ToolCallbackProcessor.ParamModel;
+import dev.saseq.processor.ToolCallbackProcessor.ParamType;
+import dev.saseq.processor.ToolCallbackProcessor.ToolModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.annotation.Tool;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolCallbackWriterTest {
+
+    private static final String SERVICE = """
+            package gen;
+
+            import org.springframework.ai.tool.annotation.Tool;
+            import org.springframework.ai.tool.annotation.ToolParam;
+
+            public class EchoService {
+
+                @Tool(name = "repeat", description = "Repeat a text")
+                public String echo(@ToolParam(description = "Text") String text, @ToolParam(description = "Times") int times) {
+                    return text.repeat(times);
+                }
+
+                @Tool(name = "echo", description = "Echo a text")
+                public String echo(@ToolParam(description = "Text") String text) {
+                    return text;
+                }
+            }
+            """;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void schemaListsPropertiesAndOnlyRequiredParameters() {
+        List<ParamModel> params = List.of(
+                new ParamModel("channelId", ParamType.STRING, "Discord channel ID", true),
+                new ParamModel("limit", ParamType.INT, "", false),
+                new ParamModel("pinned", ParamType.BOOLEAN, "Only pinned", false));
+
+        String schema = ToolCallbackWriter.schema(params);
+
+        assertEquals("{\"$schema\":\"https://json-schema.org/draft/2020-12/schema\",\"type\":\"object\",\"properties\":{"
+                + "\"channelId\":{\"type\":\"string\",\"description\":\"Discord channel ID\"},"
+                + "\"limit\":{\"type\":\"integer\"},"
+                + "\"pinned\":{\"type\":\"boolean\",\"description\":\"Only pinned\"}},"
+                + "\"required\":[\"channelId\"],\"additionalProperties\":false}", schema);
+    }
+
+    @Test
+    void jsonStringEscapesQuotesAndControlCharacters() {
+        assertEquals("\"say \\\"hi\\\"\\n\\u0001\"", ToolCallbackWriter.jsonString("say \"hi\"\n\u0001"));
+    }
+
+    @Test
+    void generatedSourceCallsTheServiceWithBoundArguments() {
+        ToolModel tool = new ToolModel("readMessages", "read_messages", "Read messages", List.of(
+                new ParamModel("channelId", ParamType.STRING, "Discord channel ID", true),
+                new ParamModel("count", ParamType.INT, "Number of messages", false)),
+                "java.lang.String");
+
+        String source = ToolCallbackWriter.write("dev.saseq.services", "MessageService", "MessageServiceToolCallbacks", List.of(tool));
+
+        assertTrue(source.startsWith("package dev.saseq.services;"));
+        assertTrue(source.contains("public static ToolCallback[] create(MessageService service)"));
+        assertTrue(source.contains("private static final class ReadMessagesTool implements ToolCallback"));
+        assertTrue(source.contains("service.readMessages(text(input, \"channelId\"), present(integer(input, \"count\"), \"count\"))"));
+    }
+
+    @Test
+    void overloadsGetDistinctCallbackNames() {
+        ToolModel first = new ToolModel("echo", "echo", "Echo", List.of(), "java.lang.String");
+        ToolModel second = new ToolModel("echo", "repeat", "Repeat", List.of(), "java.lang.String");
+        ToolModel third = new ToolModel("echo2", "echo_two", "Echo two", List.of(), "java.lang.String");
+
+        assertEquals(List.of("EchoTool", "Echo2Tool", "Echo22Tool"),
+                ToolCallbackWriter.callbackNames(List.of(first, second, third)));
+    }
+
+    @Test
+    void generatedSourceCompilesAndValidatesArguments() throws Exception {
+        Map<String, ToolCallback> tools = compileAndCreate();
+
+        assertTrue(tools.get("repeat").call("{\"text\":\"ab\",\"times\":\"2\"}").contains("abab"));
+        assertTrue(tools.get("repeat").call("{\"text\":\"ab\",\"times\":3}").contains("ababab"));
+        assertTrue(tools.get("echo").call("{\"text\":\"hi\"}").contains("hi"));
+        assertEquals("times must be an integer, got \"abc\"",
+                rootCause(() -> tools.get("repeat").call("{\"text\":\"ab\",\"times\":\"abc\"}")).getMessage());
+        assertEquals("times must be an integer, got 1.5",
+                rootCause(() -> tools.get("repeat").call("{\"text\":\"ab\",\"times\":1.5}")).getMessage());
+        assertEquals("times is required",
+                rootCause(() -> tools.get("repeat").call("{\"text\":\"ab\"}")).getMessage());
+    }
+
+    /**
+     * Compiles {@link #SERVICE} with the processor and returns its generated callbacks by tool name.
+     */
+    private Map<String, ToolCallback> compileAndCreate() throws Exception {
+        Path sources = Files.createDirectories(workDir.resolve("src/gen"));
+        Path classes = Files.createDirectories(workDir.resolve("classes"));
+        Files.writeString(sources.resolve("EchoService.java"), SERVICE);
+        String classPath = classPath();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+        int status = compiler.run(null, null, diagnostics, "-classpath", classPath, "-processorpath", classPath,
+                "-processor", ToolCallbackProcessor.class.getName(), "-d", classes.toString(),
+                sources.resolve("EchoService.java").toString());
+        assertEquals(0, status, diagnostics.toString());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> service = loader.loadClass("gen.EchoService");
+            ToolCallback[] callbacks = (ToolCallback[]) loader.loadClass("gen.EchoService" + ToolCallbackProcessor.SUFFIX)
+                    .getMethod("create", service)
+                    .invoke(null, service.getConstructor().newInstance());
+            return Arrays.stream(callbacks)
+                    .collect(Collectors.toMap(tool -> tool.getToolDefinition().name(), tool -> tool));
+        }
+    }
+
+    /**
+     * The test class path plus the jars of the generated code's dependencies, which are not on
+     * {@code java.class.path} when the test runner launches through a manifest-only jar.
+     */
+    private static String classPath() throws URISyntaxException {
+        Set<String> entries = new LinkedHashSet<>(Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+        for (Class<?> type : List.of(ToolCallbackProcessor.class, ToolCallback.class,
+                Tool.class, ObjectMapper.class, JsonProcessingException.class, JsonInclude.class)) {
+            entries.add(Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static Throwable rootCause(Executable call) {
+        Throwable thrown = assertThrows(RuntimeException.class, call);
+        while (thrown.getCause() != null) {
+            thrown = thrown.getCause();
+        }
+        return thrown;
+    }
+}
@@ -0,0 +1,114 @@
+package dev.saseq.services;
+
+import dev.saseq.caches.PrivateChannelCache;
+import dev.saseq.gateway.DiscordGateway;
+import net.dv8tion.jda.api.entities.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BroadcastServiceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, Deque<CompletableFuture<Message>>> outcomes = new HashMap<>();
+    private final List<String> sends = new ArrayList<>();
+    private Runnable duringSend = () -> { };
+    private BroadcastService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BroadcastService(mock(DiscordGateway.class), new PrivateChannelCache(),
+                clock::get, Duration.ofMillis(50)) {
+            @Override
+            CompletableFuture<Message> submit(TargetType type, String target, String message) {
+                sends.add(target);
+                duringSend.run();
+                return outcomes.get(target).poll();
+            }
+        };
+    }
+
+    @Test
+    void resumeRetriesOnlyFailedTargets() {
+        outcome("1", sent("1"));
+        outcome("2", CompletableFuture.failedFuture(new IllegalStateException("Missing access")), sent("2"));
+
+        String report = service.broadcastMessage("1,2", "hello");
+        assertTrue(report.contains("1/2 delivered, 1 failed"), report);
+
+        String resumed = service.resumeBroadcast(broadcastId(report));
+
+        assertTrue(resumed.contains("2/2 delivered, 0 failed, 0 pending"), resumed);
+        assertEquals(List.of("1", "2", "2"), sends);
+    }
+
+    @Test
+    void resumeRequeuesTargetsPendingPastTheStaleThreshold() {
+        CompletableFuture<Message> lost = new CompletableFuture<>();
+        outcome("1", lost, sent("1"));
+
+        String report = service.broadcastMessage("1", "hello");
+        assertTrue(report.contains("1 pending"), report);
+
+        // Still within the stale threshold: nothing is resent
+        service.resumeBroadcast(broadcastId(report));
+        assertEquals(List.of("1"), sends);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        String resumed = service.resumeBroadcast(broadcastId(report));
+
+        assertTrue(resumed.contains("1/1 delivered"), resumed);
+        assertEquals(List.of("1", "1"), sends);
+        assertTrue(lost.isCancelled(), "the lost send should be cancelled so it cannot go out late");
+    }
+
+    @Test
+    void concurrentResumeIsRejected() {
+        outcome("1", CompletableFuture.failedFuture(new IllegalStateException("Unknown channel")), sent("1"));
+        String id = broadcastId(service.broadcastMessage("1", "hello"));
+
+        List<Throwable> rejected = new ArrayList<>();
+        duringSend = () -> CompletableFuture.runAsync(() -> {
+            try {
+                service.resumeBroadcast(id);
+            } catch (IllegalStateException e) {
+                rejected.add(e);
+            }
+        }).join();
+
+        String resumed = service.resumeBroadcast(id);
+
+        assertEquals(1, rejected.size());
+        assertTrue(resumed.contains("1/1 delivered"), resumed);
+        assertEquals(List.of("1", "1"), sends);
+    }
+
+    @SafeVarargs
+    private void outcome(String target, CompletableFuture<Message>... futures) {
+        outcomes.put(target, new ArrayDeque<>(List.of(futures)));
+    }
+
+    private static CompletableFuture<Message> sent(String target) {
+        Message message = mock(Message.class);
+        when(message.getJumpUrl()).thenReturn("https://discord.com/channels/1/" + target + "/1");
+        return CompletableFuture.completedFuture(message);
+    }
+
+    private static String broadcastId(String report) {
+        return report.substring("Broadcast ".length(), report.indexOf(':'));
+    }
+}
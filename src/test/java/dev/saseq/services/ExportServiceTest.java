@@ -0,0 +1,123 @@
+package dev.saseq.services;
+
+import dev.saseq.gateway.DiscordGateway;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageType;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportServiceTest {
+
+    private static final String CHANNEL_ID = "42";
+
+    @TempDir
+    Path exportDir;
+
+    // Newest first, the order Discord returns history in
+    private final List<Message> history = new ArrayList<>();
+    private ExportService service;
+
+    @BeforeEach
+    void setUp() {
+        for (int id = 250; id >= 1; id--) {
+            history.add(message(String.valueOf(id)));
+        }
+        DiscordGateway gateway = mock(DiscordGateway.class);
+        when(gateway.getTextChannelById(CHANNEL_ID)).thenReturn(mock(TextChannel.class));
+        service = new ExportService(gateway, exportDir.toString()) {
+            @Override
+            List<Message> fetchPage(TextChannel textChannel, String beforeId, int pageSize) {
+                int from = 0;
+                if (beforeId != null) {
+                    while (!history.get(from).getId().equals(beforeId)) {
+                        from++;
+                    }
+                    from++;
+                }
+                return history.subList(from, Math.min(history.size(), from + pageSize));
+            }
+        };
+    }
+
+    @Test
+    void resumedExportContinuesAfterTheCheckpoint() throws IOException {
+        String first = service.exportChannelHistory(CHANNEL_ID, null, null, null, "120");
+        assertTrue(first.startsWith("Export partial"), first);
+
+        String second = service.exportChannelHistory(CHANNEL_ID, null, null, "true", null);
+
+        assertTrue(second.startsWith("Export complete"), second);
+        assertEquals(expectedIds(), exportedIds());
+    }
+
+    @Test
+    void resumeDropsBytesWrittenAfterTheCheckpoint() throws IOException {
+        service.exportChannelHistory(CHANNEL_ID, null, null, null, "100");
+        // A crash in the middle of the next page leaves a partial line behind the checkpoint
+        Files.writeString(exportFile(), "{\"id\":\"150\",\"cont", StandardOpenOption.APPEND);
+
+        service.exportChannelHistory(CHANNEL_ID, null, null, "true", null);
+
+        assertEquals(expectedIds(), exportedIds());
+    }
+
+    @Test
+    void resumeRestartsWhenTheFileIsShorterThanItsCheckpoint() throws IOException {
+        service.exportChannelHistory(CHANNEL_ID, null, null, null, "200");
+        // The last checkpointed page never reached the disk
+        try (FileChannel file = FileChannel.open(exportFile(), StandardOpenOption.WRITE)) {
+            file.truncate(file.size() / 2);
+        }
+
+        String report = service.exportChannelHistory(CHANNEL_ID, null, null, "true", null);
+
+        assertTrue(report.contains("restarted"), report);
+        assertEquals(expectedIds(), exportedIds());
+    }
+
+    private Path exportFile() {
+        return exportDir.resolve(CHANNEL_ID + ".ndjson");
+    }
+
+    private List<String> expectedIds() {
+        return history.stream().map(Message::getId).toList();
+    }
+
+    private List<String> exportedIds() throws IOException {
+        return Files.readAllLines(exportFile()).stream()
+                .map(line -> line.substring("{\"id\":\"".length(), line.indexOf("\",")))
+                .toList();
+    }
+
+    private static Message message(String id) {
+        User author = mock(User.class);
+        when(author.getId()).thenReturn("7");
+        when(author.getName()).thenReturn("author");
+        Message message = mock(Message.class);
+        when(message.getId()).thenReturn(id);
+        when(message.getChannelId()).thenReturn(CHANNEL_ID);
+        when(message.getAuthor()).thenReturn(author);
+        when(message.getTimeCreated()).thenReturn(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        when(message.getType()).thenReturn(MessageType.DEFAULT);
+        when(message.getContentRaw()).thenReturn("message " + id);
+        when(message.getAttachments()).thenReturn(List.of());
+        return message;
+    }
+}
@@ -0,0 +1,42 @@
+package dev.saseq.services;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuildStructureTest {
+
+    @Test
+    void parsesCategoriesChannelsAndOverwrites() {
+        GuildStructure structure = GuildStructure.parse("""
+                {"categories": [{"name": "Event", "permissions": [{"role": "@everyone", "deny": ["view_channel"]}],
+                                 "channels": [{"name": "General Chat", "topic": "Chat"}, {"name": "Main Stage", "type": "voice"}]}],
+                 "channels": [{"name": "rules", "type": "announcement", "permissions": [{"roleId": "42", "allow": ["MESSAGE_SEND"]}]}]}
+                """);
+
+        GuildStructure.CategorySpec event = structure.categories().get(0);
+        assertEquals("Event", event.name());
+        assertEquals(Permission.VIEW_CHANNEL.getRawValue(), event.overwrites().get(0).deny());
+        assertEquals("general-chat", event.channels().get(0).name());
+        assertEquals("Chat", event.channels().get(0).topic());
+        assertEquals("Main Stage", event.channels().get(1).name());
+        assertEquals(ChannelType.VOICE, event.channels().get(1).type());
+        assertEquals(ChannelType.NEWS, structure.channels().get(0).type());
+        assertEquals(42L, (long) structure.channels().get(0).overwrites().get(0).roleId());
+        assertEquals(4, structure.channelCount());
+    }
+
+    @Test
+    void rejectsInvalidLayouts() {
+        assertThrows(IllegalArgumentException.class, () -> GuildStructure.parse("{"));
+        assertThrows(IllegalArgumentException.class, () -> GuildStructure.parse("{}"));
+        assertThrows(IllegalArgumentException.class, () -> GuildStructure.parse("{\"channels\": [{\"name\": \"a\", \"type\": \"forum\"}]}"));
+        assertThrows(IllegalArgumentException.class, () -> GuildStructure.parse("{\"channels\": [{\"name\": \"a\"}, {\"name\": \"A\"}]}"));
+        assertThrows(IllegalArgumentException.class, () -> GuildStructure.parse(
+                "{\"channels\": [{\"name\": \"a\", \"permissions\": [{\"allow\": [\"VIEW_CHANNEL\"]}]}]}"));
+        assertThrows(IllegalArgumentException.class, () -> GuildStructure.parse(
+                "{\"channels\": [{\"name\": \"a\", \"permissions\": [{\"role\": \"x\", \"allow\": [\"FLY\"]}]}]}"));
+    }
+}
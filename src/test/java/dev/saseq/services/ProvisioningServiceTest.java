@@ -0,0 +1,101 @@
+package dev.saseq.services;
+
+import dev.saseq.gateway.DiscordGateway;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.managers.channel.concrete.TextChannelManager;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.ChannelAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProvisioningServiceTest {
+
+    private static final String LAYOUT = """
+            {"categories": [{"name": "Event", "channels": [{"name": "general"}]}],
+             "channels": [{"name": "rules", "topic": "Be nice"}, {"name": "faq"}]}
+            """;
+
+    // The outcome each request completes with, keyed by the request itself
+    private final Map<RestAction<?>, Object> outcomes = new IdentityHashMap<>();
+    private ProvisioningService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Guild guild = mock(Guild.class);
+        when(guild.getName()).thenReturn("Test");
+        Category event = mock(Category.class);
+
+        ChannelAction<Category> createEvent = mock(ChannelAction.class);
+        when(guild.createCategory("Event")).thenReturn(createEvent);
+        outcomes.put(createEvent, event);
+
+        ChannelAction<TextChannel> createGeneral = mock(ChannelAction.class);
+        when(guild.createTextChannel("general", event)).thenReturn(createGeneral);
+        outcomes.put(createGeneral, mock(TextChannel.class));
+
+        ChannelAction<TextChannel> createFaq = mock(ChannelAction.class);
+        when(guild.createTextChannel("faq", null)).thenReturn(createFaq);
+        outcomes.put(createFaq, new IllegalStateException("Missing permissions"));
+
+        TextChannel rules = mock(TextChannel.class);
+        when(rules.getType()).thenReturn(ChannelType.TEXT);
+        when(rules.getName()).thenReturn("rules");
+        when(rules.getTopic()).thenReturn("Be kind");
+        TextChannelManager rulesManager = mock(TextChannelManager.class);
+        when(rules.getManager()).thenReturn(rulesManager);
+        outcomes.put(rulesManager, null);
+        when(guild.getChannels()).thenReturn(List.<GuildChannel>of(rules));
+
+        DiscordGateway gateway = mock(DiscordGateway.class);
+        when(gateway.getGuildById("1")).thenReturn(guild);
+        service = new ProvisioningService(gateway) {
+            @Override
+            CompletableFuture<?> send(RestAction<?> action) {
+                Object outcome = outcomes.get(action);
+                // Complete later on another thread, the way JDA's requester does
+                return CompletableFuture.supplyAsync(() -> {
+                    if (outcome instanceof RuntimeException error) {
+                        throw error;
+                    }
+                    return outcome;
+                }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+            }
+        };
+    }
+
+    @Test
+    void planListsOnlyTheDifferences() {
+        String plan = service.provisionStructure("1", LAYOUT, null, null);
+
+        assertTrue(plan.startsWith("Plan for Test: 3 to create, 1 to update, 0 to delete, 0 unchanged"), plan);
+        assertTrue(plan.contains("- update text channel #rules (topic)"), plan);
+        assertTrue(plan.contains("Nothing applied yet"), plan);
+    }
+
+    @Test
+    void applyReportsTheOutcomeOfEveryStep() {
+        String report = service.provisionStructure("1", LAYOUT, "true", null);
+
+        assertTrue(report.contains("3 to create, 1 to update, 0 to delete, 0 unchanged, 1 failed"), report);
+        assertTrue(report.contains("- create category **Event**: done"), report);
+        assertTrue(report.contains("- create text channel #general in Event: done"), report);
+        assertTrue(report.contains("- update text channel #rules (topic): done"), report);
+        assertTrue(report.contains("- create text channel #faq: failed: Missing permissions"), report);
+        assertFalse(report.contains("pending"), report);
+    }
+}
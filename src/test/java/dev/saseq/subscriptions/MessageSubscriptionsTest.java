@@ -0,0 +1,84 @@
+package dev.saseq.subscriptions;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MessageSubscriptionsTest {
+
+    private final MessageSubscriptions subscriptions = new MessageSubscriptions();
+
+    private static Message message(String channelId, String authorId, String content) {
+        Message message = mock(Message.class);
+        User author = mock(User.class);
+        lenient().when(author.getId()).thenReturn(authorId);
+        lenient().when(message.getChannelId()).thenReturn(channelId);
+        lenient().when(message.getAuthor()).thenReturn(author);
+        lenient().when(message.getContentRaw()).thenReturn(content);
+        return message;
+    }
+
+    @Test
+    void waitingCallReceivesMatchingMessagesOnly() throws Exception {
+        // Given: a subscription for one channel and a pattern
+        Message match = message("10", "1", "deploy finished");
+        try (MessageSubscriptions.Subscription subscription =
+                     subscriptions.subscribe(new MessageFilter(null, "10", null, null, Pattern.compile("deploy")))) {
+            CompletableFuture<List<Message>> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return subscription.await(Duration.ofSeconds(5), 10);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // When: messages arrive in other channels, without the pattern, and one that matches
+            subscriptions.publish(message("11", "1", "deploy finished"));
+            subscriptions.publish(message("10", "1", "hello"));
+            subscriptions.publish(match);
+
+            // Then: only the matching message is delivered
+            assertEquals(List.of(match), waiting.get());
+        }
+    }
+
+    @Test
+    void waitTimesOutWithoutMessages() throws Exception {
+        try (MessageSubscriptions.Subscription subscription =
+                     subscriptions.subscribe(new MessageFilter(null, null, "1", null, null))) {
+            assertTrue(subscription.await(Duration.ofMillis(10), 10).isEmpty());
+        }
+    }
+
+    @Test
+    void closedSubscriptionsStopReceiving() {
+        // Given: a subscription that has been closed
+        MessageSubscriptions.Subscription subscription = subscriptions.subscribe(new MessageFilter(null, null, null, null, null));
+        subscription.close();
+
+        // Then: nothing is subscribed any more
+        assertTrue(subscriptions.isEmpty());
+    }
+
+    @Test
+    void fullQueueDropsAndFlagsMessages() throws Exception {
+        try (MessageSubscriptions.Subscription subscription =
+                     subscriptions.subscribe(new MessageFilter(null, null, null, null, null))) {
+            Message message = message("10", "1", "spam");
+            for (int i = 0; i <= MessageSubscriptions.QUEUE_CAPACITY; i++) {
+                subscriptions.publish(message);
+            }
+
+            assertTrue(subscription.hasDropped());
+            assertEquals(MessageSubscriptions.QUEUE_CAPACITY, subscription.await(Duration.ZERO, 1000).size());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.saseq.webhooks;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void laterLinesOverrideFieldsOfEarlierOnes() {
+        Path file = directory.resolve("deliveries.ndjson");
+        try (DeliveryJournal journal = new DeliveryJournal(file)) {
+            journal.append(DeliveryJournal.record("a").put("status", "PENDING").put("content", "hello"));
+            journal.append(DeliveryJournal.record("b").put("status", "PENDING"));
+            journal.append(DeliveryJournal.record("a").put("status", "SENT").put("message", "link"));
+        }
+
+        try (DeliveryJournal journal = new DeliveryJournal(file)) {
+            Map<String, ObjectNode> records = journal.load();
+
+            assertEquals(List.of("a", "b"), List.copyOf(records.keySet()));
+            assertEquals("SENT", records.get("a").get("status").asText());
+            assertEquals("hello", records.get("a").get("content").asText());
+            assertEquals("link", records.get("a").get("message").asText());
+        }
+    }
+
+    @Test
+    void skipsALineCutShortByACrash() throws Exception {
+        Path file = directory.resolve("deliveries.ndjson");
+        try (DeliveryJournal journal = new DeliveryJournal(file)) {
+            journal.append(DeliveryJournal.record("a").put("status", "PENDING"));
+        }
+        Files.writeString(file, "{\"id\":\"b\",\"sta", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (DeliveryJournal journal = new DeliveryJournal(file)) {
+            assertEquals(List.of("a"), List.copyOf(journal.load().keySet()));
+        }
+    }
+
+    @Test
+    void rewriteReplacesTheFileAndKeepsAppending() throws Exception {
+        Path file = directory.resolve("deliveries.ndjson");
+        try (DeliveryJournal journal = new DeliveryJournal(file)) {
+            journal.append(DeliveryJournal.record("a").put("status", "SENT"));
+            journal.append(DeliveryJournal.record("b").put("status", "PENDING"));
+
+            journal.rewrite(List.of(DeliveryJournal.record("b").put("status", "PENDING")));
+            journal.append(DeliveryJournal.record("b").put("status", "FAILED"));
+
+            assertEquals(1, journal.appended());
+            assertEquals(2, Files.readAllLines(file).size());
+            assertEquals("FAILED", journal.load().get("b").get("status").asText());
+            assertFalse(journal.load().containsKey("a"));
+        }
+    }
+
+    @Test
+    void eachHolderClaimsItsOwnJournalAndAReleasedOneIsReclaimed() {
+        DeliveryJournal first = DeliveryJournal.claim(directory);
+        first.append(DeliveryJournal.record("a").put("status", "PENDING"));
+
+        try (DeliveryJournal second = DeliveryJournal.claim(directory)) {
+            assertTrue(second.load().isEmpty());
+            first.close();
+
+            try (DeliveryJournal third = DeliveryJournal.claim(directory)) {
+                assertEquals(List.of("a"), List.copyOf(third.load().keySet()));
+            }
+        }
+    }
+
+    @Test
+    void journalAndCreatedDirectoryAreOwnerOnly() throws Exception {
+        Path queueDir = directory.resolve("queue");
+        try (DeliveryJournal journal = DeliveryJournal.claim(queueDir)) {
+            journal.rewrite(List.of(DeliveryJournal.record("a")));
+        }
+
+        if (Files.getFileAttributeView(queueDir, PosixFileAttributeView.class) != null) {
+            assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(queueDir));
+            assertEquals(PosixFilePermissions.fromString("rw-------"),
+                    Files.getPosixFilePermissions(queueDir.resolve("deliveries.ndjson")));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.saseq.webhooks;
+
+import net.dv8tion.jda.api.entities.IncomingWebhookClient;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WebhookClientPoolTest {
+
+    private static final String URL_A = "https://discord.com/api/webhooks/1/token-a";
+    private static final String URL_B = "https://discord.com/api/webhooks/2/token-b";
+
+    private final List<String> created = new ArrayList<>();
+    private final IncomingWebhookClient client = mock(IncomingWebhookClient.class);
+
+    private WebhookClientPool pool(int maxClients) {
+        return new WebhookClientPool(maxClients, url -> {
+            created.add(url);
+            return client;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Message> stubSend(String content) {
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        WebhookMessageCreateAction<Message> action = mock(WebhookMessageCreateAction.class);
+        when(action.submit()).thenReturn(future);
+        when(client.sendMessage(content)).thenReturn(action);
+        return future;
+    }
+
+    @Test
+    void reusesTheClientOfAWebhook() {
+        WebhookClientPool pool = pool(4);
+        stubSend("a").complete(mock(Message.class));
+        stubSend("b").complete(mock(Message.class));
+
+        pool.send(URL_A, "a");
+        pool.send(URL_A + "?wait=true", "b");
+
+        assertEquals(List.of(URL_A), created);
+    }
+
+    @Test
+    void sendsOfOneWebhookRunInOrderEvenAfterAFailure() {
+        // Given: the first send is still in flight
+        WebhookClientPool pool = pool(4);
+        CompletableFuture<Message> first = stubSend("first");
+        stubSend("second").complete(mock(Message.class));
+        CompletableFuture<Message> firstResult = pool.send(URL_A, "first");
+        CompletableFuture<Message> secondResult = pool.send(URL_A, "second");
+
+        // Then: the second message waits for the first one
+        verify(client, never()).sendMessage("second");
+
+        // When: the first send fails
+        first.completeExceptionally(new IllegalStateException("rate limited"));
+
+        // Then: the second message is sent anyway
+        assertTrue(firstResult.isCompletedExceptionally());
+        assertTrue(secondResult.isDone() && !secondResult.isCompletedExceptionally());
+    }
+
+    @Test
+    void evictsIdleClientsButKeepsBusyOnes() {
+        WebhookClientPool pool = pool(1);
+        CompletableFuture<Message> pending = stubSend("a");
+        pool.send(URL_A, "a");
+
+        stubSend("b").complete(mock(Message.class));
+        pool.send(URL_B, "b");
+        assertEquals(2, pool.size());
+
+        pending.complete(mock(Message.class));
+        pool.send(URL_B, "b");
+        pool.send("https://discord.com/api/webhooks/3/token-c", "b");
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void rejectsUrlsThatAreNotWebhooks() {
+        assertThrows(IllegalArgumentException.class, () -> pool(4).send("https://example.com/webhooks/1/x", "a"));
+    }
+}
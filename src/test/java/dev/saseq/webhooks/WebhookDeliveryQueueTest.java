@@ -0,0 +1,129 @@
+package dev.saseq.webhooks;
+
+import net.dv8tion.jda.api.entities.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WebhookDeliveryQueueTest {
+
+    private static final String URL = "https://discord.com/api/webhooks/1/token";
+
+    @TempDir
+    Path directory;
+
+    private final List<String> sent = new ArrayList<>();
+    private final List<CompletableFuture<Message>> results = new ArrayList<>();
+    private final List<WebhookDeliveryQueue> queues = new ArrayList<>();
+
+    private final WebhookClientPool pool = new WebhookClientPool(4, url -> null) {
+        @Override
+        public CompletableFuture<Message> send(String webhookUrl, String content) {
+            sent.add(content);
+            CompletableFuture<Message> result = new CompletableFuture<>();
+            results.add(result);
+            return result;
+        }
+    };
+
+    private WebhookDeliveryQueue queue() {
+        WebhookDeliveryQueue queue = new WebhookDeliveryQueue(pool,
+                new DeliveryJournal(directory.resolve("deliveries.ndjson")), Clock.systemUTC());
+        queues.add(queue);
+        return queue;
+    }
+
+    @AfterEach
+    void closeQueues() {
+        queues.forEach(WebhookDeliveryQueue::close);
+    }
+
+    @Test
+    void sameIdempotencyKeyIsQueuedOnce() {
+        WebhookDeliveryQueue queue = queue();
+
+        Delivery first = queue.enqueue(URL, "hello", "relay-1");
+        Delivery second = queue.enqueue(URL, "hello", "relay-1");
+
+        assertSame(first, second);
+        assertEquals(1, queue.pendingCount());
+    }
+
+    @Test
+    void pendingMessagesAreSentAfterARestart() {
+        // Given: a message queued before the gateway was ready, then the process stopped
+        WebhookDeliveryQueue before = queue();
+        String id = before.enqueue(URL, "hello", null).getId();
+        before.close();
+        assertTrue(sent.isEmpty());
+
+        // When: the queue is opened again and the gateway becomes ready
+        WebhookDeliveryQueue after = queue();
+        after.start();
+        results.get(0).complete(mock(Message.class));
+
+        // Then: the message is sent and its receipt is journaled
+        assertEquals(List.of("hello"), sent);
+        assertEquals(Delivery.Status.SENT, after.get(id).getStatus());
+        assertEquals(Delivery.Status.SENT, queue().get(id).getStatus());
+    }
+
+    @Test
+    void messagesOfAWebhookAreSentOneAtATimeAndAPermanentErrorFailsOnlyItsMessage() {
+        WebhookDeliveryQueue queue = queue();
+        queue.start();
+        Delivery first = queue.enqueue(URL, "first", null);
+        Delivery second = queue.enqueue(URL, "second", null);
+        assertEquals(List.of("first"), sent);
+        assertEquals(1, queue.position(second));
+
+        results.get(0).completeExceptionally(new IllegalArgumentException("Unknown Webhook"));
+
+        assertEquals(Delivery.Status.FAILED, first.getStatus());
+        assertEquals("Unknown Webhook", first.getError());
+        assertEquals(List.of("first", "second"), sent);
+        assertEquals(0, queue.position(second));
+    }
+
+    @Test
+    void transientErrorsAreRetriedWithBoundedJitteredBackoff() {
+        long delay = WebhookDeliveryQueue.retryDelayMillis(new IOException("connection reset"), 3);
+
+        assertTrue(delay >= 2_000 && delay <= 4_000);
+        assertEquals(-1, WebhookDeliveryQueue.retryDelayMillis(new IOException("connection reset"), WebhookDeliveryQueue.MAX_ATTEMPTS));
+        assertEquals(-1, WebhookDeliveryQueue.retryDelayMillis(new IllegalArgumentException("Unknown Webhook"), 1));
+    }
+
+    @Test
+    void theWebhookTokenIsJournaledOnlyWhileTheMessageIsPending() throws IOException {
+        WebhookDeliveryQueue queue = queue();
+        queue.start();
+        String id = queue.enqueue(URL, "hello", null).getId();
+        assertTrue(journal().contains("\"token\":\"token\""));
+
+        results.get(0).complete(mock(Message.class));
+        queue.close();
+
+        // Reopening compacts the journal down to the settled record
+        assertEquals(Delivery.Status.SENT, queue().get(id).getStatus());
+        String journal = journal();
+        assertFalse(journal.contains("token"), journal);
+        assertFalse(journal.contains(URL), journal);
+        assertTrue(journal.contains("\"webhook\":\"1\""), journal);
+    }
+
+    private String journal() throws IOException {
+        return Files.readString(directory.resolve("deliveries.ndjson"));
+    }
+}